@@ -0,0 +1,34 @@
+import axios from "./axios";
+import { Page, Reimbursement } from "../types";
+
+// Columnar reimbursement page, sent when we ask for it by Accept header (see CompactReimbursementConverter):
+// row i is reimbid[i], amount[i], ..., status is an index into statuses, usernames are in the users side table
+interface CompactReimbursements {
+    reimbid: number[];
+    amount: number[];
+    description: string[];
+    status: number[];
+    statuses: string[];
+    userId: number[];
+    users: Record<number, string>;
+    next: number | null;
+}
+
+export const COMPACT_JSON = "application/vnd.reimbursements.compact+json";
+
+// GET a reimbursement list endpoint in the compact format and turn it back into an ordinary page
+export async function getCompactPage(url: string): Promise<Page<Reimbursement>> {
+    const { data } = await axios.get<CompactReimbursements>(url, {
+        withCredentials: true,
+        headers: { Accept: COMPACT_JSON },
+    });
+    const items = data.reimbid.map((reimbid, i) => ({
+        reimbid,
+        amount: data.amount[i],
+        description: data.description[i],
+        status: data.statuses[data.status[i]],
+        userId: data.userId[i],
+        username: data.users[data.userId[i]],
+    }));
+    return { items, next: data.next };
+}
@@ -0,0 +1,34 @@
+import axios from "./axios";
+import { Reimbursement } from "../types";
+
+export type ReimbursementEventType = "created" | "updated" | "resolved";
+
+// Live reimbursement changes from /reimbursements/events (Server-Sent Events).
+// onChange gets each created/updated/resolved reimbursement; onResync means the list on screen may be stale
+// (a bulk change, events dropped because we fell behind, or a reconnect) and should be refetched.
+// Returns a function that closes the stream.
+export function subscribeToReimbursementEvents(
+    onChange: (type: ReimbursementEventType, reimbursement: Reimbursement) => void,
+    onResync: () => void
+): () => void {
+    const source = new EventSource(`${axios.defaults.baseURL}/reimbursements/events`, { withCredentials: true });
+    let disconnected = false;
+
+    (["created", "updated", "resolved"] as ReimbursementEventType[]).forEach((type) =>
+        source.addEventListener(type, (e) => onChange(type, JSON.parse((e as MessageEvent).data)))
+    );
+    source.addEventListener("resync", () => onResync());
+
+    // EventSource reconnects by itself - anything that changed while we were away has to be refetched
+    source.onerror = () => {
+        disconnected = true;
+    };
+    source.onopen = () => {
+        if (disconnected) {
+            disconnected = false;
+            onResync();
+        }
+    };
+
+    return () => source.close();
+}
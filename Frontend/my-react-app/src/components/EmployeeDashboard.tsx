@@ -1,6 +1,7 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import axios from "../api/axios";
 import { Reimbursement } from "../types";
+import { subscribeToReimbursementEvents } from "../api/events";
 import { useNavigate } from "react-router-dom";
 
 const EmployeeDashboard: React.FC = () => {
@@ -13,8 +14,18 @@ const EmployeeDashboard: React.FC = () => {
         description: "",
     });
     const [editingReimbursement, setEditingReimbursement] = useState<Reimbursement | null>(null);
+    // Idempotency-Key for the claim being filled in: a resubmit (double click, retry after a timeout or a 503)
+    // gets the first response back instead of creating a second claim. A new key once it has gone through
+    const claimKey = useRef<string>(crypto.randomUUID());
     const navigate = useNavigate();
 
+    const fetchReimbursements = async () => {
+        const reimbursementsResponse = await axios.get("/reimbursements/user/self", {
+            withCredentials: true,
+        });
+        setReimbursements(reimbursementsResponse.data);
+    };
+
     useEffect(() => {
         const fetchUserAndReimbursements = async () => {
             try {
@@ -23,10 +34,7 @@ const EmployeeDashboard: React.FC = () => {
                 setUserName(`${userResponse.data.firstName} ${userResponse.data.lastName}`); // Set the user's name
                 
                 // Fetch reimbursements
-                const reimbursementsResponse = await axios.get("/reimbursements/user/self", {
-                    withCredentials: true,
-                });
-                setReimbursements(reimbursementsResponse.data);
+                await fetchReimbursements();
             } catch (error: any) {
                 console.error("Error fetching data:", error);
                 if (error.response?.status === 401) {
@@ -41,6 +49,21 @@ const EmployeeDashboard: React.FC = () => {
         fetchUserAndReimbursements();
     }, [navigate]);
 
+    // Live updates - the server only sends events for our own reimbursements (e.g. a manager resolving one)
+    useEffect(() => {
+        return subscribeToReimbursementEvents(
+            (_type, changed) =>
+                setReimbursements((prev) =>
+                    prev.some((r) => r.reimbid === changed.reimbid)
+                        ? prev.map((r) => (r.reimbid === changed.reimbid ? changed : r))
+                        : [...prev, changed]
+                ),
+            () => {
+                fetchReimbursements().catch(() => setError("Failed to fetch data."));
+            }
+        );
+    }, []);
+
     const handleCreateReimbursement = async (e: React.FormEvent) => {
         e.preventDefault();
         setError("");
@@ -53,14 +76,27 @@ const EmployeeDashboard: React.FC = () => {
                     amount: parseFloat(newReimbursement.amount),
                     description: newReimbursement.description,
                 },
-                { withCredentials: true }
+                { withCredentials: true, headers: { "Idempotency-Key": claimKey.current } }
             );
 
-            setReimbursements([...reimbursements, response.data]);
+            claimKey.current = crypto.randomUUID();
             setNewReimbursement({ amount: "", description: "" });
+            if (response.status === 202) {
+                // Queued for saving (write-behind mode) - the "created" event adds it to the list once it's saved
+                setSuccess("Reimbursement submitted! It will appear in your list in a moment.");
+                return;
+            }
+            // The "created" event may have added it already
+            setReimbursements((prev) => [...prev.filter((r) => r.reimbid !== response.data.reimbid), response.data]);
             setSuccess("Reimbursement created successfully!");
-        } catch (err) {
-            setError("Failed to create reimbursement. Please try again.");
+        } catch (err: any) {
+            if (err.response?.status === 429) {
+                setError("You're submitting claims too quickly. Please wait a moment and try again.");
+            } else if (err.response?.status === 503) {
+                setError("Lots of claims are coming in right now. Please try again in a moment.");
+            } else {
+                setError("Failed to create reimbursement. Please try again.");
+            }
         }
     };
 
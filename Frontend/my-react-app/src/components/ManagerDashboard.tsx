@@ -1,12 +1,17 @@
 import React, { useState, useEffect } from "react";
 import axios from "../api/axios";
-import { User, Reimbursement } from "../types";
+import { User, Reimbursement, Page, ReimbursementSummary } from "../types";
+import { subscribeToReimbursementEvents } from "../api/events";
+import { getCompactPage } from "../api/compact";
 import { useNavigate } from "react-router-dom";
 
 const ManagerDashboard: React.FC = () => {
     const [users, setUsers] = useState<User[]>([]);
     const [pendingReimbursements, setPendingReimbursements] = useState<Reimbursement[]>([]);
     const [resolvedReimbursements, setResolvedReimbursements] = useState<Reimbursement[]>([]);
+    const [pendingNext, setPendingNext] = useState<number | null>(null);
+    const [allNext, setAllNext] = useState<number | null>(null);
+    const [summary, setSummary] = useState<ReimbursementSummary | null>(null);
     const [newReimbursement, setNewReimbursement] = useState<{ userId: number; description: string; amount: string }>({
         userId: 0,
         description: "",
@@ -15,29 +20,98 @@ const ManagerDashboard: React.FC = () => {
     const [error, setError] = useState<string>("");
     const [success, setSuccess] = useState<string>("");
     const [editingReimbursement, setEditingReimbursement] = useState<Reimbursement | null>(null);
+    const [searchText, setSearchText] = useState<string>("");
+    const [searchResults, setSearchResults] = useState<Reimbursement[] | null>(null);
     const navigate = useNavigate(); // Initialize navigate
 
-    useEffect(() => {
-        const fetchData = async () => {
-            try {
-                const usersResponse = await axios.get("/users/all", { withCredentials: true });
-                setUsers(usersResponse.data || []); // Default to empty array if no data
+    const fetchData = async () => {
+        try {
+            const usersResponse = await axios.get("/users/all", { withCredentials: true });
+            setUsers(usersResponse.data || []); // Default to empty array if no data
 
-                const pendingResponse = await axios.get("/reimbursements/pending", { withCredentials: true });
-                setPendingReimbursements(pendingResponse.data || []); // Default to empty array if no data
+            const summaryResponse = await axios.get<ReimbursementSummary>("/reimbursements/summary?status=PENDING&top=5", { withCredentials: true });
+            setSummary(summaryResponse.data);
 
-                const allResponse = await axios.get("/reimbursements/all", { withCredentials: true });
-                setResolvedReimbursements(
-                    (allResponse.data || []).filter((r: Reimbursement) => r.status !== "PENDING")
-                );
-            } catch (err) {
-                setError("Failed to fetch data.");
-            }
-        };
+            const pendingResponse = await axios.get<Page<Reimbursement>>("/reimbursements/pending", { withCredentials: true });
+            setPendingReimbursements(pendingResponse.data.items);
+            setPendingNext(pendingResponse.data.next);
+
+            // the full list is the big one - fetch it in the compact format
+            const allPage = await getCompactPage("/reimbursements/all");
+            setResolvedReimbursements(
+                allPage.items.filter((r: Reimbursement) => r.status !== "PENDING")
+            );
+            setAllNext(allPage.next);
+        } catch (err) {
+            setError("Failed to fetch data.");
+        }
+    };
 
+    useEffect(() => {
         fetchData();
     }, []);
 
+    // Put a reimbursement in the right list, replacing any older copy - used for our own changes and for live events
+    const applyChange = (changed: Reimbursement) => {
+        const others = (list: Reimbursement[]) => list.filter((r) => r.reimbid !== changed.reimbid);
+        if (changed.status.toUpperCase() === "PENDING") {
+            setPendingReimbursements((prev) =>
+                prev.some((r) => r.reimbid === changed.reimbid)
+                    ? prev.map((r) => (r.reimbid === changed.reimbid ? changed : r))
+                    : [...prev, changed]
+            );
+            setResolvedReimbursements(others);
+        } else {
+            setPendingReimbursements(others);
+            setResolvedReimbursements((prev) => [...others(prev), changed]);
+        }
+    };
+
+    // Live updates from every employee, instead of refetching the lists; a resync means reload them
+    useEffect(() => {
+        return subscribeToReimbursementEvents((_type, changed) => applyChange(changed), () => fetchData());
+    }, []);
+
+    const loadMorePending = async () => {
+        if (pendingNext === null) return;
+        try {
+            const response = await axios.get<Page<Reimbursement>>(`/reimbursements/pending?after=${pendingNext}`, { withCredentials: true });
+            setPendingReimbursements((prev) => [...prev, ...response.data.items]);
+            setPendingNext(response.data.next);
+        } catch (err) {
+            setError("Failed to fetch more pending reimbursements.");
+        }
+    };
+
+    const loadMoreResolved = async () => {
+        if (allNext === null) return;
+        try {
+            const page = await getCompactPage(`/reimbursements/all?after=${allNext}`);
+            setResolvedReimbursements((prev) => [
+                ...prev,
+                ...page.items.filter((r: Reimbursement) => r.status !== "PENDING"),
+            ]);
+            setAllNext(page.next);
+        } catch (err) {
+            setError("Failed to fetch more reimbursements.");
+        }
+    };
+
+    // Ranked search over all descriptions, in the compact format like the full list
+    const handleSearch = async (e: React.FormEvent) => {
+        e.preventDefault();
+        if (!searchText.trim()) {
+            setSearchResults(null);
+            return;
+        }
+        try {
+            const page = await getCompactPage(`/reimbursements/search?q=${encodeURIComponent(searchText)}`);
+            setSearchResults(page.items);
+        } catch (err) {
+            setError("Search is unavailable right now. Please try again shortly.");
+        }
+    };
+
     const handleDeleteUser = async (userId: number) => {
         try {
             // Send delete request to backend
@@ -48,11 +122,11 @@ const ManagerDashboard: React.FC = () => {
     
             // Remove reimbursements associated with the deleted user
             setPendingReimbursements((prevReimbursements) =>
-                prevReimbursements.filter((reimbursement) => reimbursement.user.userId !== userId)
+                prevReimbursements.filter((reimbursement) => reimbursement.userId !== userId)
             );
     
             setResolvedReimbursements((prevReimbursements) =>
-                prevReimbursements.filter((reimbursement) => reimbursement.user.userId !== userId)
+                prevReimbursements.filter((reimbursement) => reimbursement.userId !== userId)
             );
     
             setSuccess(`User ID ${userId} and related reimbursements deleted successfully.`);
@@ -66,14 +140,12 @@ const ManagerDashboard: React.FC = () => {
 
     const handleResolveReimbursement = async (id: number, status: string) => {
         try {
-            await axios.patch(`/reimbursements/${id}/resolve?status=${status}`, {}, { withCredentials: true });
-            setPendingReimbursements(
-                pendingReimbursements.filter((reimbursement) => reimbursement.reimbid !== id)
-            );
-            setResolvedReimbursements([
-                ...resolvedReimbursements,
-                { ...pendingReimbursements.find((reimbursement) => reimbursement.reimbid === id), status },
-            ]);
+            // A claim is only resolved once, so the key can be derived from it - resolving again replays the first answer
+            const response = await axios.patch<Reimbursement>(`/reimbursements/${id}/resolve?status=${status}`, {}, {
+                withCredentials: true,
+                headers: { "Idempotency-Key": `resolve-${id}-${status}` },
+            });
+            applyChange(response.data);
         } catch (err) {
             setError("Failed to resolve reimbursement.");
         }
@@ -95,7 +167,7 @@ const ManagerDashboard: React.FC = () => {
                 { withCredentials: true }
             );
     
-            setPendingReimbursements([...pendingReimbursements, response.data]);
+            applyChange(response.data);
             setNewReimbursement({ userId: 0, description: "", amount: "" });
             setSuccess("Reimbursement created successfully!");
         } catch (err) {
@@ -154,13 +226,7 @@ const ManagerDashboard: React.FC = () => {
                 }
             );
     
-            setPendingReimbursements(
-                pendingReimbursements.map((reimbursement) =>
-                    reimbursement.reimbid === editingReimbursement.reimbid
-                        ? response.data
-                        : reimbursement
-                )
-            );
+            applyChange(response.data);
             setEditingReimbursement(null);
             setSuccess("Reimbursement updated successfully!");
         } catch (err) {
@@ -175,6 +241,38 @@ const ManagerDashboard: React.FC = () => {
             {error && <p style={{ color: "red" }}>{error}</p>}
             {success && <p style={{ color: "green" }}>{success}</p>}
 
+            {summary && (
+                <div style={{ marginBottom: "20px" }}>
+                    <h3>Summary</h3>
+                    <table border="1" style={{ borderCollapse: "collapse", textAlign: "left" }}>
+                        <thead>
+                            <tr>
+                                <th>Status</th>
+                                <th>Count</th>
+                                <th>Total</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            {summary.byStatus.map((s) => (
+                                <tr key={s.status}>
+                                    <td>{s.status}</td>
+                                    <td>{s.count}</td>
+                                    <td>${s.total.toFixed(2)}</td>
+                                </tr>
+                            ))}
+                        </tbody>
+                    </table>
+                    <h4>Top Pending Claimants</h4>
+                    <ol>
+                        {summary.topClaimants.map((c) => (
+                            <li key={c.userId}>
+                                {c.username}: {c.count} claims, ${c.total.toFixed(2)}
+                            </li>
+                        ))}
+                    </ol>
+                </div>
+            )}
+
             <h3>Create Reimbursement</h3>
             <form onSubmit={handleCreateReimbursement} style={{ marginBottom: "20px" }}>
                 <label>
@@ -310,6 +408,7 @@ const ManagerDashboard: React.FC = () => {
                     ))}
                 </tbody>
             </table>
+            {pendingNext !== null && <button onClick={loadMorePending}>Load more</button>}
             {editingReimbursement && (
             <div>
                 <h3>Edit Reimbursement</h3>
@@ -355,6 +454,46 @@ const ManagerDashboard: React.FC = () => {
                 </form>
             </div>
         )}
+            <h3>Search Reimbursements</h3>
+            <form onSubmit={handleSearch} style={{ marginBottom: "10px" }}>
+                <input
+                    type="text"
+                    value={searchText}
+                    onChange={(e) => setSearchText(e.target.value)}
+                    placeholder="e.g. hotel conference"
+                />
+                <button type="submit">Search</button>
+            </form>
+            {searchResults && (
+                <table border="1" style={{ width: "100%", borderCollapse: "collapse", textAlign: "left" }}>
+                    <thead>
+                        <tr>
+                            <th>ID</th>
+                            <th>Description</th>
+                            <th>Amount</th>
+                            <th>Status</th>
+                            <th>User</th>
+                        </tr>
+                    </thead>
+                    <tbody>
+                        {searchResults.length > 0 ? (
+                            searchResults.map((reimbursement) => (
+                                <tr key={reimbursement.reimbid}>
+                                    <td>{reimbursement.reimbid}</td>
+                                    <td>{reimbursement.description}</td>
+                                    <td>${reimbursement.amount.toFixed(2)}</td>
+                                    <td>{reimbursement.status}</td>
+                                    <td>{reimbursement.username}</td>
+                                </tr>
+                            ))
+                        ) : (
+                            <tr>
+                                <td colSpan={5}>No matching reimbursements.</td>
+                            </tr>
+                        )}
+                    </tbody>
+                </table>
+            )}
             <h3>Resolved Reimbursements</h3>
             <table border="1" style={{ width: "100%", borderCollapse: "collapse", textAlign: "left" }}>
                 <thead>
@@ -382,6 +521,7 @@ const ManagerDashboard: React.FC = () => {
                         )}
                 </tbody>
             </table>
+            {allNext !== null && <button onClick={loadMoreResolved}>Load more</button>}
 
             {/* Back to Login Button */}
             <button
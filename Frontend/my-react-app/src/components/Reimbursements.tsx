@@ -15,11 +15,11 @@ const ManagerDashboard: React.FC = () => {
                 setUsers(usersResponse.data);
 
                 const pendingResponse = await axios.get("/reimbursements/pending", { withCredentials: true });
-                setPendingReimbursements(pendingResponse.data);
+                setPendingReimbursements(pendingResponse.data.items);
 
                 const resolvedResponse = await axios.get("/reimbursements/all", { withCredentials: true });
                 setResolvedReimbursements(
-                    resolvedResponse.data.filter((r: Reimbursement) => r.status !== "PENDING")
+                    resolvedResponse.data.items.filter((r: Reimbursement) => r.status !== "PENDING")
                 );
             } catch (err) {
                 setError("Failed to fetch data.");
@@ -2,6 +2,9 @@ export interface User {
     userId: number;
     username: string;
     role: string;
+    firstName?: string;
+    lastName?: string;
+    reimbursementCount?: number;
 }
 
 export interface Reimbursement {
@@ -9,5 +12,18 @@ export interface Reimbursement {
     description: string;
     amount: number;
     status: string;
-    userId: number; 
-}
\ No newline at end of file
+    userId: number;
+    username: string;
+}
+
+// One page of a keyset-paginated list; pass "next" back as ?after= to get the following page
+export interface Page<T> {
+    items: T[];
+    next: number | null;
+}
+
+// Server-side dashboard totals from /reimbursements/summary
+export interface ReimbursementSummary {
+    byStatus: { status: string; count: number; total: number }[];
+    topClaimants: { userId: number; username: string; count: number; total: number }[];
+}
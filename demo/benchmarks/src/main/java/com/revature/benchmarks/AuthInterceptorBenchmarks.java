@@ -0,0 +1,88 @@
+package com.revature.benchmarks;
+
+import com.revature.aspects.AuthInterceptor;
+import com.revature.controllers.ReimbursementController;
+import jakarta.servlet.http.HttpSession;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.method.HandlerMethod;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+//Per-request cost of the admin check: the old AuthAspect body (two session reads + a println on every call)
+//vs AuthInterceptor.preHandle (principal resolved once + route table lookup), for a logged-in manager.
+//The old println goes to a discarding stream so the console isn't flooded - it still takes the PrintStream lock,
+//so compare with concurrent callers too: java -jar benchmarks/target/benchmarks.jar AuthInterceptor -t max
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthInterceptorBenchmarks {
+
+    private ConfigurableApplicationContext context;
+    private AuthInterceptor authInterceptor;
+    private HandlerMethod handler;
+    private final MockHttpSession session = new MockHttpSession();
+    private final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+    //MockHttpServletRequest isn't thread-safe, so one per benchmark thread
+    @State(Scope.Thread)
+    public static class Request {
+        private MockHttpServletRequest request;
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup(Level.Trial)
+        public void build(AuthInterceptorBenchmarks shared) {
+            request = new MockHttpServletRequest("GET", "/reimbursements/all");
+            request.setSession(shared.session);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws NoSuchMethodException {
+        context = BenchmarkApp.start();
+        authInterceptor = context.getBean(AuthInterceptor.class);
+        handler = new HandlerMethod(context.getBean(ReimbursementController.class),
+                ReimbursementController.class.getMethod("getAllReimbursements", int.class, Integer.class, boolean.class));
+        session.setAttribute("userId", 1);
+        session.setAttribute("username", "manager");
+        session.setAttribute("role", "manager");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void legacyAspect(Blackhole blackhole) {
+        blackhole.consume(legacyAspectCheck(session, discard, "getAllReimbursements"));
+    }
+
+    @Benchmark
+    public void interceptor(Request request, Blackhole blackhole) throws Exception {
+        blackhole.consume(authInterceptor.preHandle(request.request, request.response, handler));
+    }
+
+    //The body of the old AuthAspect.checkAdminAccess
+    private static boolean legacyAspectCheck(HttpSession session, PrintStream out, String method) {
+        String username = (String) session.getAttribute("username");
+        String role = (String) session.getAttribute("role");
+        if (username == null || role == null) {
+            throw new SecurityException("Access Denied: You must be logged in to perform this action.");
+        }
+        if (!"manager".equalsIgnoreCase(role)) {
+            throw new SecurityException("Access Denied: Only administrators can perform this action.");
+        }
+        out.println("Access granted to admin for method: " + method);
+        return true;
+    }
+}
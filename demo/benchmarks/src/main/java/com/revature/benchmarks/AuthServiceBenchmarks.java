@@ -0,0 +1,46 @@
+package com.revature.benchmarks;
+
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.LoginDTO;
+import com.revature.models.DTOs.OutgoingUserDTO;
+import com.revature.services.AuthService;
+import com.revature.services.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+//AuthService.login (cached user lookup + BCrypt check on the hashing pool) at a cheap and at the default cost
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthServiceBenchmarks {
+
+    @Param({"4", "10"})
+    public int bcryptCost;
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private LoginDTO login;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApp.start("--passwords.bcrypt.cost=" + bcryptCost);
+        authService = context.getBean(AuthService.class);
+        context.getBean(UserService.class).insertUser(new IncomingUserDTO(0, "Bench", "Mark", "bench", "password", "employee"));
+        login = new LoginDTO("bench", "password");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public OutgoingUserDTO login() {
+        return authService.login(login);
+    }
+}
@@ -0,0 +1,36 @@
+package com.revature.benchmarks;
+
+import com.revature.demo.DemoApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+//Starts the real app (same beans, aspects and JPA config as production) on a fresh in-memory H2 database,
+//migrated by Flyway like any other
+public final class BenchmarkApp {
+
+    private BenchmarkApp() {
+    }
+
+    //extraArgs are Spring properties as command-line args, e.g. "--passwords.bcrypt.cost=4"
+    public static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1"
+                        + ";INIT=CREATE SCHEMA IF NOT EXISTS demo",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--reimbursements.search.path=",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        ));
+        args.addAll(Arrays.asList(extraArgs));
+        return SpringApplication.run(DemoApplication.class, args.toArray(new String[0]));
+    }
+}
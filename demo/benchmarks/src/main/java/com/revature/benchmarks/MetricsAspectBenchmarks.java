@@ -0,0 +1,66 @@
+package com.revature.benchmarks;
+
+import com.revature.aspects.MetricsAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+//Cost per call of MetricsAspect: the same trivial controller proxied with a pass-through aspect vs with MetricsAspect
+//(the difference is what the timing itself adds on top of the AOP proxy, which any aspect pays)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsAspectBenchmarks {
+
+    @RestController
+    public static class TrivialController {
+        public int handle(int x) {
+            return x + 1;
+        }
+    }
+
+    @Aspect
+    public static class PassThroughAspect {
+        @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+        public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+            return joinPoint.proceed();
+        }
+    }
+
+    private TrivialController passThrough;
+    private TrivialController timed;
+    private int x;
+
+    @Setup(Level.Trial)
+    public void proxy() {
+        passThrough = proxy(new PassThroughAspect());
+        timed = proxy(new MetricsAspect(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public void passThroughAspect(Blackhole blackhole) {
+        blackhole.consume(passThrough.handle(x++));
+    }
+
+    @Benchmark
+    public void metricsAspect(Blackhole blackhole) {
+        blackhole.consume(timed.handle(x++));
+    }
+
+    private static TrivialController proxy(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TrivialController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+}
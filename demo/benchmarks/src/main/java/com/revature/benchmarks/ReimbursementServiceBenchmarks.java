@@ -0,0 +1,82 @@
+package com.revature.benchmarks;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//ReimbursementService write and read paths, through the real Spring/JPA stack on H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReimbursementServiceBenchmarks {
+
+    private static final int SEEDED_PENDING = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ReimbursementService reimbursementService;
+    private int userId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApp.start();
+        reimbursementService = context.getBean(ReimbursementService.class);
+
+        User user = context.getBean(UserDAO.class).save(new User(0, "Bench", "Mark", "bench", "password", "employee", null));
+        userId = user.getUserId();
+
+        List<Reimbursement> rows = new ArrayList<>(SEEDED_PENDING);
+        for (int i = 0; i < SEEDED_PENDING; i++) {
+            rows.add(new Reimbursement(0, 10 + i % 500, "seeded " + i, "PENDING", user));
+        }
+        context.getBean(ReimbursementDAO.class).saveAll(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    //A fresh PENDING reimbursement for every resolve call (created outside the measured time)
+    @State(Scope.Thread)
+    public static class PendingRow {
+        int reimbid;
+
+        @Setup(Level.Invocation)
+        public void create(ReimbursementServiceBenchmarks app) {
+            reimbid = app.reimbursementService.insertReimbursement(newClaim(), app.userId).getReimbid();
+        }
+    }
+
+    @Benchmark
+    public OutgoingReimbursementDTO insertReimbursement() {
+        return reimbursementService.insertReimbursement(newClaim(), userId);
+    }
+
+    @Benchmark
+    public OutgoingReimbursementDTO resolveReimbursement(PendingRow row) {
+        return reimbursementService.resolveReimbursement(row.reimbid, "APPROVED");
+    }
+
+    //first page of the manager's pending list (default page size)
+    @Benchmark
+    public PageDTO<OutgoingReimbursementDTO> getPendingReimbursements() {
+        return reimbursementService.getPendingReimbursements(0, null);
+    }
+
+    private static Reimbursement newClaim() {
+        return new Reimbursement(0, 42.5, "benchmark claim", "PENDING", null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.revature.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.models.DTOs.CompactReimbursementsDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Jackson serialization of reimbursement lists - the entity (old response shape), the DTO page /reimbursements/all
+//returns now, and the compact columnar page dashboards get with Accept: application/vnd.reimbursements.compact+json
+//(CompactReimbursementConverter). Payload sizes per shape are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmarks {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    //same defaults as the ObjectMapper Spring Boot configures for the controllers
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    //resolved once, as CompactReimbursementConverter does
+    private final ObjectWriter pageWriter = objectMapper.writerFor(new TypeReference<PageDTO<OutgoingReimbursementDTO>>() {});
+    private final ObjectWriter compactWriter = objectMapper.writerFor(CompactReimbursementsDTO.class);
+
+    private List<Reimbursement> reimbursements;
+    private List<OutgoingReimbursementDTO> dtos;
+
+    @Setup(Level.Trial)
+    public void build() throws JsonProcessingException {
+        reimbursements = new ArrayList<>(rows);
+        dtos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            User user = new User(i % 100, "First" + i % 100, "Last" + i % 100, "user" + i % 100, "password", "employee", null);
+            Reimbursement reimbursement = new Reimbursement(i + 1, 10 + i % 500, "claim number " + i, "PENDING", user);
+            reimbursements.add(reimbursement);
+            dtos.add(new OutgoingReimbursementDTO(reimbursement.getReimbid(), reimbursement.getAmount(),
+                    reimbursement.getDescription(), reimbursement.getStatus(), user.getUserId(), user.getUsername()));
+        }
+        System.out.printf("%n%d rows: entities %d bytes, DTO page %d bytes, compact page %d bytes%n", rows,
+                reimbursementEntities().length, reimbursementPage().length, reimbursementCompactPage().length);
+    }
+
+    @Benchmark
+    public byte[] reimbursementEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reimbursements);
+    }
+
+    @Benchmark
+    public byte[] reimbursementDTOs() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] reimbursementPage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(new PageDTO<>(dtos, null));
+    }
+
+    //includes building the columns, which is part of every compact response
+    @Benchmark
+    public byte[] reimbursementCompactPage() throws JsonProcessingException {
+        return compactWriter.writeValueAsBytes(CompactReimbursementsDTO.of(dtos, null));
+    }
+}
@@ -0,0 +1,107 @@
+package com.revature.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latency histogram and outcome counters for one endpoint (thread-safe - responses complete on HTTP client threads)
+public class EndpointStats {
+
+    //1 microsecond to 5 minutes, 3 significant digits
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(1, MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    //latency counts from the intended start time, so time spent queued behind a slow server is included
+    public void record(long latencyNanos, int status) {
+        latencyMicros.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1_000)));
+        if (status >= 200 && status < 300) {
+            ok.increment();
+        } else {
+            errors.increment();
+        }
+        statuses.computeIfAbsent(String.valueOf(status), s -> new LongAdder()).increment();
+    }
+
+    //timeouts, connection failures
+    public void recordFailure(long latencyNanos, Throwable failure) {
+        latencyMicros.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1_000)));
+        errors.increment();
+        statuses.computeIfAbsent(failure.getClass().getSimpleName(), s -> new LongAdder()).increment();
+    }
+
+    //arrival not sent because maxInFlight requests were already outstanding (the load generator is saturated)
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    //nothing to send (e.g. a resolve with no known pending reimbursement)
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    public Map<String, Object> toReport(double seconds) {
+        long count = ok.sum() + errors.sum();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count);
+        report.put("ok", ok.sum());
+        report.put("errors", errors.sum());
+        report.put("errorRate", count == 0 ? 0.0 : errors.sum() / (double) count);
+        report.put("dropped", dropped.sum());
+        report.put("skipped", skipped.sum());
+        report.put("throughputPerSecond", count / seconds);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(latencyMicros.getValueAtPercentile(50)));
+        latency.put("p95", millis(latencyMicros.getValueAtPercentile(95)));
+        latency.put("p99", millis(latencyMicros.getValueAtPercentile(99)));
+        latency.put("max", millis(latencyMicros.getMaxValue()));
+        latency.put("mean", count == 0 ? 0.0 : latencyMicros.getMean() / 1_000.0);
+        report.put("latencyMillis", latency);
+
+        Map<String, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, n) -> byStatus.put(status, n.sum()));
+        report.put("statuses", byStatus);
+        return report;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return ok.sum() + errors.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return millis(latencyMicros.getValueAtPercentile(percentile));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
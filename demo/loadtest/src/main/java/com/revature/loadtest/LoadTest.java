@@ -0,0 +1,276 @@
+package com.revature.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load test: requests start at a fixed average rate (Poisson arrivals) whether or not earlier ones have
+ * finished, like real users do. A slow server therefore shows up as growing latency and errors instead of quietly lowering
+ * the request rate (coordinated omission) - latency is measured from each request's scheduled start.
+ *
+ * Creates its own employee and manager accounts through POST /users, logs each one in through /auth (keeping its
+ * session/token cookie), then drives the endpoint mix from LoadTestConfig. Writes a JSON report per endpoint.
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final List<HttpClient> employees = new ArrayList<>();
+    private final List<HttpClient> managers = new ArrayList<>();
+    //reimbursements created during the run, for the managers to resolve
+    private final ConcurrentLinkedQueue<Integer> pendingIds = new ConcurrentLinkedQueue<>();
+    private final Semaphore inFlight;
+
+    private final String[] endpoints;
+    private final int[] cumulativeWeights;
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+
+        endpoints = config.getMix().keySet().toArray(new String[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += config.getMix().get(endpoints[i]);
+            cumulativeWeights[i] = total;
+            stats.put(endpoints[i], new EndpointStats(endpoints[i]));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Load test: " + config);
+        new LoadTest(config).run();
+    }
+
+    public void run() throws Exception {
+        setUpAccounts();
+
+        long start = System.nanoTime();
+        long measureFrom = start + config.getWarmup().toNanos();
+        long end = measureFrom + config.getDuration().toNanos();
+        double meanGapNanos = 1e9 / config.getRate();
+
+        long next = start;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            // if we've fallen behind, fire immediately - the latency clock still starts at "next"
+            fire(pickEndpoint(), next, next >= measureFrom);
+            next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+        }
+
+        // let outstanding requests finish (they started inside the measured window)
+        if (!inFlight.tryAcquire(config.getMaxInFlight(), config.getTimeout().toMillis() + 1_000, TimeUnit.MILLISECONDS)) {
+            System.out.println("Some requests were still outstanding at the end of the run.");
+        }
+
+        writeReport(config.getDuration().toNanos() / 1e9);
+    }
+
+    private void setUpAccounts() throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < config.getEmployees(); i++) {
+            employees.add(createAndLogIn("lt-" + runId + "-employee-" + i, "employee"));
+        }
+        for (int i = 0; i < config.getManagers(); i++) {
+            managers.add(createAndLogIn("lt-" + runId + "-manager-" + i, "manager"));
+        }
+        System.out.println("Logged in " + employees.size() + " employees and " + managers.size() + " managers.");
+    }
+
+    //one HttpClient per user, so each keeps its own session cookie
+    private HttpClient createAndLogIn(String username, String role) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(config.getTimeout())
+                .build();
+
+        Map<String, String> user = Map.of("firstName", "Load", "lastName", "Test", "username", username,
+                "password", PASSWORD, "role", role);
+        expectOk(client.send(json("/users", "POST", user), HttpResponse.BodyHandlers.ofString()), "create " + username);
+        expectOk(client.send(json("/auth", "POST", Map.of("username", username, "password", PASSWORD)),
+                HttpResponse.BodyHandlers.ofString()), "log in " + username);
+        return client;
+    }
+
+    private String pickEndpoint() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private void fire(String endpoint, long intendedStart, boolean measured) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        HttpRequest request;
+        HttpClient client;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch (endpoint) {
+            case LoadTestConfig.CREATE_CLAIM -> {
+                client = employees.get(random.nextInt(employees.size()));
+                request = json("/reimbursements/user/self", "POST",
+                        Map.of("amount", 5 + random.nextInt(500), "description", "load test claim"));
+            }
+            case LoadTestConfig.LIST_OWN -> {
+                client = employees.get(random.nextInt(employees.size()));
+                request = get("/reimbursements/user/self");
+            }
+            case LoadTestConfig.PENDING -> {
+                client = managers.get(random.nextInt(managers.size()));
+                request = get("/reimbursements/pending");
+            }
+            case LoadTestConfig.RESOLVE -> {
+                Integer id = pendingIds.poll();
+                if (id == null) {
+                    if (measured) {
+                        endpointStats.recordSkipped();
+                    }
+                    return;
+                }
+                client = managers.get(random.nextInt(managers.size()));
+                request = request("/reimbursements/" + id + "/resolve?status=" + (random.nextBoolean() ? "APPROVED" : "DENIED"))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                        .build();
+            }
+            case LoadTestConfig.USERS -> {
+                client = managers.get(random.nextInt(managers.size()));
+                request = get("/users/all");
+            }
+            default -> throw new IllegalStateException(endpoint);
+        }
+
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                endpointStats.recordDropped();
+            }
+            return;
+        }
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - intendedStart;
+            inFlight.release();
+            if (failure != null) {
+                if (measured) {
+                    endpointStats.recordFailure(latency, failure);
+                }
+                return;
+            }
+            if (measured) {
+                endpointStats.record(latency, response.statusCode());
+            }
+            if (endpoint.equals(LoadTestConfig.CREATE_CLAIM) && response.statusCode() == 201) {
+                rememberPending(response.body());
+            }
+        });
+    }
+
+    private void rememberPending(String body) {
+        try {
+            JsonNode created = objectMapper.readTree(body);
+            if (created.has("reimbid")) {
+                pendingIds.add(created.get("reimbid").asInt());
+            }
+        } catch (IOException e) {
+            // not worth failing the run over - this claim just won't be resolved
+        }
+    }
+
+    private void writeReport(double measuredSeconds) throws IOException {
+        long requests = 0;
+        long errors = 0;
+        long dropped = 0;
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        for (EndpointStats endpointStats : stats.values()) {
+            requests += endpointStats.getCount();
+            errors += endpointStats.getErrors();
+            dropped += endpointStats.getDropped();
+            byEndpoint.put(endpointStats.getName(), endpointStats.toReport(measuredSeconds));
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", requests);
+        totals.put("errors", errors);
+        totals.put("errorRate", requests == 0 ? 0.0 : errors / (double) requests);
+        totals.put("dropped", dropped);
+        totals.put("throughputPerSecond", requests / measuredSeconds);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("baseUrl", config.getBaseUrl());
+        settings.put("targetRatePerSecond", config.getRate());
+        settings.put("durationSeconds", config.getDuration().toSeconds());
+        settings.put("warmupSeconds", config.getWarmup().toSeconds());
+        settings.put("employees", config.getEmployees());
+        settings.put("managers", config.getManagers());
+        settings.put("mix", config.getMix());
+        settings.put("maxInFlight", config.getMaxInFlight());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", settings);
+        report.put("totals", totals);
+        report.put("endpoints", byEndpoint);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(config.getOut()), report);
+
+        System.out.printf("%-12s %9s %8s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        for (EndpointStats s : stats.values()) {
+            System.out.printf("%-12s %9d %8d %9.1f %9.1f %9.1f %9.1f%n", s.getName(), s.getCount(), s.getErrors(),
+                    s.getCount() / measuredSeconds, s.getPercentileMillis(50), s.getPercentileMillis(95), s.getPercentileMillis(99));
+        }
+        System.out.println("Report written to " + new File(config.getOut()).getAbsolutePath());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(config.getBaseUrl() + path)).timeout(config.getTimeout());
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void expectOk(HttpResponse<String> response, String what) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Could not " + what + ": HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+}
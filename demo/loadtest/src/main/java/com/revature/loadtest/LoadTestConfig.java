@@ -0,0 +1,165 @@
+package com.revature.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from -D system properties (all optional):
+ *
+ *   baseUrl     app under test                         default http://localhost:4444
+ *   rate        requests started per second, total     default 50
+ *   duration    measured run length                    default 60s
+ *   warmup      unmeasured run before that             default 10s
+ *   employees   employee accounts to create/log in     default 20
+ *   managers    manager accounts to create/log in      default 2
+ *   mix         endpoint weights                       default createClaim:25,listOwn:40,pending:15,resolve:15,users:5
+ *   maxInFlight requests in flight before new arrivals are dropped (and counted as dropped)   default 2000
+ *   timeout     per-request timeout                    default 30s
+ *   out         JSON report file                       default loadtest-report.json
+ */
+public class LoadTestConfig {
+
+    public static final String CREATE_CLAIM = "createClaim";
+    public static final String LIST_OWN = "listOwn";
+    public static final String PENDING = "pending";
+    public static final String RESOLVE = "resolve";
+    public static final String USERS = "users";
+
+    private final String baseUrl;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int employees;
+    private final int managers;
+    private final Map<String, Integer> mix;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final String out;
+
+    public LoadTestConfig(String baseUrl, double rate, Duration duration, Duration warmup, int employees, int managers,
+                          Map<String, Integer> mix, int maxInFlight, Duration timeout, String out) {
+        if (rate <= 0 || employees < 1 || managers < 1) {
+            throw new IllegalArgumentException("rate must be > 0, and at least one employee and one manager are needed.");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.employees = employees;
+        this.managers = managers;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+        this.out = out;
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                System.getProperty("baseUrl", "http://localhost:4444"),
+                Double.parseDouble(System.getProperty("rate", "50")),
+                parseDuration(System.getProperty("duration", "60s")),
+                parseDuration(System.getProperty("warmup", "10s")),
+                Integer.getInteger("employees", 20),
+                Integer.getInteger("managers", 2),
+                parseMix(System.getProperty("mix", CREATE_CLAIM + ":25," + LIST_OWN + ":40," + PENDING + ":15,"
+                        + RESOLVE + ":15," + USERS + ":5")),
+                Integer.getInteger("maxInFlight", 2000),
+                parseDuration(System.getProperty("timeout", "30s")),
+                System.getProperty("out", "loadtest-report.json"));
+    }
+
+    //"90s", "5m", "500ms" or plain seconds
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("mix entries look like name:weight, got '" + entry + "'");
+            }
+            String name = parts[0].trim();
+            if (!name.equals(CREATE_CLAIM) && !name.equals(LIST_OWN) && !name.equals(PENDING)
+                    && !name.equals(RESOLVE) && !name.equals(USERS)) {
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + name);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(name, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix needs at least one endpoint with a positive weight.");
+        }
+        return mix;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+
+    public int getManagers() {
+        return managers;
+    }
+
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public String getOut() {
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestConfig{" +
+                "baseUrl='" + baseUrl + '\'' +
+                ", rate=" + rate +
+                ", duration=" + duration +
+                ", warmup=" + warmup +
+                ", employees=" + employees +
+                ", managers=" + managers +
+                ", mix=" + mix +
+                ", maxInFlight=" + maxInFlight +
+                ", timeout=" + timeout +
+                ", out='" + out + '\'' +
+                '}';
+    }
+}
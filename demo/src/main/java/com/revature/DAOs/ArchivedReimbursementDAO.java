@@ -0,0 +1,83 @@
+package com.revature.DAOs;
+
+import com.revature.models.ArchivedReimbursement;
+import com.revature.models.DTOs.ClaimantTotalDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.StatusTotalDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+//The cold tier - resolved reimbursements moved out of the hot table (see ReimbursementArchiver)
+//Only read when the caller asks for history (includeHistory), so the everyday queries never touch it
+@Repository
+public interface ArchivedReimbursementDAO extends JpaRepository<ArchivedReimbursement, Integer> {
+
+    //Same projection and keyset paging as ReimbursementDAO, so hot and archived pages can be merged by reimbid
+
+    String ROW_SELECT = "select new com.revature.models.DTOs.OutgoingReimbursementDTO(" +
+            "r.reimbid, r.amount, r.description, r.status, u.userId, u.username) " +
+            "from ArchivedReimbursement r join r.user u on u.deletedAt is null ";
+
+    @Query(ROW_SELECT + "where u.userId = :userId order by r.reimbid")
+    List<OutgoingReimbursementDTO> findRowsByUserId(int userId);
+
+    @Query(ROW_SELECT + "where r.reimbid > :after order by r.reimbid")
+    List<OutgoingReimbursementDTO> findPageAfter(int after, Limit limit);
+
+    @Query(ROW_SELECT + "where u.userId = :userId and r.reimbid > :after order by r.reimbid")
+    List<OutgoingReimbursementDTO> findPageByUserIdAfter(int userId, int after, Limit limit);
+
+    long countByUser_UserId(int userId);
+
+    //Same totals as ReimbursementDAO.sumByStatus(ForUser), for getSummary(includeHistory) to add to the hot ones
+
+    @Query("select new com.revature.models.DTOs.StatusTotalDTO(r.status, count(r), coalesce(sum(r.amount), 0)) " +
+            "from ArchivedReimbursement r group by r.status order by r.status")
+    List<StatusTotalDTO> sumByStatus();
+
+    @Query("select new com.revature.models.DTOs.StatusTotalDTO(r.status, count(r), coalesce(sum(r.amount), 0)) " +
+            "from ArchivedReimbursement r where r.user.userId = :userId group by r.status order by r.status")
+    List<StatusTotalDTO> sumByStatusForUser(int userId);
+
+    //Top claimants over both tiers - the rows are combined (UNION ALL) before grouping, since a claimant's rank
+    //depends on their hot and archived claims together
+
+    String CLAIMS_WITH_HISTORY = "(select r.user.userId as userId, r.status as status, r.amount as amount " +
+            "from Reimbursement r union all " +
+            "select a.user.userId as userId, a.status as status, a.amount as amount from ArchivedReimbursement a) c " +
+            "join User u on u.userId = c.userId and u.deletedAt is null ";
+
+    @Query("select new com.revature.models.DTOs.ClaimantTotalDTO(u.userId, u.username, count(c.amount), " +
+            "coalesce(sum(c.amount), 0)) from " + CLAIMS_WITH_HISTORY +
+            "group by u.userId, u.username order by coalesce(sum(c.amount), 0) desc, u.userId")
+    List<ClaimantTotalDTO> findTopClaimantsWithHistory(Limit limit);
+
+    @Query("select new com.revature.models.DTOs.ClaimantTotalDTO(u.userId, u.username, count(c.amount), " +
+            "coalesce(sum(c.amount), 0)) from " + CLAIMS_WITH_HISTORY + "where c.status = :status " +
+            "group by u.userId, u.username order by coalesce(sum(c.amount), 0) desc, u.userId")
+    List<ClaimantTotalDTO> findTopClaimantsByStatusWithHistory(String status, Limit limit);
+
+    //Copy hot rows into the archive in one INSERT ... SELECT - the caller then deletes them from the hot table
+    //in the same transaction (ReimbursementDAO.deleteResolved)
+    @Modifying
+    @Query(value = "insert into {h-schema}reimbursement_archive " +
+            "(reimbid, amount, description, status, resolved_at, archived_at, user_id) " +
+            "select reimbid, amount, description, status, resolved_at, :archivedAt, user_id " +
+            "from {h-schema}reimbursement where reimbid in :ids and status <> 'PENDING'",
+            nativeQuery = true)
+    int copyFromHot(Collection<Integer> ids, Instant archivedAt);
+
+    //Delete up to :limit of a user's archived reimbursements - see UserPurger
+    @Modifying
+    @Query(value = "delete from {h-schema}reimbursement_archive where reimbid in (" +
+            "select reimbid from {h-schema}reimbursement_archive where user_id = :userId order by reimbid limit :limit)",
+            nativeQuery = true)
+    int deleteChunkByUserId(int userId, int limit);
+}
@@ -0,0 +1,22 @@
+package com.revature.DAOs;
+
+import com.revature.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+//Durable side of IdempotencyService - new rows are persist()ed through the EntityManager, never save()d:
+//save() merges, and would overwrite another request's row instead of failing on the primary key
+@Repository
+public interface IdempotencyRecordDAO extends JpaRepository<IdempotencyRecord, String> {
+
+    //Bulk delete of expired keys, backed by idx_idempotency_key_created_at
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
@@ -1,13 +1,28 @@
 package com.revature.DAOs;
 
+import com.revature.models.DTOs.ClaimantTotalDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.StatusTotalDTO;
 import com.revature.models.Reimbursement;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReimbursementDAO extends JpaRepository<Reimbursement, Integer> {
+public interface ReimbursementDAO extends JpaRepository<Reimbursement, Integer>, ReimbursementQueryDAO,
+        ReimbursementUpdateDAO {
     // Add custom query methods here if needed
 
     public List<Reimbursement> findByUser_UserId(int userId);
@@ -16,7 +31,113 @@ public interface ReimbursementDAO extends JpaRepository<Reimbursement, Integer>
 
     List<Reimbursement> findByStatus(String status);
 
-    void deleteAllByUser_UserId(int userId);
+    long countByUser_UserId(int userId);
 
+    //Archiving (see ReimbursementArchiver) - the next batch of resolved claims older than the cutoff, oldest first,
+    //and their removal once ArchivedReimbursementDAO.copyFromHot has copied them. PENDING rows are never touched
+    @Query("select r.reimbid from Reimbursement r where r.status <> 'PENDING' and r.resolvedAt < :cutoff " +
+            "order by r.resolvedAt, r.reimbid")
+    List<Integer> findArchivableIds(Instant cutoff, Limit limit);
 
-}
\ No newline at end of file
+    @Modifying
+    @Query("delete from Reimbursement r where r.reimbid in :ids and r.status <> 'PENDING'")
+    int deleteResolved(Collection<Integer> ids);
+
+    //Delete up to :limit of a user's reimbursements in one set-based statement (no entities loaded) - see UserPurger
+    @Modifying
+    @Query(value = "delete from {h-schema}reimbursement where reimbid in (" +
+            "select reimbid from {h-schema}reimbursement where user_id = :userId order by reimbid limit :limit)",
+            nativeQuery = true)
+    int deleteChunkByUserId(int userId, int limit);
+
+    //Conditional writes (resolveIfPending, updateIfPending, updateOwnIfPending) are in ReimbursementUpdateDAO
+
+    //Lock a chunk of rows for a bulk resolve (SELECT ... FOR UPDATE), always in id order so two
+    //overlapping bulk resolves can't deadlock on each other
+    //Claims of deleted users aren't returned (so they come back NOT_FOUND), as single resolves and reads skip them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reimbursement r join r.user u on u.deletedAt is null " +
+            "where r.reimbid in :ids order by r.reimbid")
+    List<Reimbursement> findAllForUpdate(Collection<Integer> ids);
+
+    //Read-side projections - these select straight into OutgoingReimbursementDTO with one join to user,
+    //so a list never builds Reimbursement/User entities or fires a per-row query for the owner
+    //The join drops claims of deleted users straight away, before UserPurger has got to them
+
+    String ROW_SELECT = "select new com.revature.models.DTOs.OutgoingReimbursementDTO(" +
+            "r.reimbid, r.amount, r.description, r.status, u.userId, u.username) " +
+            "from Reimbursement r join r.user u on u.deletedAt is null ";
+
+    @Query(ROW_SELECT + "where r.reimbid = :reimbid")
+    Optional<OutgoingReimbursementDTO> findRowById(int reimbid);
+
+    @Query(ROW_SELECT + "where u.userId = :userId order by r.reimbid")
+    List<OutgoingReimbursementDTO> findRowsByUserId(int userId);
+
+    @Query(ROW_SELECT + "where r.reimbid in :reimbids order by r.reimbid")
+    List<OutgoingReimbursementDTO> findRowsByIds(Collection<Integer> reimbids);
+
+    @Query(ROW_SELECT + "where u.userId = :userId and r.status = :status order by r.reimbid")
+    List<OutgoingReimbursementDTO> findRowsByUserIdAndStatus(int userId, String status);
+
+    //Keyset (cursor) pages - each one seeks straight to "reimbid > after" on an index,
+    //so page 1000 costs the same as page 1 (unlike OFFSET, which has to walk every skipped row)
+
+    @Query(ROW_SELECT + "where r.reimbid > :after order by r.reimbid")
+    List<OutgoingReimbursementDTO> findPageAfter(int after, Limit limit);
+
+    //'PENDING' is written into the SQL rather than bound: the Postgres partial index (V3, "where status = 'PENDING'")
+    //can only serve a query whose condition implies its own, and a bound :status doesn't once the driver switches to
+    //a generic prepared plan - it would fall back to (status, reimbid)
+    @Query(ROW_SELECT + "where r.status = 'PENDING' and r.reimbid > :after order by r.reimbid")
+    List<OutgoingReimbursementDTO> findPendingPageAfter(int after, Limit limit);
+
+    @Query(ROW_SELECT + "where u.userId = :userId and r.reimbid > :after order by r.reimbid")
+    List<OutgoingReimbursementDTO> findPageByUserIdAfter(int userId, int after, Limit limit);
+
+    //Dashboard aggregates - the database does the counting and summing, and only the totals come back
+    //(status, amount) and (userId, status, amount) indexes cover these, so they never touch the table itself
+    //The status totals skip the user join, so they still count a deleted user's claims until those are purged
+
+    @Query("select new com.revature.models.DTOs.StatusTotalDTO(r.status, count(r), coalesce(sum(r.amount), 0)) " +
+            "from Reimbursement r group by r.status order by r.status")
+    List<StatusTotalDTO> sumByStatus();
+
+    @Query("select new com.revature.models.DTOs.StatusTotalDTO(r.status, count(r), coalesce(sum(r.amount), 0)) " +
+            "from Reimbursement r where r.user.userId = :userId group by r.status order by r.status")
+    List<StatusTotalDTO> sumByStatusForUser(int userId);
+
+    @Query("select new com.revature.models.DTOs.ClaimantTotalDTO(u.userId, u.username, count(r), coalesce(sum(r.amount), 0)) " +
+            "from Reimbursement r join r.user u on u.deletedAt is null " +
+            "group by u.userId, u.username order by coalesce(sum(r.amount), 0) desc, u.userId")
+    List<ClaimantTotalDTO> findTopClaimants(Limit limit);
+
+    @Query("select new com.revature.models.DTOs.ClaimantTotalDTO(u.userId, u.username, count(r), coalesce(sum(r.amount), 0)) " +
+            "from Reimbursement r join r.user u on u.deletedAt is null where r.status = :status " +
+            "group by u.userId, u.username order by coalesce(sum(r.amount), 0) desc, u.userId")
+    List<ClaimantTotalDTO> findTopClaimantsByStatus(String status, Limit limit);
+
+    //Export streams - forward-only cursors that hand back DTOs (not entities), EXPORT_FETCH_SIZE rows per round trip
+    //These must be consumed inside a transaction and closed (try-with-resources) - see ReimbursementService.exportReimbursements
+    //There's one method per filter combination instead of "(:status is null or ...)" so each one gets its own index-friendly plan
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "order by r.reimbid")
+    Stream<OutgoingReimbursementDTO> streamAll();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "where r.status = :status order by r.reimbid")
+    Stream<OutgoingReimbursementDTO> streamByStatus(String status);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "where u.userId = :userId order by r.reimbid")
+    Stream<OutgoingReimbursementDTO> streamByUserId(int userId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE))
+    @Query(ROW_SELECT + "where u.userId = :userId and r.status = :status order by r.reimbid")
+    Stream<OutgoingReimbursementDTO> streamByUserIdAndStatus(int userId, String status);
+
+
+}
@@ -0,0 +1,99 @@
+package com.revature.DAOs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The indexes that actually exist on the reimbursement table, read once from the database's own metadata
+ * (so it always matches whatever the Flyway migrations built, on Postgres or H2).
+ *
+ * ReimbursementQueryDAO asks it before running a composed query: is there an index that starts with the
+ * equality-filtered columns and continues with the sort column? If not, the query would end up scanning and sorting
+ * the table, so it is refused instead. Partial indexes are left out - they only cover some rows.
+ */
+@Component
+public class ReimbursementIndexCatalog {
+
+    private static final String TABLE = "reimbursement";
+
+    private final DataSource dataSource;
+    private final String schema;
+    private volatile Map<String, List<String>> indexes; //index name -> columns in order, loaded on first use
+
+    @Autowired
+    public ReimbursementIndexCatalog(DataSource dataSource,
+                                     @Value("${spring.jpa.properties.hibernate.default_schema:demo}") String schema) {
+        this.dataSource = dataSource;
+        this.schema = schema;
+    }
+
+    /**
+     * Find an index that can serve "equality on these columns, rows in order of orderColumn" as one range scan.
+     *
+     * @param equalityColumns columns compared with = (in any order - they just have to be the leading ones)
+     * @param orderColumn the column the rows are wanted in order of (and any range on it)
+     * @return the index name, or empty if no index has that shape
+     */
+    public Optional<String> findIndex(Set<String> equalityColumns, String orderColumn) {
+        for (Map.Entry<String, List<String>> index : indexes().entrySet()) {
+            List<String> columns = index.getValue();
+            int prefix = equalityColumns.size();
+            if (columns.size() > prefix
+                    && new HashSet<>(columns.subList(0, prefix)).equals(equalityColumns)
+                    && columns.get(prefix).equals(orderColumn)) {
+                return Optional.of(index.getKey());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Map<String, List<String>> indexes() {
+        Map<String, List<String>> loaded = indexes;
+        if (loaded == null) {
+            synchronized (this) {
+                if (indexes == null) {
+                    indexes = load();
+                }
+                loaded = indexes;
+            }
+        }
+        return loaded;
+    }
+
+    private Map<String, List<String>> load() {
+        Map<String, List<String>> found = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getIndexInfo(null, schema, TABLE, false, true)) {
+                //rows come ordered by index, then by column position
+                while (rs.next()) {
+                    if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic
+                            || rs.getString("FILTER_CONDITION") != null) {
+                        continue;
+                    }
+                    found.computeIfAbsent(rs.getString("INDEX_NAME").toLowerCase(), name -> new ArrayList<>())
+                            .add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the indexes of " + schema + "." + TABLE, e);
+        }
+        found.replaceAll((name, columns) -> List.copyOf(columns));
+        return Collections.unmodifiableMap(found);
+    }
+}
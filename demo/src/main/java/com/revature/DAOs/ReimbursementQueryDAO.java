@@ -0,0 +1,22 @@
+package com.revature.DAOs;
+
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.ReimbursementQueryDTO;
+
+import java.util.List;
+
+/**
+ * Composed reimbursement queries (POST /reimbursements/query) - a custom fragment of ReimbursementDAO, implemented in
+ * ReimbursementQueryDAOImpl. Any mix of the filters in ReimbursementQueryDTO becomes a single SQL statement.
+ * Queries must be checked first (ReimbursementService.queryReimbursements) - that's where shapes no index can serve
+ * (see ReimbursementIndexCatalog) are refused.
+ */
+public interface ReimbursementQueryDAO {
+
+    /**
+     * @param query filters, sort and cursor, as normalized by ReimbursementService.queryReimbursements
+     * @param limit most rows to return
+     * @return the matching rows, in the requested order
+     */
+    List<OutgoingReimbursementDTO> findRows(ReimbursementQueryDTO query, int limit);
+}
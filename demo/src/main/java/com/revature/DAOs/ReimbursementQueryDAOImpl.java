@@ -0,0 +1,136 @@
+package com.revature.DAOs;
+
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.ReimbursementQueryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds one native SQL statement per composed query.
+ *
+ * Every statement is a set of index range scans, never a scan of the table:
+ * - Each combination of the status and user values is one branch, with equality on those columns, a range on the
+ *   sort column (its min/max filter and the page cursor), ORDER BY the sort column then reimbid, and LIMIT.
+ *   ReimbursementService checks with ReimbursementIndexCatalog that an index starting (equality columns, sort column)
+ *   exists before it gets here.
+ * - Several branches are glued together with UNION ALL and the top rows picked again. That reads at most
+ *   limit rows per branch, where "status in (...) order by amount" would have read every matching row and sorted them.
+ * A range on a column that isn't the sort column couldn't be part of the index scan, so the service refuses that too.
+ */
+public class ReimbursementQueryDAOImpl implements ReimbursementQueryDAO {
+
+    //The owner is looked up per row (by primary key) rather than joined, so reimbursement is the only table the
+    //planner can drive from - with a join it may start from the much smaller user table and sort what it finds
+    //Claims of deleted users are left out, as in ReimbursementDAO.ROW_SELECT
+    private static final String SELECT = "select r.reimbid, r.amount, r.description, r.status, r.user_id, " +
+            "(select u.username from {h-schema}user u where u.user_id = r.user_id) username " +
+            "from {h-schema}reimbursement r";
+    private static final String ACTIVE_OWNER = "exists (select 1 from {h-schema}user u " +
+            "where u.user_id = r.user_id and u.deleted_at is null)";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ReimbursementQueryDAOImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<OutgoingReimbursementDTO> findRows(ReimbursementQueryDTO query, int limit) {
+        Statement statement = statement(query, limit);
+        Query nativeQuery = entityManager.createNativeQuery(statement.sql());
+        statement.parameters().forEach(nativeQuery::setParameter);
+        List<Object[]> rows = nativeQuery.getResultList();
+        List<OutgoingReimbursementDTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new OutgoingReimbursementDTO(((Number) row[0]).intValue(), ((Number) row[1]).doubleValue(),
+                    (String) row[2], (String) row[3], ((Number) row[4]).intValue(), (String) row[5]));
+        }
+        return result;
+    }
+
+    //One composed query as native SQL, with {h-schema} still to be filled in, and its named parameters
+    public record Statement(String sql, Map<String, Object> parameters) {
+    }
+
+    //Public so ReimbursementQueryTests can have the database EXPLAIN exactly what findRows runs
+    public static Statement statement(ReimbursementQueryDTO query, int limit) {
+        //already checked by ReimbursementService.queryReimbursements: sort keys are [column] or [amount, reimbid],
+        //all one direction, and an index covers (equality columns, sort column)
+        boolean descending = query.getSort().get(0).startsWith("-");
+        String orderColumn = query.getSort().get(0).substring(descending ? 1 : 0);
+        boolean byAmount = orderColumn.equals(ReimbursementQueryDTO.SORT_AMOUNT);
+        List<String> statuses = nullIfEmpty(query.getStatuses());
+        List<Integer> userIds = nullIfEmpty(query.getUserIds());
+
+        //the conditions every branch shares
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> shared = new ArrayList<>();
+        String column = "r." + orderColumn;
+        Object min = byAmount ? (Object) query.getMinAmount() : query.getMinId();
+        Object max = byAmount ? (Object) query.getMaxAmount() : query.getMaxId();
+        if (min != null) {
+            shared.add(column + " >= :min");
+            parameters.put("min", min);
+        }
+        if (max != null) {
+            shared.add(column + " <= :max");
+            parameters.put("max", max);
+        }
+        if (query.getAfter() != null) {
+            String past = descending ? " < " : " > ";
+            if (byAmount) {
+                //(amount, reimbid) past the cursor - written so the amount bound can still seek the index
+                shared.add("r.amount" + (descending ? " <= " : " >= ") + ":afterAmount");
+                shared.add("(r.amount" + past + ":afterAmount or r.reimbid" + past + ":after)");
+                parameters.put("afterAmount", query.getAfterAmount());
+            } else {
+                shared.add("r.reimbid" + past + ":after");
+            }
+            parameters.put("after", query.getAfter());
+        }
+        parameters.put("limit", limit);
+
+        List<String> branches = new ArrayList<>();
+        for (int s = 0; s < (statuses == null ? 1 : statuses.size()); s++) {
+            for (int u = 0; u < (userIds == null ? 1 : userIds.size()); u++) {
+                List<String> conditions = new ArrayList<>();
+                if (statuses != null) {
+                    conditions.add("r.status = :status" + s);
+                    parameters.put("status" + s, statuses.get(s));
+                }
+                if (userIds != null) {
+                    conditions.add("r.user_id = :user" + u);
+                    parameters.put("user" + u, userIds.get(u));
+                }
+                conditions.addAll(shared);
+                conditions.add(ACTIVE_OWNER);
+                branches.add(SELECT + " where " + String.join(" and ", conditions) +
+                        " order by " + orderBy("r.", byAmount, descending) + " limit :limit");
+            }
+        }
+
+        String sql = branches.size() == 1 ? branches.get(0)
+                : "select * from ((" + String.join(") union all (", branches) + ")) q order by " +
+                orderBy("q.", byAmount, descending) + " limit :limit";
+
+        return new Statement(sql, parameters);
+    }
+
+    private static String orderBy(String alias, boolean byAmount, boolean descending) {
+        String direction = descending ? " desc" : "";
+        String reimbid = alias + "reimbid" + direction;
+        return byAmount ? alias + "amount" + direction + ", " + reimbid : reimbid;
+    }
+
+    private static <T> List<T> nullIfEmpty(List<T> values) {
+        return (values == null || values.isEmpty()) ? null : values;
+    }
+}
@@ -0,0 +1,24 @@
+package com.revature.DAOs;
+
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Conditional writes - a custom fragment of ReimbursementDAO, implemented in ReimbursementUpdateDAOImpl.
+ * The "still PENDING" check and the change happen in one UPDATE, so they can't race, and the same statement hands the
+ * changed row back - one round trip for the write and the response.
+ *
+ * Each returns the row as it is after the change, or empty when nothing changed: the row is missing, not PENDING,
+ * belongs to a deleted user, or (for updateOwnIfPending) isn't theirs.
+ */
+public interface ReimbursementUpdateDAO {
+
+    Optional<OutgoingReimbursementDTO> resolveIfPending(int reimbid, String status, Instant resolvedAt);
+
+    //description is only changed when not null, amount only when greater than 0
+    Optional<OutgoingReimbursementDTO> updateIfPending(int reimbid, String description, double amount);
+
+    Optional<OutgoingReimbursementDTO> updateOwnIfPending(int reimbid, int userId, String description, double amount);
+}
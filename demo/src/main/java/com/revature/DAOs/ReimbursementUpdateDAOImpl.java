@@ -0,0 +1,108 @@
+package com.revature.DAOs;
+
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Each conditional write is one native statement that updates the row and returns it:
+ * - Postgres: UPDATE ... RETURNING
+ * - anything else (H2 in tests and the local profile): SELECT ... FROM FINAL TABLE (UPDATE ...), H2's standard form
+ * The owner's username comes back with it, looked up by primary key as in ReimbursementQueryDAOImpl.
+ */
+public class ReimbursementUpdateDAOImpl implements ReimbursementUpdateDAO {
+
+    private static final String COLUMNS = "r.reimbid, r.amount, r.description, r.status, r.user_id, " +
+            "(select u.username from {h-schema}user u where u.user_id = r.user_id) username";
+    //Claims of deleted users are left alone, as ReimbursementDAO.ROW_SELECT leaves them out
+    private static final String PENDING_WITH_ACTIVE_OWNER = "r.reimbid = :reimbid and r.status = 'PENDING' and " +
+            "exists (select 1 from {h-schema}user u where u.user_id = r.user_id and u.deleted_at is null)";
+    private static final String RESOLVE = "status = :status, resolved_at = :resolvedAt, version = version + 1";
+    private static final String EDIT = "description = coalesce(:description, description), " +
+            "amount = case when :amount > 0 then :amount else amount end, version = version + 1";
+
+    private final EntityManager entityManager;
+    private volatile Dialect dialect; //looked up on first use
+
+    @Autowired
+    public ReimbursementUpdateDAOImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<OutgoingReimbursementDTO> resolveIfPending(int reimbid, String status, Instant resolvedAt) {
+        NativeQuery<?> query = query(resolveSql(dialect()))
+                .setParameter("reimbid", reimbid)
+                .setParameter("status", status, String.class)
+                .setParameter("resolvedAt", resolvedAt, Instant.class);
+        return single(query);
+    }
+
+    @Override
+    public Optional<OutgoingReimbursementDTO> updateIfPending(int reimbid, String description, double amount) {
+        return single(edit(editSql(dialect(), false), reimbid, description, amount));
+    }
+
+    @Override
+    public Optional<OutgoingReimbursementDTO> updateOwnIfPending(int reimbid, int userId, String description,
+                                                                 double amount) {
+        return single(edit(editSql(dialect(), true), reimbid, description, amount).setParameter("userId", userId));
+    }
+
+    //The statements for a given database, with {h-schema} still to be filled in - public so ConcurrentResolveTests
+    //can check the Postgres form, which the H2 tests never run
+
+    public static String resolveSql(Dialect dialect) {
+        return sql(dialect, RESOLVE, PENDING_WITH_ACTIVE_OWNER);
+    }
+
+    public static String editSql(Dialect dialect, boolean ownOnly) {
+        return sql(dialect, EDIT, PENDING_WITH_ACTIVE_OWNER + (ownOnly ? " and r.user_id = :userId" : ""));
+    }
+
+    private static String sql(Dialect dialect, String set, String where) {
+        String update = "update {h-schema}reimbursement r set " + set + " where " + where;
+        return dialect instanceof PostgreSQLDialect ? update + " returning " + COLUMNS
+                : "select " + COLUMNS + " from final table (" + update + ") r";
+    }
+
+    //description is often null (not being changed) - bound with its type, since Postgres can't infer the type of a
+    //bare null in coalesce() and would reject it or take it for bytea
+    private NativeQuery<?> edit(String sql, int reimbid, String description, double amount) {
+        return query(sql)
+                .setParameter("reimbid", reimbid)
+                .setParameter("description", description, String.class)
+                .setParameter("amount", amount, Double.class);
+    }
+
+    private NativeQuery<?> query(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+    }
+
+    private static Optional<OutgoingReimbursementDTO> single(NativeQuery<?> query) {
+        //at most one row - the WHERE is on the primary key
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new OutgoingReimbursementDTO(((Number) row[0]).intValue(), ((Number) row[1]).doubleValue(),
+                (String) row[2], (String) row[3], ((Number) row[4]).intValue(), (String) row[5]));
+    }
+
+    private Dialect dialect() {
+        if (dialect == null) {
+            dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+        }
+        return dialect;
+    }
+}
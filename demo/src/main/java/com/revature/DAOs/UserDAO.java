@@ -1,9 +1,15 @@
 package com.revature.DAOs;
 
+import com.revature.models.DTOs.UserSummaryDTO;
 import com.revature.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,9 +17,52 @@ import java.util.Optional;
 public interface UserDAO extends JpaRepository<User, Integer> {
     //Custom queries can go here if needed
 
-    boolean existsByUsername(String username);
-
+    //Deleted users keep their row until UserPurger removes it (deleted_at is set) - lookups skip them
 
+    //backed by the unique index ux_user_username
+    @Query("select u from User u where u.username = :username and u.deletedAt is null")
     Optional<User> findByUsername(String username);
 
+    @Query("select u from User u where u.userId = :userId and u.deletedAt is null")
+    Optional<User> findActiveById(int userId);
+
+    @Query("select count(u) > 0 from User u where u.userId = :userId and u.deletedAt is null")
+    boolean existsActiveById(int userId);
+
+    //Which of these users still exist - one query for a whole batch (see ReimbursementWriteBehindQueue)
+    @Query("select u.userId from User u where u.userId in :userIds and u.deletedAt is null")
+    List<Integer> findActiveIds(Collection<Integer> userIds);
+
+    //Every user with their reimbursement count, in one grouped query (no reimbursement entities are loaded)
+    @Query("select new com.revature.models.DTOs.UserSummaryDTO(" +
+            "u.userId, u.firstName, u.lastName, u.username, u.role, count(r)) " +
+            "from User u left join u.reimbursements r " +
+            "where u.deletedAt is null " +
+            "group by u.userId, u.firstName, u.lastName, u.username, u.role " +
+            "order by u.userId")
+    List<UserSummaryDTO> findAllSummaries();
+
+    //Swap a password for its hash - only if it still holds the old value, so a concurrent change isn't overwritten
+    //Runs in its own short transaction: the caller (login) is deliberately not transactional
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.userId = :userId and u.password = :oldPassword")
+    int replacePassword(int userId, String oldPassword, String newPassword);
+
+    //Tombstone - a single-row UPDATE, however many reimbursements the user has. 0 if missing or already deleted
+    @Transactional
+    @Modifying
+    @Query("update User u set u.deletedAt = :deletedAt where u.userId = :userId and u.deletedAt is null")
+    int tombstone(int userId, Instant deletedAt);
+
+    //Users waiting to be purged, oldest deletion first
+    @Query("select u.userId from User u where u.deletedAt is not null order by u.deletedAt, u.userId")
+    List<Integer> findTombstonedIds();
+
+    //Bulk delete - bypasses the JPA cascade, so only call it once the user's reimbursements are gone
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.userId = :userId and u.deletedAt is not null")
+    int deleteTombstoned(int userId);
+
 }
@@ -0,0 +1,17 @@
+package com.revature.aspects;
+
+import com.revature.services.AdmissionControl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Puts a controller method in an endpoint class other than the default for its HTTP method (GET is READ, the rest
+//WRITE) - checked before the method runs by AdmissionInterceptor, see AdmissionControl
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+
+    AdmissionControl.EndpointClass value();
+}
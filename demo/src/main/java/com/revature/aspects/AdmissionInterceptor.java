@@ -0,0 +1,244 @@
+package com.revature.aspects;
+
+import com.revature.models.UserPrincipal;
+import com.revature.services.AdmissionControl;
+import com.revature.services.AdmissionControl.EndpointClass;
+import com.revature.services.AdmissionControl.Rejection;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The admission stage - runs right after AuthInterceptor, so the caller is known, and before any controller code.
+ * Each call is checked against its endpoint class's limits (see AdmissionControl) and refused with 429 or 503 +
+ * Retry-After when over them.
+ *
+ * The endpoint class comes from @Admission, or from the HTTP method (GET/HEAD is READ, the rest WRITE) - the
+ * annotations are read once at startup, as AuthInterceptor does. An admitted call's in-flight slot is given back when
+ * it completes, or as soon as it goes async (SSE, streaming exports), like ConcurrencyLimitFilter does.
+ *
+ * Before login the client is its address. Behind a reverse proxy or load balancer every request comes from the proxy,
+ * so for requests from admission.trusted-proxies (addresses or CIDR ranges) the address is taken from
+ * X-Forwarded-For instead: the last one in it that isn't a trusted proxy itself. The header is ignored on requests
+ * from anywhere else, since a client can write whatever it likes there.
+ */
+@Component
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    //Request attribute holding the class an admitted call holds a slot of, until it's released
+    private static final String ADMITTED_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admitted";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final AdmissionControl admissionControl;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final List<Subnet> trustedProxies;
+
+    //Only the @Admission methods - written once at startup, read-only afterwards
+    private volatile Map<Method, EndpointClass> routes = Map.of();
+
+    @Autowired
+    public AdmissionInterceptor(AdmissionControl admissionControl,
+                                @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                @Value("${admission.trusted-proxies:}") List<String> trustedProxies) {
+        this.admissionControl = admissionControl;
+        this.handlerMapping = handlerMapping;
+        this.trustedProxies = new ArrayList<>();
+        for (String proxy : trustedProxies) {
+            if (!proxy.isBlank()) {
+                this.trustedProxies.add(Subnet.parse(proxy.trim()));
+            }
+        }
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildRouteTable() {
+        Map<Method, EndpointClass> table = new HashMap<>();
+        for (HandlerMethod handler : handlerMapping.getHandlerMethods().values()) {
+            Admission admission = handler.getMethod().getAnnotation(Admission.class);
+            if (admission != null) {
+                table.put(handler.getMethod(), admission.value());
+            }
+        }
+        routes = Map.copyOf(table);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        //the async redispatch of a call that was already admitted isn't a new call
+        if (!(handler instanceof HandlerMethod handlerMethod) || !admissionControl.isEnabled()
+                || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        EndpointClass endpointClass = endpointClass(handlerMethod.getMethod(), request);
+        Optional<Rejection> rejection = admissionControl.admit(endpointClass, client(request));
+        if (rejection.isEmpty()) {
+            request.setAttribute(ADMITTED_ATTRIBUTE, endpointClass);
+            return true;
+        }
+
+        boolean rateLimited = rejection.get().reason() == AdmissionControl.Reason.RATE_LIMITED;
+        response.setStatus(rateLimited ? HttpStatus.TOO_MANY_REQUESTS.value() : HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.get().retryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(rateLimited ? "Too many requests, slow down." : "Server busy, try again shortly.");
+        return false;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private EndpointClass endpointClass(Method method, HttpServletRequest request) {
+        EndpointClass annotated = routes.get(method);
+        if (annotated != null) {
+            return annotated;
+        }
+        String httpMethod = request.getMethod();
+        return HttpMethod.GET.matches(httpMethod) || HttpMethod.HEAD.matches(httpMethod)
+                ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+    //The logged-in user (set by AuthInterceptor), otherwise the client address
+    private String client(HttpServletRequest request) {
+        if (request.getAttribute(AuthInterceptor.PRINCIPAL_ATTRIBUTE) instanceof UserPrincipal principal) {
+            return "user:" + principal.getUserId();
+        }
+        return "ip:" + clientAddress(request);
+    }
+
+    //Walk X-Forwarded-For back from the nearest hop, for as long as each hop is a proxy we trust
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || !isTrusted(address)) {
+            return address;
+        }
+        Enumeration<String> headers = request.getHeaders(FORWARDED_FOR_HEADER);
+        List<String> hops = new ArrayList<>();
+        while (headers != null && headers.hasMoreElements()) {
+            for (String hop : headers.nextElement().split(",")) {
+                hops.add(hop.trim());
+            }
+        }
+        for (int i = hops.size() - 1; i >= 0 && isTrusted(address); i--) {
+            if (!Subnet.isAddress(hops.get(i))) {
+                break; //"unknown", or garbage - the proxy is the best we know
+            }
+            address = hops.get(i);
+        }
+        return address;
+    }
+
+    private boolean isTrusted(String address) {
+        for (Subnet proxy : trustedProxies) {
+            if (proxy.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) instanceof EndpointClass endpointClass) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            admissionControl.release(endpointClass);
+        }
+    }
+
+    //An address range like 10.0.0.0/8 or fd00::/8 - a plain address is a range of one
+    private record Subnet(byte[] network, int prefixLength) {
+
+        static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            String address = slash < 0 ? cidr : cidr.substring(0, slash);
+            byte[] network = isAddress(address) ? toBytes(address) : null;
+            if (network == null) {
+                throw new IllegalArgumentException("Not an IP address or CIDR range: " + cidr);
+            }
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Bad prefix length in " + cidr);
+            }
+            return new Subnet(network, prefixLength);
+        }
+
+        //Only IP literals - anything else would make InetAddress go to DNS. Java parses anything with a ':' as IPv6
+        //(and rejects it if it isn't), so only IPv4 needs checking in full
+        static boolean isAddress(String value) {
+            if (value.indexOf(':') >= 0) {
+                return value.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':');
+            }
+            String[] parts = value.split("\\.", -1);
+            if (parts.length != 4) {
+                return false;
+            }
+            for (String part : parts) {
+                if (part.isEmpty() || part.length() > 3 || !part.chars().allMatch(c -> c >= '0' && c <= '9')
+                        || Integer.parseInt(part) > 255) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contains(String address) {
+            if (!isAddress(address)) {
+                return false;
+            }
+            byte[] bytes = toBytes(address);
+            if (bytes == null || bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+
+        private static byte[] toBytes(String address) {
+            try {
+                return InetAddress.getByName(address).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.revature.aspects;
+
+import com.revature.models.UserPrincipal;
+import com.revature.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authorization for every controller call, done once when the request comes in.
+ *
+ * At startup every handler method is looked up once for @AdminOnly / @LoggedIn / @Public and the required access is
+ * stored in a table. A handler of ours with none of them stops startup, so an endpoint is never public by accident.
+ * Per request: one table lookup, the principal is resolved once (session or token) and stored on the request
+ * for controllers to take as a UserPrincipal parameter, and the call is refused with 401 (not logged in) or
+ * 403 (not a manager) before any controller code runs.
+ */
+@Component
+public class AuthInterceptor implements HandlerInterceptor {
+
+    //Request attribute holding the resolved principal - see UserPrincipalArgumentResolver
+    public static final String PRINCIPAL_ATTRIBUTE = UserPrincipal.class.getName();
+
+    public enum Access { PUBLIC, LOGGED_IN, MANAGER }
+
+    private static final String OWN_PACKAGE = "com.revature.";
+
+    private final AuthService authService;
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    //Written once at startup, read-only afterwards
+    private volatile Map<Method, Access> routes = Map.of();
+
+    @Autowired
+    public AuthInterceptor(AuthService authService,
+                           @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
+        this.authService = authService;
+        this.handlerMapping = handlerMapping;
+    }
+
+    //Build the route table once every controller is registered
+    @EventListener(ContextRefreshedEvent.class)
+    public void buildRouteTable() {
+        Map<Method, Access> table = new HashMap<>();
+        List<String> unannotated = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> handler : handlerMapping.getHandlerMethods().entrySet()) {
+            Method method = handler.getValue().getMethod();
+            try {
+                table.put(method, requiredAccess(method));
+            } catch (IllegalStateException e) {
+                unannotated.add(handler.getKey() + " " + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+            }
+        }
+        if (!unannotated.isEmpty()) {
+            throw new IllegalStateException("Handlers without @AdminOnly, @LoggedIn or @Public: " + unannotated);
+        }
+        routes = Map.copyOf(table);
+    }
+
+    public Access getRequiredAccess(Method method) {
+        return routes.getOrDefault(method, Access.PUBLIC);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // CORS preflights, static resources etc. aren't controller methods
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        UserPrincipal principal = authService.getPrincipal(request);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+
+        switch (getRequiredAccess(handlerMethod.getMethod())) {
+            case MANAGER:
+                if (principal == null || principal.getRole() == null) {
+                    return deny(response, HttpStatus.UNAUTHORIZED, "Access Denied: You must be logged in to perform this action.");
+                }
+                if (!principal.isManager()) {
+                    return deny(response, HttpStatus.FORBIDDEN, "Access Denied: Only administrators can perform this action.");
+                }
+                return true;
+            case LOGGED_IN:
+                if (principal == null) {
+                    return deny(response, HttpStatus.UNAUTHORIZED, "Access Denied: You must be logged in to perform this action.");
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the method is one of our handlers (in com.revature) with no access annotation.
+     *         Framework handlers, like Spring Boot's error page, are public
+     */
+    public static Access requiredAccess(Method method) {
+        if (method.isAnnotationPresent(AdminOnly.class)) {
+            return Access.MANAGER;
+        }
+        if (method.isAnnotationPresent(LoggedIn.class)) {
+            return Access.LOGGED_IN;
+        }
+        if (method.isAnnotationPresent(Public.class) || !method.getDeclaringClass().getName().startsWith(OWN_PACKAGE)) {
+            return Access.PUBLIC;
+        }
+        throw new IllegalStateException(method + " has no access annotation");
+    }
+
+    private static boolean deny(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+        return false;
+    }
+}
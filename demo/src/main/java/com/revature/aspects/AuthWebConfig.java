@@ -0,0 +1,41 @@
+package com.revature.aspects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+//Registers the request-entry stages - auth (AuthInterceptor), then admission (AdmissionInterceptor) - and the
+//UserPrincipal controller parameter
+@Configuration
+public class AuthWebConfig implements WebMvcConfigurer {
+
+    private final AuthInterceptor authInterceptor;
+    private final AdmissionInterceptor admissionInterceptor;
+    private final UserPrincipalArgumentResolver userPrincipalArgumentResolver;
+
+    //@Lazy: the interceptors need the handler mapping, which is itself built from this config
+    @Autowired
+    public AuthWebConfig(@Lazy AuthInterceptor authInterceptor, @Lazy AdmissionInterceptor admissionInterceptor,
+                         UserPrincipalArgumentResolver userPrincipalArgumentResolver) {
+        this.authInterceptor = authInterceptor;
+        this.admissionInterceptor = admissionInterceptor;
+        this.userPrincipalArgumentResolver = userPrincipalArgumentResolver;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(authInterceptor);
+        //after auth: limits are per user once the caller is known
+        registry.addInterceptor(admissionInterceptor);
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(userPrincipalArgumentResolver);
+    }
+}
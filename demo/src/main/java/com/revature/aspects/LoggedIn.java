@@ -0,0 +1,15 @@
+package com.revature.aspects;
+
+//Marks a controller method that any logged-in user (employee or manager) can access
+//Checked before the method runs by AuthInterceptor - see also AdminOnly
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LoggedIn {
+
+}
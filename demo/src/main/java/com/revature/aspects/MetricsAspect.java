@@ -0,0 +1,111 @@
+package com.revature.aspects;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for every controller handler (app.controller) and every DAO method (app.dao),
+ * tagged with class, method and outcome (success/error), published as percentile histograms - see /actuator/prometheus.
+ *
+ * The Timers for a method are created on its first call and cached by Method, so after that a call only costs
+ * two nanoTime reads, a map lookup and a lock-free histogram update - no meter lookup, tag or string building.
+ * Connection pool gauges (hikaricp.connections.active/idle/pending) come from Actuator's Hikari metrics.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    public static final String CONTROLLER_TIMER = "app.controller";
+    public static final String DAO_TIMER = "app.dao";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Method, Timers> controllerTimers = new ConcurrentHashMap<>();
+    //by DAO then method: inherited methods like save() are the same Method object for every DAO
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, Timers>> daoTimers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timers timers = controllerTimers.get(method);
+        if (timers == null) {
+            timers = controllerTimers.computeIfAbsent(method,
+                    m -> new Timers(registry, CONTROLLER_TIMER, m.getDeclaringClass(), m.getName()));
+        }
+        return time(joinPoint, timers);
+    }
+
+    //this(): the repository proxies implement the DAO interfaces, so inherited methods (save, findById...) count too
+    @Around("this(com.revature.DAOs.ReimbursementDAO) || this(com.revature.DAOs.ArchivedReimbursementDAO) " +
+            "|| this(com.revature.DAOs.UserDAO)")
+    public Object timeDao(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> proxyClass = joinPoint.getThis().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        ConcurrentHashMap<Method, Timers> byMethod = daoTimers.get(proxyClass);
+        if (byMethod == null) {
+            byMethod = daoTimers.computeIfAbsent(proxyClass, c -> new ConcurrentHashMap<>());
+        }
+        Timers timers = byMethod.get(method);
+        if (timers == null) {
+            timers = byMethod.computeIfAbsent(method,
+                    m -> new Timers(registry, DAO_TIMER, daoInterface(proxyClass), m.getName()));
+        }
+        return time(joinPoint, timers);
+    }
+
+    private static Object time(ProceedingJoinPoint joinPoint, Timers timers) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable t) {
+            timers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+    }
+
+    //Tag DAO timers with UserDAO/ReimbursementDAO rather than the generated proxy class
+    private static Class<?> daoInterface(Class<?> proxyClass) {
+        for (Class<?> type : proxyClass.getInterfaces()) {
+            if (type.getPackageName().equals("com.revature.DAOs")) {
+                return type;
+            }
+        }
+        return proxyClass;
+    }
+
+    private static final class Timers {
+        private final Timer success;
+        private final Timer error;
+
+        Timers(MeterRegistry registry, String name, Class<?> type, String method) {
+            this.success = timer(registry, name, type.getSimpleName(), method, "success");
+            this.error = timer(registry, name, type.getSimpleName(), method, "error");
+        }
+
+        private static Timer timer(MeterRegistry registry, String name, String type, String method, String outcome) {
+            return Timer.builder(name)
+                    .tag("class", type)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.revature.aspects;
+
+//Marks a controller method anyone can call, logged in or not (login, sign-up...)
+//Every handler needs one of AdminOnly, LoggedIn or Public - AuthInterceptor refuses to start otherwise, so nothing
+//is left open by forgetting an annotation
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Public {
+
+}
@@ -0,0 +1,41 @@
+package com.revature.aspects;
+
+import com.revature.models.UserPrincipal;
+import com.revature.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+//Lets controller methods take the logged-in user as a UserPrincipal parameter (null when nobody is logged in)
+//Normally AuthInterceptor has already resolved it for this request
+@Component
+public class UserPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthService authService;
+
+    @Autowired
+    public UserPrincipalArgumentResolver(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UserPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object principal = webRequest.getAttribute(AuthInterceptor.PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal != null) {
+            return principal;
+        }
+        return authService.getPrincipal(webRequest.getNativeRequest(HttpServletRequest.class));
+    }
+}
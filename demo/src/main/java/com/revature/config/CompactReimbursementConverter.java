@@ -0,0 +1,103 @@
+package com.revature.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.models.DTOs.CompactReimbursementsDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes reimbursement lists (a PageDTO or List of OutgoingReimbursementDTO) as CompactReimbursementsDTO when the
+ * client asks for it with "Accept: application/vnd.reimbursements.compact+json" - the dashboards do, for big lists.
+ * Anything else keeps getting the normal JSON.
+ *
+ * The writer for CompactReimbursementsDTO is resolved once here rather than looked up per response.
+ *
+ * Spring Boot puts HttpMessageConverter beans ahead of its defaults, which matters: the Jackson converter also accepts
+ * "application/*+json" and would otherwise write the plain shape under this content type. And since this converter
+ * only answers when the compact type was asked for by name, a client sending a wildcard Accept still gets plain JSON.
+ */
+@Component
+public class CompactReimbursementConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.reimbursements.compact+json";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    private final ObjectWriter writer;
+
+    @Autowired
+    public CompactReimbursementConverter(ObjectMapper objectMapper) {
+        super(COMPACT_JSON);
+        this.writer = objectMapper.writerFor(CompactReimbursementsDTO.class);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PageDTO.class.isAssignableFrom(clazz) || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return mediaType != null && COMPACT_JSON.equalsTypeAndSubtype(mediaType) && isReimbursementList(type, clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return canWrite(clazz, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        writer.writeValue(outputMessage.getBody(), toCompact(body));
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("The compact format is response-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("The compact format is response-only", inputMessage);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompactReimbursementsDTO toCompact(Object body) {
+        if (body instanceof PageDTO<?> page) {
+            return CompactReimbursementsDTO.of((List<OutgoingReimbursementDTO>) page.getItems(), page.getNext());
+        }
+        return CompactReimbursementsDTO.of((List<OutgoingReimbursementDTO>) body, null);
+    }
+
+    //only PageDTO<OutgoingReimbursementDTO> and List<OutgoingReimbursementDTO> - the declared type, so an empty list works too
+    private static boolean isReimbursementList(Type type, Class<?> clazz) {
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        ResolvableType container = resolved.as(PageDTO.class);
+        if (container == ResolvableType.NONE) {
+            container = resolved.as(List.class);
+        }
+        return container.getGeneric(0).resolve() == OutgoingReimbursementDTO.class;
+    }
+}
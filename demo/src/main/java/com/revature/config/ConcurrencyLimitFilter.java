@@ -0,0 +1,90 @@
+package com.revature.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many requests run at once when requests are on virtual threads (spring.threads.virtual.enabled=true, Java 21).
+ *
+ * With platform threads Tomcat's pool (server.tomcat.threads.max) is the cap. Virtual threads remove it, so a spike
+ * of thousands of requests would all pile onto the connection pool, time out there and drag every request down with them.
+ * This lets a multiple of the Hikari pool size through (enough to keep every connection busy while others do
+ * non-DB work), makes the rest wait briefly in a fair queue, and sheds them with 503 + Retry-After if no slot frees up.
+ *
+ * Not created at all in the default platform-thread mode.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    @Autowired
+    public ConcurrencyLimitFilter(DataSource dataSource,
+                                  @Value("${server.concurrency.max-in-flight:0}") int maxInFlight,
+                                  @Value("${server.concurrency.per-connection:2}") int perConnection,
+                                  @Value("${server.concurrency.acquire-timeout:2s}") Duration acquireTimeout) {
+        // 0 = derive from the connection pool size
+        int limit = maxInFlight > 0 ? maxInFlight : poolSize(dataSource) * perConnection;
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Server busy, try again shortly.");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // For async requests (streaming exports) this frees the slot once the body is handed off
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        // Hikari reports -1 until the pool has started when maximum-pool-size isn't set explicitly
+        if (dataSource instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return 10; //Hikari's default
+    }
+}
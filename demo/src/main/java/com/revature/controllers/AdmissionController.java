@@ -0,0 +1,60 @@
+package com.revature.controllers;
+
+import com.revature.aspects.AdminOnly;
+import com.revature.aspects.Admission;
+import com.revature.models.DTOs.AdmissionLimitsDTO;
+import com.revature.services.AdmissionControl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Locale;
+
+//Admission limits per endpoint class (see AdmissionControl) - read and change them while the app runs
+@RestController
+@RequestMapping("/admission")
+@CrossOrigin(
+        origins = "http://localhost:5173",
+        allowCredentials = "true",
+        methods = {RequestMethod.GET, RequestMethod.PUT, RequestMethod.OPTIONS}
+)
+public class AdmissionController {
+
+    private final AdmissionControl admissionControl;
+
+    @Autowired
+    public AdmissionController(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    //Every class's limits, and its calls in flight right now
+    @AdminOnly
+    @Admission(AdmissionControl.EndpointClass.ADMIN)
+    @GetMapping
+    public ResponseEntity<List<AdmissionLimitsDTO>> getLimits() {
+        return ResponseEntity.ok(admissionControl.getLimits());
+    }
+
+    /**
+     * Change one class's limits (Admin Only) - takes effect for the next call
+     *
+     * @param endpointClass auth, read, write, stream or admin
+     * @param limits ratePerSecond, burst and maxConcurrent (0 = no limit)
+     * @return ResponseEntity containing the new limits, or 400 for an unknown class or invalid limits
+     */
+    @AdminOnly
+    @Admission(AdmissionControl.EndpointClass.ADMIN)
+    @PutMapping("/{endpointClass}")
+    public ResponseEntity<AdmissionLimitsDTO> setLimits(@PathVariable String endpointClass,
+                                                        @RequestBody AdmissionLimitsDTO limits) {
+        try {
+            AdmissionControl.EndpointClass target =
+                    AdmissionControl.EndpointClass.valueOf(endpointClass.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(admissionControl.setLimits(target, limits));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+}
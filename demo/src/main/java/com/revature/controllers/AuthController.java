@@ -1,10 +1,18 @@
 package com.revature.controllers;
 
+import com.revature.aspects.Admission;
+import com.revature.aspects.LoggedIn;
+import com.revature.aspects.Public;
 import com.revature.models.DTOs.LoginDTO;
 import com.revature.models.DTOs.OutgoingUserDTO;
+import com.revature.models.UserPrincipal;
+import com.revature.services.AdmissionControl;
 import com.revature.services.AuthService;
+import com.revature.services.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,22 +25,39 @@ import java.util.Map;
 @CrossOrigin(value = "http://localhost:5173", allowCredentials = "true")
 public class AuthController {
 
+    //Response header carrying the token for clients that send it back as "Authorization: Bearer" instead of the cookie
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+
     private final AuthService authService;
+    private final TokenService tokenService;
 
     @Autowired
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, TokenService tokenService) {
         this.authService = authService;
+        this.tokenService = tokenService;
     }
 
+    @Public
+    @Admission(AdmissionControl.EndpointClass.AUTH)
     @PostMapping
-    public ResponseEntity<OutgoingUserDTO> login(@RequestBody LoginDTO loginDTO, HttpSession session) {
+    public ResponseEntity<OutgoingUserDTO> login(@RequestBody LoginDTO loginDTO, HttpServletRequest request) {
         OutgoingUserDTO user = authService.login(loginDTO);
 
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // Token mode - no server-side state, the signed token is all any node needs
+        if (tokenService.isEnabled()) {
+            String token = tokenService.issue(new UserPrincipal(user.getUserId(), user.getUsername(), user.getRole()));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, tokenService.cookie(token).toString())
+                    .header(TOKEN_HEADER, token)
+                    .body(user);
+        }
+
         // Set session attributes
+        HttpSession session = request.getSession();
         session.setAttribute("userId", user.getUserId());
         session.setAttribute("username", user.getUsername());
         session.setAttribute("role", user.getRole());
@@ -42,28 +67,30 @@ public class AuthController {
 
 
 
+    @LoggedIn
     @GetMapping("/session")
-    public ResponseEntity<Map<String, Object>> getSessionDetails(HttpSession session) {
-        Integer userId = (Integer) session.getAttribute("userId");
-        String username = (String) session.getAttribute("username");
-        String role = (String) session.getAttribute("role");
-
-        if (userId == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
-
+    public ResponseEntity<Map<String, Object>> getSessionDetails(UserPrincipal principal) {
         Map<String, Object> sessionDetails = new HashMap<>();
-        sessionDetails.put("userId", userId);
-        sessionDetails.put("username", username);
-        sessionDetails.put("role", role);
+        sessionDetails.put("userId", principal.getUserId());
+        sessionDetails.put("username", principal.getUsername());
+        sessionDetails.put("role", principal.getRole());
 
         return ResponseEntity.ok(sessionDetails);
     }
 
+    @Public
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout(HttpSession session) {
-        session.invalidate(); // Invalidate the session to log the user out
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate(); // Invalidate the session to log the user out
+        }
+
+        if (tokenService.isEnabled()) {
+            // Drop the cookie - the token itself stays valid until it expires
+            return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, tokenService.clearCookie().toString()).build();
+        }
         return ResponseEntity.ok().build(); // Respond with a 200 OK
     }
 
-}
\ No newline at end of file
+}
@@ -1,15 +1,38 @@
 package com.revature.controllers;
 
 import com.revature.aspects.AdminOnly;
+import com.revature.aspects.Admission;
+import com.revature.aspects.LoggedIn;
+import com.revature.models.DTOs.BulkResolveDTO;
+import com.revature.models.DTOs.ClaimTicketDTO;
+import com.revature.models.DTOs.ImportResultDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementQueryDTO;
+import com.revature.models.DTOs.ReimbursementSummaryDTO;
+import com.revature.models.DTOs.ResolveResultDTO;
 import com.revature.models.Reimbursement;
+import com.revature.models.UserPrincipal;
+import com.revature.services.AdmissionControl;
+import com.revature.services.IdempotencyService;
+import com.revature.services.ReimbursementEventHub;
+import com.revature.services.ReimbursementImportService;
 import com.revature.services.ReimbursementService;
-import jakarta.servlet.http.HttpSession;
+import com.revature.services.ReimbursementWriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/reimbursements")
@@ -21,28 +44,80 @@ import java.util.List;
 public class ReimbursementController {
 
     private final ReimbursementService reimbursementService;
+    private final ReimbursementImportService reimbursementImportService;
+    private final ReimbursementEventHub eventHub;
+    private final ReimbursementWriteBehindQueue writeBehindQueue;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public ReimbursementController(ReimbursementService reimbursementService) {
+    public ReimbursementController(ReimbursementService reimbursementService,
+                                   ReimbursementImportService reimbursementImportService,
+                                   ReimbursementEventHub eventHub,
+                                   ReimbursementWriteBehindQueue writeBehindQueue,
+                                   IdempotencyService idempotencyService) {
         this.reimbursementService = reimbursementService;
+        this.reimbursementImportService = reimbursementImportService;
+        this.eventHub = eventHub;
+        this.writeBehindQueue = writeBehindQueue;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * Live feed of reimbursement changes as Server-Sent Events - managers get every change, employees only their own.
+     * Event names: created, updated, resolved (data is the reimbursement as JSON) and resync (data is empty -
+     * the list on screen may be stale, refetch it). Browsers' EventSource reconnects by itself when the stream ends.
+     *
+     * @return the event stream (503 if too many streams are open)
+     */
+    @LoggedIn
+    @Admission(AdmissionControl.EndpointClass.STREAM)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(UserPrincipal principal) {
+        return eventHub.subscribe(principal);
+    }
+
+    /**
+     * Submit a claim as the logged-in user
+     * Normally it's saved right away (201 with the reimbursement). With reimbursements.write-behind.enabled it's
+     * queued instead (see ReimbursementWriteBehindQueue): 202 with a ticket, whose Location header is where to look
+     * it up - or 503 with Retry-After if too many claims are already waiting
+     * With an Idempotency-Key header, a retry of the same claim gets the first response back instead of creating
+     * another one (see IdempotencyService)
+     *
+     * @param reimbursement amount and description
+     * @param idempotencyKey optional, unique per claim the client means to submit (e.g. a UUID)
+     * @return ResponseEntity containing the saved reimbursement or the ticket, or 400 for an invalid claim or key
+     *         (422 if the key was already used for a different claim)
+     */
+    @LoggedIn
     @PostMapping("/user/self")
-    public ResponseEntity<Reimbursement> createReimbursementForLoggedInUser(
+    public ResponseEntity<?> createReimbursementForLoggedInUser(
             @RequestBody Reimbursement reimbursement,
-            HttpSession session
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            UserPrincipal principal
     ) {
-        // Retrieve the logged-in user's ID from the session
-        Integer userId = (Integer) session.getAttribute("userId");
-
-        if (userId == null) {
-            // Return 401 Unauthorized if no user is logged in
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (idempotencyKey == null) {
+            return createReimbursement(reimbursement, principal);
+        }
+        if (!IdempotencyService.isValidKey(idempotencyKey)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
+        //the claim as sent - the service fills in the rest
+        String request = reimbursement.getAmount() + "|" + reimbursement.getStatus() + "|" + reimbursement.getDescription();
+        return idempotencyService.execute(principal.getUserId(), "create-claim", idempotencyKey, request,
+                () -> createReimbursement(reimbursement, principal));
+    }
 
+    private ResponseEntity<?> createReimbursement(Reimbursement reimbursement, UserPrincipal principal) {
         try {
+            if (writeBehindQueue.isEnabled()) {
+                ClaimTicketDTO ticket = writeBehindQueue.submit(reimbursement, principal.getUserId(), principal.getUsername());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .location(URI.create("/reimbursements/tickets/" + ticket.getTicketId()))
+                        .body(ticket);
+            }
             // Delegate reimbursement creation to the service
-            Reimbursement savedReimbursement = reimbursementService.insertReimbursement(reimbursement, userId);
+            OutgoingReimbursementDTO savedReimbursement = reimbursementService.insertReimbursement(reimbursement, principal.getUserId());
             return ResponseEntity.status(HttpStatus.CREATED).body(savedReimbursement);
         } catch (IllegalArgumentException e) {
             // Handle bad input and return 400 Bad Request
@@ -50,69 +125,222 @@ public class ReimbursementController {
         }
     }
 
-    @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Reimbursement>> getUserReimbursements(@PathVariable int userId, HttpSession session) {
-        Integer sessionUserId = (Integer) session.getAttribute("userId");
-        String role = (String) session.getAttribute("role");
-
-        if (sessionUserId == null) {
-            // User not logged in
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    /**
+     * Look up a claim submitted through the write-behind queue (the user who submitted it, or a manager)
+     *
+     * @param ticketId the ticket from the 202 response
+     * @return ResponseEntity containing the ticket (QUEUED, SAVED with the reimbid, or FAILED with the reason),
+     *         or 404 if there is no such ticket (tickets are forgotten a while after they're settled)
+     */
+    @LoggedIn
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<ClaimTicketDTO> getTicket(@PathVariable String ticketId, UserPrincipal principal) {
+        Optional<ClaimTicketDTO> ticket = writeBehindQueue.getTicket(ticketId);
+        if (ticket.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!principal.isManager() && principal.getUserId() != ticket.get().getUserId()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
+        return ResponseEntity.ok(ticket.get());
+    }
 
-        if (!role.equals("manager") && !sessionUserId.equals(userId)) {
+    /**
+     * Get one page of a user's reimbursements (the user themselves, or a manager)
+     *
+     * @param userId ID of the user
+     * @param after reimbid cursor - only reimbursements after this one are returned (the "next" of the previous page)
+     * @param size page size, capped at ReimbursementService.MAX_PAGE_SIZE
+     * @param includeHistory also return archived claims (resolved long ago - see ReimbursementArchiver)
+     * @return ResponseEntity containing a page of the user's reimbursements
+     */
+    @LoggedIn
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<PageDTO<OutgoingReimbursementDTO>> getUserReimbursements(
+            @PathVariable int userId,
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeHistory,
+            UserPrincipal principal) {
+        if (!principal.isManager() && principal.getUserId() != userId) {
             // Employee trying to access another user's data
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        // Fetch reimbursements for the user
-        List<Reimbursement> reimbursements = reimbursementService.getReimbursementsByUserID(userId);
+        // Fetch a page of reimbursements for the user
+        PageDTO<OutgoingReimbursementDTO> page = reimbursementService.getReimbursementsByUserID(userId, after, size, includeHistory);
 
-        return ResponseEntity.ok(reimbursements); // Return empty list with 200 if no reimbursements
+        return ResponseEntity.ok(page); // Return an empty page with 200 if no reimbursements
     }
 
     /**
-     * Get all reimbursements (Admin Only)
+     * Get one page of all reimbursements (Admin Only)
      *
-     * @return ResponseEntity containing a list of all reimbursements
+     * @param after reimbid cursor - only reimbursements after this one are returned (the "next" of the previous page)
+     * @param size page size, capped at ReimbursementService.MAX_PAGE_SIZE
+     * @param includeHistory also return archived claims (resolved long ago - see ReimbursementArchiver)
+     * @return ResponseEntity containing a page of reimbursements
      */
 
     @AdminOnly
     @GetMapping("/all")
-    public ResponseEntity<List<Reimbursement>> getAllReimbursements() {
-        List<Reimbursement> reimbursements = reimbursementService.getAllReimbursements();
+    public ResponseEntity<PageDTO<OutgoingReimbursementDTO>> getAllReimbursements(
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeHistory) {
+        return ResponseEntity.ok(reimbursementService.getAllReimbursements(after, size, includeHistory));
+    }
 
-        if (reimbursements.isEmpty()) {
-            return ResponseEntity.status(204).body(List.of()); // 204 No Content for empty lists
+    /**
+     * Full-text search of reimbursement descriptions, best match first (Admin Only)
+     *
+     * @param q words to look for, e.g. "conference hotel" - claims matching more of them rank higher
+     * @param status optional status filter
+     * @param userId optional user filter
+     * @param minAmount optional lowest amount (inclusive)
+     * @param maxAmount optional highest amount (inclusive)
+     * @param after how many results to skip - the "next" of the previous page
+     * @param size page size, capped at ReimbursementService.MAX_PAGE_SIZE
+     * @return ResponseEntity containing a page of matches, 400 without search text, or 503 while the index is built
+     */
+    @AdminOnly
+    @GetMapping("/search")
+    public ResponseEntity<PageDTO<OutgoingReimbursementDTO>> searchReimbursements(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(reimbursementService.searchReimbursements(q, status, userId, minAmount, maxAmount,
+                    after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
-        return ResponseEntity.ok(reimbursements);
     }
 
     /**
-     * Get all pending reimbursements for a specific user
+     * Query reimbursements with any mix of filters and a sort (Admin Only)
+     * e.g. {"statuses":["PENDING"],"minAmount":500,"sort":["-amount"]} - the biggest pending claims first
+     *
+     * @param query filters, sort keys and cursor - see ReimbursementQueryDTO
+     * @return ResponseEntity containing a page of reimbursements, or 400 for bad values or a combination no index covers
+     */
+    @AdminOnly
+    @PostMapping("/query")
+    public ResponseEntity<PageDTO<OutgoingReimbursementDTO>> queryReimbursements(@RequestBody ReimbursementQueryDTO query) {
+        try {
+            return ResponseEntity.ok(reimbursementService.queryReimbursements(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Get dashboard totals (Admin Only) - counts and sums per status, and the top claimants
+     *
+     * @param userId optional - restrict the per-status totals to one user
+     * @param status optional - rank claimants on this status only (e.g. PENDING)
+     * @param top optional - number of top claimants to return
+     * @param includeHistory also count archived claims - by default the totals cover active claims only
+     * @return ResponseEntity containing the summary
+     */
+    @AdminOnly
+    @GetMapping("/summary")
+    public ResponseEntity<ReimbursementSummaryDTO> getSummary(
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer top,
+            @RequestParam(defaultValue = "false") boolean includeHistory) {
+        return ResponseEntity.ok(reimbursementService.getSummary(userId, status, top, includeHistory));
+    }
+
+    /**
+     * Export reimbursements as NDJSON or CSV (Admin Only)
+     * Rows are streamed from the DB straight to the response, so this works for any table size
+     *
+     * @param format "ndjson" (default) or "csv"
+     * @param status optional status filter
+     * @param userId optional user filter
+     * @return ResponseEntity with a streaming body, or 400 for an unknown format
+     */
+    @AdminOnly
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReimbursements(
+            @RequestParam(defaultValue = ReimbursementService.EXPORT_NDJSON) String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer userId) {
+
+        MediaType contentType;
+        if (ReimbursementService.EXPORT_NDJSON.equalsIgnoreCase(format)) {
+            contentType = MediaType.APPLICATION_NDJSON;
+        } else if (ReimbursementService.EXPORT_CSV.equalsIgnoreCase(format)) {
+            contentType = new MediaType("text", "csv");
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        String exportFormat = format.toLowerCase();
+
+        // The body runs later on an async thread - that's when the DB cursor (and connection) is opened
+        StreamingResponseBody body = out -> reimbursementService.exportReimbursements(exportFormat, status, userId, out);
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reimbursements." + exportFormat + "\"")
+                .body(body);
+    }
+
+    /**
+     * Import reimbursements from a CSV request body (Admin Only)
+     * The body is read as it arrives, so files of any size can be loaded
+     *
+     * @param body CSV with a header row naming userId, amount, description and (optionally) status
+     * @return ResponseEntity with the number of imported/failed rows and the errors per line
+     */
+    @AdminOnly
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportResultDTO> importReimbursements(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(reimbursementImportService.importReimbursements(body));
+        } catch (IllegalArgumentException e) {
+            //missing/invalid header
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+
+    /**
+     * Get all pending reimbursements for a specific user (the user themselves, or a manager)
      *
      * @param userId ID of the user
      * @return ResponseEntity containing a list of pending reimbursements for the user
      */
+    @LoggedIn
     @GetMapping("/user/{userId}/pending")
-    public ResponseEntity<List<Reimbursement>> getUserPendingReimbursements(@PathVariable int userId) {
-        List<Reimbursement> reimbursements = reimbursementService.getUserPendingReimbursements(userId);
+    public ResponseEntity<List<OutgoingReimbursementDTO>> getUserPendingReimbursements(@PathVariable int userId,
+                                                                                      UserPrincipal principal) {
+        if (!principal.isManager() && principal.getUserId() != userId) {
+            // Employee trying to access another user's data
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<OutgoingReimbursementDTO> reimbursements = reimbursementService.getUserPendingReimbursements(userId);
         return ResponseEntity.ok(reimbursements);
     }
 
     /**
-     * Get all pending reimbursements (Admin Only)
-     * @return ResponseEntity containing a list of all pending reimbursements
+     * Get one page of pending reimbursements (Admin Only)
+     *
+     * @param after reimbid cursor - only reimbursements after this one are returned (the "next" of the previous page)
+     * @param size page size, capped at ReimbursementService.MAX_PAGE_SIZE
+     * @return ResponseEntity containing a page of pending reimbursements
      */
     @AdminOnly
     @GetMapping("/pending")
-    public ResponseEntity<List<Reimbursement>> getPendingReimbursements() {
-        List<Reimbursement> reimbursements = reimbursementService.getPendingReimbursements();
-
-        if (reimbursements.isEmpty()) {
-            return ResponseEntity.status(204).body(List.of());
-        }
-        return ResponseEntity.ok(reimbursements);
+    public ResponseEntity<PageDTO<OutgoingReimbursementDTO>> getPendingReimbursements(
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reimbursementService.getPendingReimbursements(after, size));
     }
 
     /**
@@ -120,70 +348,79 @@ public class ReimbursementController {
      *
      * @param id ID of the reimbursement to resolve
      * @param status New status for the reimbursement (APPROVED or DENIED)
-     * @return ResponseEntity containing the updated reimbursement
+     * @param idempotencyKey optional - a retry with the same key gets the first response back (see IdempotencyService),
+     *                       rather than an error because the claim is no longer pending
+     * @return ResponseEntity containing the updated reimbursement (400 for an invalid key, 422 for a reused one)
      */
     @AdminOnly
     @PatchMapping("/{id}/resolve")
-    public ResponseEntity<Reimbursement> resolveReimbursement(@PathVariable int id, @RequestParam String status) {
-        Reimbursement resolvedReimbursement = reimbursementService.resolveReimbursement(id, status);
-        return ResponseEntity.ok(resolvedReimbursement);
+    public ResponseEntity<?> resolveReimbursement(
+            @PathVariable int id,
+            @RequestParam String status,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            UserPrincipal principal) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(reimbursementService.resolveReimbursement(id, status));
+        }
+        if (!IdempotencyService.isValidKey(idempotencyKey)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        return idempotencyService.execute(principal.getUserId(), "resolve", idempotencyKey, id + "|" + status,
+                () -> ResponseEntity.ok(reimbursementService.resolveReimbursement(id, status)));
     }
 
-    @GetMapping("/user/self")
-    public ResponseEntity<List<Reimbursement>> getReimbursementsForLoggedInUser(HttpSession session) {
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    /**
+     * Resolve many reimbursements at once (Admin Only)
+     *
+     * @param bulkResolveDTO the reimbursement ids and the new status (APPROVED or DENIED)
+     * @return ResponseEntity containing a result per id (RESOLVED, NOT_PENDING or NOT_FOUND)
+     */
+    @AdminOnly
+    @PatchMapping("/resolve")
+    public ResponseEntity<List<ResolveResultDTO>> resolveReimbursements(@RequestBody BulkResolveDTO bulkResolveDTO) {
+        try {
+            return ResponseEntity.ok(reimbursementService.resolveReimbursements(bulkResolveDTO.getIds(), bulkResolveDTO.getStatus()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
+    }
 
-        List<Reimbursement> reimbursements = reimbursementService.getReimbursementsByUserID(userId);
+    @LoggedIn
+    @GetMapping("/user/self")
+    public ResponseEntity<List<OutgoingReimbursementDTO>> getReimbursementsForLoggedInUser(
+            @RequestParam(defaultValue = "false") boolean includeHistory,
+            UserPrincipal principal) {
+        List<OutgoingReimbursementDTO> reimbursements =
+                reimbursementService.getReimbursementsByUserID(principal.getUserId(), includeHistory);
 
         return ResponseEntity.ok(reimbursements);
     }
 
     @AdminOnly
     @PostMapping("/{userId}")
-    public ResponseEntity<Reimbursement> createReimbursementForSpecificUser(
+    public ResponseEntity<OutgoingReimbursementDTO> createReimbursementForSpecificUser(
             @RequestBody Reimbursement reimbursement,
-            @PathVariable int userId,
-            HttpSession session
+            @PathVariable int userId
     ) {
-        Integer sessionUserId = (Integer) session.getAttribute("userId");
-        String role = (String) session.getAttribute("role");
-
-        if (sessionUserId == null || role == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        // Allow only managers to use this endpoint
-        if (!role.equals("manager")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-
         try {
-            Reimbursement savedReimbursement = reimbursementService.insertReimbursement(reimbursement, userId);
+            OutgoingReimbursementDTO savedReimbursement = reimbursementService.insertReimbursement(reimbursement, userId);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedReimbursement);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
+    @LoggedIn
     @PatchMapping("/user/self/{reimbursementId}")
     @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true", methods = {RequestMethod.PATCH})
-    public ResponseEntity<Reimbursement> updatePendingReimbursement(
+    public ResponseEntity<OutgoingReimbursementDTO> updatePendingReimbursement(
             @PathVariable int reimbursementId,
             @RequestBody Reimbursement updatedReimbursement,
-            HttpSession session) {
-
-        // Check if the user is logged in
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
+            UserPrincipal principal) {
 
         try {
             // Delegate the update logic to the service
-            Reimbursement reimbursement = reimbursementService.updateReimbursement(reimbursementId, updatedReimbursement, userId);
+            OutgoingReimbursementDTO reimbursement = reimbursementService.updateReimbursement(reimbursementId, updatedReimbursement, principal.getUserId());
             return ResponseEntity.ok(reimbursement);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
@@ -194,12 +431,12 @@ public class ReimbursementController {
 
     @AdminOnly
     @PatchMapping("/{reimbursementId}/update")
-    public ResponseEntity<Reimbursement> updateReimbursementAsManager(
+    public ResponseEntity<OutgoingReimbursementDTO> updateReimbursementAsManager(
             @PathVariable int reimbursementId,
             @RequestBody Reimbursement updatedReimbursement) {
 
         try {
-            Reimbursement reimbursement = reimbursementService.updateReimbursementAsManager(reimbursementId, updatedReimbursement);
+            OutgoingReimbursementDTO reimbursement = reimbursementService.updateReimbursementAsManager(reimbursementId, updatedReimbursement);
             return ResponseEntity.ok(reimbursement);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
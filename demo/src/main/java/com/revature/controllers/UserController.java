@@ -1,10 +1,17 @@
 package com.revature.controllers;
 
 import com.revature.aspects.AdminOnly;
+import com.revature.aspects.Admission;
+import com.revature.aspects.LoggedIn;
+import com.revature.aspects.Public;
+import com.revature.models.DTOs.CacheStatsDTO;
 import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.PurgeProgressDTO;
+import com.revature.models.DTOs.UserSummaryDTO;
 import com.revature.models.User;
+import com.revature.models.UserPrincipal;
+import com.revature.services.AdmissionControl;
 import com.revature.services.UserService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +32,8 @@ public class UserController {
     }
 
     //Inserting user
+    @Public
+    @Admission(AdmissionControl.EndpointClass.AUTH)
     @PostMapping
     public ResponseEntity<User> insertUser(@RequestBody IncomingUserDTO userDTO){
         //send the UserDTO to the service, which will process it and send it to the DAO
@@ -34,10 +43,17 @@ public class UserController {
 
     @AdminOnly
     @GetMapping("/all")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<UserSummaryDTO>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    //Hit/miss/eviction counters of the user lookup cache
+    @AdminOnly
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+
     @AdminOnly
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable int userId) {
@@ -45,6 +61,13 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    //Background purges of deleted users - reimbursements removed so far out of the total, per user
+    @AdminOnly
+    @GetMapping("/purges")
+    public ResponseEntity<List<PurgeProgressDTO>> getPurgeProgress() {
+        return ResponseEntity.ok(userService.getPurgeProgress());
+    }
+
     @AdminOnly
     @PatchMapping("/{userId}/role")
     public ResponseEntity<User> updateUserRole(
@@ -59,15 +82,11 @@ public class UserController {
         }
     }
 
+    @LoggedIn
     @GetMapping("/self")
     @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
-    public ResponseEntity<User> getLoggedInUser(HttpSession session) {
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
-        User user = userService.getUserById(userId);
+    public ResponseEntity<User> getLoggedInUser(UserPrincipal principal) {
+        User user = userService.getUserById(principal.getUserId());
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
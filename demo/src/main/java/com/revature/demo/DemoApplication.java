@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("com.revature.models")
 @ComponentScan("com.revature")
 @EnableJpaRepositories("com.revature.DAOs")
+@EnableScheduling //background jobs like UserPurger
 public class DemoApplication {
 
 	public static void main(String[] args) {
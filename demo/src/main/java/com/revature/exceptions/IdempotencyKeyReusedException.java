@@ -0,0 +1,10 @@
+package com.revature.exceptions;
+
+//Thrown when an Idempotency-Key comes back with a different request than the one it was first used for
+//(see IdempotencyService) - mapped to 422 by GlobalExceptionHandler
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
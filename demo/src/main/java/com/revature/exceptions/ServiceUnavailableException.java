@@ -0,0 +1,13 @@
+package com.revature.exceptions;
+
+//Thrown when a request is shed because a bounded resource is saturated - mapped to 503 by GlobalExceptionHandler
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
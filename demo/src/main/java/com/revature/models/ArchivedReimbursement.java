@@ -0,0 +1,104 @@
+package com.revature.models;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+//A resolved reimbursement moved out of the hot table by ReimbursementArchiver - read-only, same id as before
+@Entity
+@Table(name = "reimbursement_archive")
+public class ArchivedReimbursement {
+
+    @Id
+    private int reimbid;
+
+    @Column(nullable = false)
+    private double amount;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    private String status;
+
+    private Instant resolvedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "userId")
+    private User user;
+
+    public ArchivedReimbursement() {
+    }
+
+    public int getReimbid() {
+        return reimbid;
+    }
+
+    public void setReimbid(int reimbid) {
+        this.reimbid = reimbid;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Instant getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(Instant resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(Instant archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedReimbursement{" +
+                "reimbid=" + reimbid +
+                ", amount=" + amount +
+                ", description='" + description + '\'' +
+                ", status='" + status + '\'' +
+                ", resolvedAt=" + resolvedAt +
+                ", archivedAt=" + archivedAt +
+                ", userId=" + (user == null ? null : user.getUserId()) +
+                '}';
+    }
+}
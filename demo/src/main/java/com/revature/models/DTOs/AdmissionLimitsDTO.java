@@ -0,0 +1,74 @@
+package com.revature.models.DTOs;
+
+//The admission limits of one endpoint class (see AdmissionControl) - GET and PUT /admission
+//0 turns a limit off. inFlight is only reported, it's ignored on PUT
+public class AdmissionLimitsDTO {
+
+    private String endpointClass; //AUTH, READ, WRITE, STREAM or ADMIN
+    private double ratePerSecond; //tokens added to each client's bucket per second
+    private int burst; //most tokens a bucket holds - requests a client can make at once
+    private int maxConcurrent; //most requests of the class in flight, all clients together
+    private int inFlight;
+
+    public AdmissionLimitsDTO() {
+    }
+
+    public AdmissionLimitsDTO(String endpointClass, double ratePerSecond, int burst, int maxConcurrent, int inFlight) {
+        this.endpointClass = endpointClass;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxConcurrent = maxConcurrent;
+        this.inFlight = inFlight;
+    }
+
+    public String getEndpointClass() {
+        return endpointClass;
+    }
+
+    public void setEndpointClass(String endpointClass) {
+        this.endpointClass = endpointClass;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionLimitsDTO{" +
+                "endpointClass='" + endpointClass + '\'' +
+                ", ratePerSecond=" + ratePerSecond +
+                ", burst=" + burst +
+                ", maxConcurrent=" + maxConcurrent +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.revature.models.DTOs;
+
+import java.util.List;
+
+//Request body for resolving many reimbursements at once
+public class BulkResolveDTO {
+
+    private List<Integer> ids;
+    private String status; //APPROVED or DENIED
+
+    public BulkResolveDTO() {
+    }
+
+    public BulkResolveDTO(List<Integer> ids, String status) {
+        this.ids = ids;
+        this.status = status;
+    }
+
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Integer> ids) {
+        this.ids = ids;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResolveDTO{" +
+                "ids=" + ids +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.revature.models.DTOs;
+
+//A claim accepted by the write-behind queue (see ReimbursementWriteBehindQueue) and what has become of it
+//Returned with the 202 from POST /reimbursements/user/self, and by GET /reimbursements/tickets/{ticketId}
+public class ClaimTicketDTO {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SAVED = "SAVED";
+    public static final String FAILED = "FAILED";
+
+    private String ticketId;
+    private String status; //QUEUED, SAVED or FAILED
+    private int userId;
+    private Integer reimbid; //once SAVED
+    private String error; //once FAILED
+
+    public ClaimTicketDTO() {
+    }
+
+    public ClaimTicketDTO(String ticketId, String status, int userId, Integer reimbid, String error) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.userId = userId;
+        this.reimbid = reimbid;
+        this.error = error;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(String ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public Integer getReimbid() {
+        return reimbid;
+    }
+
+    public void setReimbid(Integer reimbid) {
+        this.reimbid = reimbid;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ClaimTicketDTO{" +
+                "ticketId='" + ticketId + '\'' +
+                ", status='" + status + '\'' +
+                ", userId=" + userId +
+                ", reimbid=" + reimbid +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.revature.models.DTOs;
+
+//How many reimbursements one user has claimed, and what they add up to
+public class ClaimantTotalDTO {
+
+    private int userId;
+    private String username;
+    private long count;
+    private double total;
+
+    public ClaimantTotalDTO() {
+    }
+
+    public ClaimantTotalDTO(int userId, String username, long count, double total) {
+        this.userId = userId;
+        this.username = username;
+        this.count = count;
+        this.total = total;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    @Override
+    public String toString() {
+        return "ClaimantTotalDTO{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                ", count=" + count +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -0,0 +1,127 @@
+package com.revature.models.DTOs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Columnar form of a reimbursement list, for clients that ask for it (Accept: application/vnd.reimbursements.compact+json)
+//Row i is reimbid[i], amount[i], description[i], statuses[status[i]], userId[i] - field names are sent once, not per row,
+//each status string once, and each user's username once in the "users" side table instead of on every row
+public class CompactReimbursementsDTO {
+
+    private int[] reimbid;
+    private double[] amount;
+    private String[] description;
+    private int[] status;
+    private List<String> statuses;
+    private int[] userId;
+    private Map<Integer, String> users;
+    private Integer next;
+
+    public CompactReimbursementsDTO() {
+    }
+
+    public static CompactReimbursementsDTO of(List<OutgoingReimbursementDTO> rows, Integer next) {
+        int n = rows.size();
+        CompactReimbursementsDTO compact = new CompactReimbursementsDTO();
+        compact.reimbid = new int[n];
+        compact.amount = new double[n];
+        compact.description = new String[n];
+        compact.status = new int[n];
+        compact.statuses = new ArrayList<>(3);
+        compact.userId = new int[n];
+        compact.users = new LinkedHashMap<>();
+        compact.next = next;
+
+        for (int i = 0; i < n; i++) {
+            OutgoingReimbursementDTO row = rows.get(i);
+            compact.reimbid[i] = row.getReimbid();
+            compact.amount[i] = row.getAmount();
+            compact.description[i] = row.getDescription();
+            int code = compact.statuses.indexOf(row.getStatus()); //only a handful of statuses, a list scan is fine
+            if (code < 0) {
+                code = compact.statuses.size();
+                compact.statuses.add(row.getStatus());
+            }
+            compact.status[i] = code;
+            compact.userId[i] = row.getUserId();
+            compact.users.putIfAbsent(row.getUserId(), row.getUsername());
+        }
+        return compact;
+    }
+
+    public int[] getReimbid() {
+        return reimbid;
+    }
+
+    public void setReimbid(int[] reimbid) {
+        this.reimbid = reimbid;
+    }
+
+    public double[] getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double[] amount) {
+        this.amount = amount;
+    }
+
+    public String[] getDescription() {
+        return description;
+    }
+
+    public void setDescription(String[] description) {
+        this.description = description;
+    }
+
+    public int[] getStatus() {
+        return status;
+    }
+
+    public void setStatus(int[] status) {
+        this.status = status;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(List<String> statuses) {
+        this.statuses = statuses;
+    }
+
+    public int[] getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int[] userId) {
+        this.userId = userId;
+    }
+
+    public Map<Integer, String> getUsers() {
+        return users;
+    }
+
+    public void setUsers(Map<Integer, String> users) {
+        this.users = users;
+    }
+
+    public Integer getNext() {
+        return next;
+    }
+
+    public void setNext(Integer next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactReimbursementsDTO{" +
+                "rows=" + (reimbid == null ? 0 : reimbid.length) +
+                ", statuses=" + statuses +
+                ", users=" + users +
+                ", next=" + next +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.revature.models.DTOs;
+
+//A CSV line that couldn't be imported, and why
+public class ImportErrorDTO {
+
+    private int line;
+    private String message;
+
+    public ImportErrorDTO() {
+    }
+
+    public ImportErrorDTO(int line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportErrorDTO{" +
+                "line=" + line +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.revature.models.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Outcome of a CSV import - counts, plus the first MAX_ERRORS failed lines
+public class ImportResultDTO {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private long imported;
+    private long failed;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public ImportResultDTO() {
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    //Count a failed line - its details are only kept for the first MAX_ERRORS, so a bad file can't use up the heap
+    public void addError(int line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportErrorDTO(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultDTO{" +
+                "imported=" + imported +
+                ", failed=" + failed +
+                ", errors=" + errors +
+                ", errorsTruncated=" + errorsTruncated +
+                '}';
+    }
+}
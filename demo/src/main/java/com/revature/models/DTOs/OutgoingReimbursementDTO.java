@@ -0,0 +1,85 @@
+package com.revature.models.DTOs;
+
+//Flat, read-only view of a reimbursement - only the owning user's id and username, never the whole User
+//The DAO builds these straight from a query (JPQL constructor expression), so they are never managed entities
+public class OutgoingReimbursementDTO {
+
+    private int reimbid;
+    private double amount;
+    private String description;
+    private String status;
+    private int userId;
+    private String username;
+
+    public OutgoingReimbursementDTO() {
+    }
+
+    public OutgoingReimbursementDTO(int reimbid, double amount, String description, String status, int userId, String username) {
+        this.reimbid = reimbid;
+        this.amount = amount;
+        this.description = description;
+        this.status = status;
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public int getReimbid() {
+        return reimbid;
+    }
+
+    public void setReimbid(int reimbid) {
+        this.reimbid = reimbid;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public String toString() {
+        return "OutgoingReimbursementDTO{" +
+                "reimbid=" + reimbid +
+                ", amount=" + amount +
+                ", description='" + description + '\'' +
+                ", status='" + status + '\'' +
+                ", userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.revature.models.DTOs;
+
+import java.util.List;
+
+//One page of a keyset-paginated list
+//"next" is the cursor to send back as ?after= for the following page, or null when there are no more rows
+public class PageDTO<T> {
+
+    private List<T> items;
+    private Integer next;
+
+    public PageDTO() {
+    }
+
+    public PageDTO(List<T> items, Integer next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public Integer getNext() {
+        return next;
+    }
+
+    public void setNext(Integer next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "PageDTO{" +
+                "items=" + items +
+                ", next=" + next +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package com.revature.models.DTOs;
+
+import java.time.Instant;
+
+//Where the background purge of one deleted user stands - see UserPurger
+public class PurgeProgressDTO {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED"; //retried on the next run
+
+    private int userId;
+    private String state;
+    private long totalReimbursements; //counted when the purge starts, 0 while QUEUED
+    private long deletedReimbursements;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public PurgeProgressDTO() {
+    }
+
+    public PurgeProgressDTO(int userId, String state, long totalReimbursements, long deletedReimbursements,
+                            Instant startedAt, Instant finishedAt, String error) {
+        this.userId = userId;
+        this.state = state;
+        this.totalReimbursements = totalReimbursements;
+        this.deletedReimbursements = deletedReimbursements;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getTotalReimbursements() {
+        return totalReimbursements;
+    }
+
+    public void setTotalReimbursements(long totalReimbursements) {
+        this.totalReimbursements = totalReimbursements;
+    }
+
+    public long getDeletedReimbursements() {
+        return deletedReimbursements;
+    }
+
+    public void setDeletedReimbursements(long deletedReimbursements) {
+        this.deletedReimbursements = deletedReimbursements;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "PurgeProgressDTO{" +
+                "userId=" + userId +
+                ", state='" + state + '\'' +
+                ", totalReimbursements=" + totalReimbursements +
+                ", deletedReimbursements=" + deletedReimbursements +
+                ", startedAt=" + startedAt +
+                ", finishedAt=" + finishedAt +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
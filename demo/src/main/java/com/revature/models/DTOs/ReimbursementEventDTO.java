@@ -0,0 +1,50 @@
+package com.revature.models.DTOs;
+
+//A committed change to a reimbursement, pushed to dashboards over /reimbursements/events (see ReimbursementEventHub)
+//RESYNC carries no reimbursement: it tells the client its list is stale (bulk change, or events were dropped) - refetch
+public class ReimbursementEventDTO {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String RESOLVED = "resolved";
+    public static final String RESYNC = "resync";
+
+    private String type;
+    private OutgoingReimbursementDTO reimbursement;
+
+    public ReimbursementEventDTO() {
+    }
+
+    public ReimbursementEventDTO(String type, OutgoingReimbursementDTO reimbursement) {
+        this.type = type;
+        this.reimbursement = reimbursement;
+    }
+
+    public static ReimbursementEventDTO resync() {
+        return new ReimbursementEventDTO(RESYNC, null);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public OutgoingReimbursementDTO getReimbursement() {
+        return reimbursement;
+    }
+
+    public void setReimbursement(OutgoingReimbursementDTO reimbursement) {
+        this.reimbursement = reimbursement;
+    }
+
+    @Override
+    public String toString() {
+        return "ReimbursementEventDTO{" +
+                "type='" + type + '\'' +
+                ", reimbursement=" + reimbursement +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package com.revature.models.DTOs;
+
+import java.util.List;
+
+//Request body for POST /reimbursements/query - every field is optional, and the filters that are set are ANDed
+//See ReimbursementService.queryReimbursements for the limits, and ReimbursementQueryDAO for the SQL it becomes
+public class ReimbursementQueryDTO {
+
+    public static final String SORT_REIMBID = "reimbid";
+    public static final String SORT_AMOUNT = "amount";
+
+    private List<String> statuses; //any of these statuses
+    private List<Integer> userIds; //any of these users
+    private Double minAmount; //inclusive
+    private Double maxAmount; //inclusive
+    private Integer minId; //inclusive
+    private Integer maxId; //inclusive
+    private List<String> sort; //sort keys, "-" in front for descending: ["-amount"], ["amount", "reimbid"]... default reimbid
+    private Integer after; //cursor: reimbid of the last row of the previous page (its "next")
+    private Double afterAmount; //cursor, when sorting by amount: amount of the last row of the previous page
+    private Integer size;
+
+    public ReimbursementQueryDTO() {
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(List<String> statuses) {
+        this.statuses = statuses;
+    }
+
+    public List<Integer> getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(List<Integer> userIds) {
+        this.userIds = userIds;
+    }
+
+    public Double getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(Double minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public Double getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(Double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public Integer getMinId() {
+        return minId;
+    }
+
+    public void setMinId(Integer minId) {
+        this.minId = minId;
+    }
+
+    public Integer getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(Integer maxId) {
+        this.maxId = maxId;
+    }
+
+    public List<String> getSort() {
+        return sort;
+    }
+
+    public void setSort(List<String> sort) {
+        this.sort = sort;
+    }
+
+    public Integer getAfter() {
+        return after;
+    }
+
+    public void setAfter(Integer after) {
+        this.after = after;
+    }
+
+    public Double getAfterAmount() {
+        return afterAmount;
+    }
+
+    public void setAfterAmount(Double afterAmount) {
+        this.afterAmount = afterAmount;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return "ReimbursementQueryDTO{" +
+                "statuses=" + statuses +
+                ", userIds=" + userIds +
+                ", minAmount=" + minAmount +
+                ", maxAmount=" + maxAmount +
+                ", minId=" + minId +
+                ", maxId=" + maxId +
+                ", sort=" + sort +
+                ", after=" + after +
+                ", afterAmount=" + afterAmount +
+                ", size=" + size +
+                '}';
+    }
+}
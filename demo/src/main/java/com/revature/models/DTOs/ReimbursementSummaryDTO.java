@@ -0,0 +1,42 @@
+package com.revature.models.DTOs;
+
+import java.util.List;
+
+//Dashboard totals - everything here is computed by GROUP BY queries in ReimbursementDAO
+public class ReimbursementSummaryDTO {
+
+    private List<StatusTotalDTO> byStatus;
+    private List<ClaimantTotalDTO> topClaimants;
+
+    public ReimbursementSummaryDTO() {
+    }
+
+    public ReimbursementSummaryDTO(List<StatusTotalDTO> byStatus, List<ClaimantTotalDTO> topClaimants) {
+        this.byStatus = byStatus;
+        this.topClaimants = topClaimants;
+    }
+
+    public List<StatusTotalDTO> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(List<StatusTotalDTO> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public List<ClaimantTotalDTO> getTopClaimants() {
+        return topClaimants;
+    }
+
+    public void setTopClaimants(List<ClaimantTotalDTO> topClaimants) {
+        this.topClaimants = topClaimants;
+    }
+
+    @Override
+    public String toString() {
+        return "ReimbursementSummaryDTO{" +
+                "byStatus=" + byStatus +
+                ", topClaimants=" + topClaimants +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.revature.models.DTOs;
+
+import java.util.List;
+
+//Internal notice that reimbursements changed, for ReimbursementSearchIndex - never sent to clients
+//Either reimbids (re-read them: changed rows are re-indexed, rows that are gone are dropped) or a userId (drop all theirs)
+//Every write publishes one, single rows included - ReimbursementEventDTO is only for the live dashboards
+//Writes of many rows (bulk resolve, import, write-behind batches) send one for all of them, not one per row
+public class ReimbursementsChangedDTO {
+
+    private List<Integer> reimbids;
+    private Integer userId;
+
+    public ReimbursementsChangedDTO() {
+    }
+
+    public ReimbursementsChangedDTO(List<Integer> reimbids, Integer userId) {
+        this.reimbids = reimbids;
+        this.userId = userId;
+    }
+
+    public static ReimbursementsChangedDTO rows(List<Integer> reimbids) {
+        return new ReimbursementsChangedDTO(reimbids, null);
+    }
+
+    public static ReimbursementsChangedDTO user(int userId) {
+        return new ReimbursementsChangedDTO(List.of(), userId);
+    }
+
+    public List<Integer> getReimbids() {
+        return reimbids;
+    }
+
+    public void setReimbids(List<Integer> reimbids) {
+        this.reimbids = reimbids;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public String toString() {
+        return "ReimbursementsChangedDTO{" +
+                "reimbids=" + reimbids +
+                ", userId=" + userId +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package com.revature.models.DTOs;
+
+//What happened to one id in a bulk resolve
+public class ResolveResultDTO {
+
+    public static final String RESOLVED = "RESOLVED";
+    public static final String NOT_PENDING = "NOT_PENDING";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private int reimbid;
+    private String result; //RESOLVED, NOT_PENDING or NOT_FOUND
+
+    public ResolveResultDTO() {
+    }
+
+    public ResolveResultDTO(int reimbid, String result) {
+        this.reimbid = reimbid;
+        this.result = result;
+    }
+
+    public int getReimbid() {
+        return reimbid;
+    }
+
+    public void setReimbid(int reimbid) {
+        this.reimbid = reimbid;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    @Override
+    public String toString() {
+        return "ResolveResultDTO{" +
+                "reimbid=" + reimbid +
+                ", result='" + result + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.revature.models.DTOs;
+
+//How many reimbursements have a given status, and what they add up to
+public class StatusTotalDTO {
+
+    private String status;
+    private long count;
+    private double total;
+
+    public StatusTotalDTO() {
+    }
+
+    public StatusTotalDTO(String status, long count, double total) {
+        this.status = status;
+        this.count = count;
+        this.total = total;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusTotalDTO{" +
+                "status='" + status + '\'' +
+                ", count=" + count +
+                ", total=" + total +
+                '}';
+    }
+}
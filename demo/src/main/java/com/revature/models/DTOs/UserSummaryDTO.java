@@ -0,0 +1,85 @@
+package com.revature.models.DTOs;
+
+//One row of the manager's user list - the user's details plus how many reimbursements they have
+//Built directly by UserDAO.findAllSummaries(), so listing users never loads anyone's reimbursements
+public class UserSummaryDTO {
+
+    private int userId;
+    private String firstName;
+    private String lastName;
+    private String username;
+    private String role;
+    private long reimbursementCount;
+
+    public UserSummaryDTO() {
+    }
+
+    public UserSummaryDTO(int userId, String firstName, String lastName, String username, String role, long reimbursementCount) {
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.username = username;
+        this.role = role;
+        this.reimbursementCount = reimbursementCount;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public long getReimbursementCount() {
+        return reimbursementCount;
+    }
+
+    public void setReimbursementCount(long reimbursementCount) {
+        this.reimbursementCount = reimbursementCount;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummaryDTO{" +
+                "userId=" + userId +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", username='" + username + '\'' +
+                ", role='" + role + '\'' +
+                ", reimbursementCount=" + reimbursementCount +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.revature.models;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+//The response to replay for one Idempotency-Key (see IdempotencyService) - the table is created by V7__idempotency_keys
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 400)
+    private String id; //<userId>:<operation>:<key>
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status; //0 until the request has finished (the row is only ever seen committed with its response)
+
+    @Column(length = 4000)
+    private String body; //JSON, null for an empty body
+
+    private String location;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, String fingerprint, Instant createdAt) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "id='" + id + '\'' +
+                ", status=" + status +
+                ", location='" + location + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -3,14 +3,19 @@ package com.revature.models;
 import jakarta.persistence.*;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
 @Component //make class a bean
 @Entity //makes a DB based table on this class
+//The table, sequence and indexes are defined by the Flyway migrations in src/main/resources/db/migration
 @Table(name = "reimbursement")
-
 public class Reimbursement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)//makes primary key auto-increment
+    //ids come from a sequence, handed out 50 at a time (pooled optimizer) - unlike IDENTITY,
+    //this lets Hibernate batch INSERTs, since it knows the id before the row is written
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reimbursement_seq")
+    @SequenceGenerator(name = "reimbursement_seq", sequenceName = "reimbursement_seq", allocationSize = 50)
     private int reimbid;
 
     @Column(nullable = false) //must have a value
@@ -22,7 +27,15 @@ public class Reimbursement {
     @Column(nullable = false)
     private String status = "PENDING"; //PENDING(default), APPROVED, DENIED
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    //optimistic lock - bumped by every update, including the conditional ones in ReimbursementDAO
+    @Version
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int version;
+
+    //when the claim stopped being PENDING - ReimbursementArchiver moves it to the archive table once this is old enough
+    private Instant resolvedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY) //list endpoints use DAO projections instead of walking this
     @JoinColumn(name = "userId")
     private User user;
 
@@ -69,6 +82,32 @@ public class Reimbursement {
         this.status = status;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public Instant getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(Instant resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    //Stamp resolvedAt whenever an entity write takes the claim out of PENDING (bulk resolve, import, insert)
+    //The conditional UPDATEs in ReimbursementDAO set it themselves
+    @PrePersist
+    @PreUpdate
+    void stampResolvedAt() {
+        if (resolvedAt == null && status != null && !"PENDING".equalsIgnoreCase(status)) {
+            resolvedAt = Instant.now();
+        }
+    }
+
     public User getUser() {
         return user;
     }
@@ -84,7 +123,9 @@ public class Reimbursement {
                 ", amount=" + amount +
                 ", description='" + description + '\'' +
                 ", status='" + status + '\'' +
-                ", user=" + user +
+                ", version=" + version +
+                ", resolvedAt=" + resolvedAt +
+                ", userId=" + (user == null ? null : user.getUserId()) +
                 '}';
     }
 }
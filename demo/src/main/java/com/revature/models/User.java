@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 
 @Component
@@ -12,7 +13,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private int userId;
 
     @Column(nullable = false)
@@ -21,19 +23,26 @@ public class User {
     @Column(nullable = false)
     private String lastName;
 
-    @Column(nullable = false)
+    @Column(nullable = false) //unique index ux_user_username (see db/migration)
     private String username;
 
+    //The BCrypt hash - never sent to clients, which get User from POST /users, PATCH /users/{id}/role and /users/self
     @Column(nullable = false)
+    @JsonIgnore
     private String password;
 
     @Column(nullable = false)
     private String role = "employee"; // Default role
 
-    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore //prevents circular reference in our JSON responses
     private List<Reimbursement> reimbursements;
 
+    //Set when the user is deleted (UserService.deleteUser) - the row stays, hidden from every lookup,
+    //until UserPurger has removed their reimbursements and then the row itself
+    @JsonIgnore
+    private Instant deletedAt;
+
     public User() {
     }
 
@@ -103,6 +112,14 @@ public class User {
         this.reimbursements = reimbursements;
     }
 
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -112,7 +129,6 @@ public class User {
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
                 ", role='" + role + '\'' +
-                ", reimbursements=" + reimbursements +
                 '}';
     }
 }
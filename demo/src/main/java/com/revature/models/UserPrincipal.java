@@ -0,0 +1,41 @@
+package com.revature.models;
+
+//The logged-in user as seen by a request - read from the HttpSession or from a verified auth token
+//Not an entity: nothing here is loaded from the DB
+public class UserPrincipal {
+
+    private final int userId;
+    private final String username;
+    private final String role;
+
+    public UserPrincipal(int userId, String username, String role) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isManager() {
+        return "manager".equalsIgnoreCase(role);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                ", role='" + role + '\'' +
+                '}';
+    }
+}
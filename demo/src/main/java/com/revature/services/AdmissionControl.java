@@ -0,0 +1,225 @@
+package com.revature.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.models.DTOs.AdmissionLimitsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for controller calls (applied by AdmissionInterceptor), so that one client hammering an
+ * endpoint can't take the connection pool away from everyone else.
+ *
+ * Every call belongs to an endpoint class (see EndpointClass), and each class has two limits:
+ * - A token bucket per client. The client is the logged-in user, or the client address before login. Buckets
+ *   refill at rate-per-second up to burst, and each call takes a token. An empty bucket means 429, with
+ *   Retry-After set to when the next token is due.
+ * - A cap on the class's calls in flight, counting all clients together. Over the cap the call gets a 503 with
+ *   Retry-After straight away; calls don't queue for a slot.
+ * Both checks are non-blocking. Rejections are counted in app.admission.rejected (tagged class and reason), and
+ * app.admission.in_flight is a gauge per class.
+ *
+ * Limits start from the admission.<class>.* properties and can be changed at runtime (PUT /admission/{class}).
+ * 0 turns a limit off. Buckets of idle clients are dropped after idle-timeout; a client that comes back starts
+ * with a full bucket, which it would have had by then anyway.
+ */
+@Component
+public class AdmissionControl {
+
+    public static final String REJECTED_COUNTER = "app.admission.rejected";
+    public static final String IN_FLIGHT_GAUGE = "app.admission.in_flight";
+
+    //Defaults, used when admission.<class>.* isn't set
+    public enum EndpointClass {
+        AUTH(5, 100, 32), //login and sign-up - BCrypt hashing on every call; per address before login, and a whole
+                          //office behind one NAT address logs in around the same time
+        READ(50, 100, 30), //other GETs
+        WRITE(10, 30, 20), //other POST/PATCH/PUT/DELETE
+        STREAM(1, 5, 0), //the live event feed - long-lived, ReimbursementEventHub caps open streams itself
+        ADMIN(0, 0, 0); //these limits themselves (AdmissionController) - never locked out by default
+
+        private final double ratePerSecond;
+        private final int burst;
+        private final int maxConcurrent;
+
+        EndpointClass(double ratePerSecond, int burst, int maxConcurrent) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    public enum Reason {
+        RATE_LIMITED, //the client's bucket is empty - 429
+        CONCURRENCY_LIMITED //the class is at its in-flight cap - 503
+    }
+
+    //A call that wasn't admitted: why, and how many seconds to wait before retrying
+    public record Rejection(Reason reason, long retryAfterSeconds) {
+    }
+
+    private final boolean enabled;
+    private final Map<EndpointClass, ClassState> classes = new EnumMap<>(EndpointClass.class);
+    //per class and client - ConcurrentHashMap underneath, so clients only contend when they hash to the same bin
+    private final Cache<String, Bucket> buckets;
+
+    @Autowired
+    public AdmissionControl(Environment environment, MeterRegistry registry,
+                            @Value("${admission.enabled:true}") boolean enabled,
+                            @Value("${admission.max-clients:100000}") long maxClients,
+                            @Value("${admission.idle-timeout:10m}") Duration idleTimeout) {
+        this.enabled = enabled;
+        this.buckets = Caffeine.newBuilder().maximumSize(maxClients).expireAfterAccess(idleTimeout).build();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "admission." + endpointClass.name().toLowerCase(Locale.ROOT) + ".";
+            Limits limits = new Limits(
+                    environment.getProperty(prefix + "rate-per-second", Double.class, endpointClass.ratePerSecond),
+                    environment.getProperty(prefix + "burst", Integer.class, endpointClass.burst),
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, endpointClass.maxConcurrent));
+            classes.put(endpointClass, new ClassState(endpointClass, validate(limits), registry));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admit a call, or say why not. An admitted call must be released() when it's done.
+     *
+     * @param client who is calling, e.g. "user:12" or "ip:10.0.0.7"
+     * @return empty if admitted, otherwise the rejection
+     */
+    public Optional<Rejection> admit(EndpointClass endpointClass, String client) {
+        ClassState state = classes.get(endpointClass);
+        Limits limits = state.limits;
+
+        if (limits.ratePerSecond > 0) {
+            Bucket bucket = buckets.get(endpointClass.ordinal() + ":" + client, key -> new Bucket(limits.burst));
+            long waitNanos = bucket.take(limits.ratePerSecond, limits.burst, System.nanoTime());
+            if (waitNanos > 0) {
+                state.rateLimited.increment();
+                return Optional.of(new Rejection(Reason.RATE_LIMITED, seconds(waitNanos)));
+            }
+        }
+
+        //counted even with no cap, so the gauge is right and release() always has something to undo
+        int inFlight = state.inFlight.incrementAndGet();
+        if (limits.maxConcurrent > 0 && inFlight > limits.maxConcurrent) {
+            state.inFlight.decrementAndGet();
+            state.concurrencyLimited.increment();
+            return Optional.of(new Rejection(Reason.CONCURRENCY_LIMITED, 1));
+        }
+        return Optional.empty();
+    }
+
+    //An admitted call has finished (or handed its work off to another thread)
+    public void release(EndpointClass endpointClass) {
+        classes.get(endpointClass).inFlight.decrementAndGet();
+    }
+
+    public List<AdmissionLimitsDTO> getLimits() {
+        List<AdmissionLimitsDTO> all = new ArrayList<>();
+        for (ClassState state : classes.values()) {
+            all.add(state.toDTO());
+        }
+        return all;
+    }
+
+    /**
+     * Change a class's limits - calls admitted from now on use them. Existing buckets keep their tokens (capped at
+     * the new burst on their next refill).
+     *
+     * @throws IllegalArgumentException if a limit is negative, or there's a rate with a burst below 1
+     */
+    public AdmissionLimitsDTO setLimits(EndpointClass endpointClass, AdmissionLimitsDTO limits) {
+        ClassState state = classes.get(endpointClass);
+        state.limits = validate(new Limits(limits.getRatePerSecond(), limits.getBurst(), limits.getMaxConcurrent()));
+        return state.toDTO();
+    }
+
+    private static Limits validate(Limits limits) {
+        if (limits.ratePerSecond < 0 || limits.burst < 0 || limits.maxConcurrent < 0) {
+            throw new IllegalArgumentException("Admission limits can't be negative.");
+        }
+        if (limits.ratePerSecond > 0 && limits.burst < 1) {
+            throw new IllegalArgumentException("A rate limit needs a burst of at least 1.");
+        }
+        return limits;
+    }
+
+    //Retry-After is whole seconds - round up, so a client that waits that long does get a token
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private record Limits(double ratePerSecond, int burst, int maxConcurrent) {
+    }
+
+    private static final class ClassState {
+        final EndpointClass endpointClass;
+        volatile Limits limits;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Counter rateLimited;
+        final Counter concurrencyLimited;
+
+        ClassState(EndpointClass endpointClass, Limits limits, MeterRegistry registry) {
+            this.endpointClass = endpointClass;
+            this.limits = limits;
+            this.rateLimited = rejections(registry, endpointClass, Reason.RATE_LIMITED);
+            this.concurrencyLimited = rejections(registry, endpointClass, Reason.CONCURRENCY_LIMITED);
+            Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                    .tag("class", endpointClass.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+
+        AdmissionLimitsDTO toDTO() {
+            Limits current = limits;
+            return new AdmissionLimitsDTO(endpointClass.name(), current.ratePerSecond, current.burst,
+                    current.maxConcurrent, inFlight.get());
+        }
+
+        private static Counter rejections(MeterRegistry registry, EndpointClass endpointClass, Reason reason) {
+            return Counter.builder(REJECTED_COUNTER)
+                    .tag("class", endpointClass.name().toLowerCase(Locale.ROOT))
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+
+    //One client's tokens for one class, refilled lazily when a call comes in
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        Bucket(int burst) {
+            this.tokens = burst;
+        }
+
+        //0 if a token was taken, otherwise the nanoseconds until one is due
+        synchronized long take(double ratePerSecond, int burst, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
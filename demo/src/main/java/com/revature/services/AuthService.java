@@ -1,9 +1,13 @@
 package com.revature.services;
 
 import com.revature.DAOs.UserDAO;
+import com.revature.exceptions.ServiceUnavailableException;
 import com.revature.models.DTOs.LoginDTO;
 import com.revature.models.DTOs.OutgoingUserDTO;
 import com.revature.models.User;
+import com.revature.models.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,20 +17,31 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserDAO userDAO;
+    private final UserCache userCache;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
 
     @Autowired
-    public AuthService(UserDAO userDAO) {
+    public AuthService(UserDAO userDAO, UserCache userCache, PasswordHasher passwordHasher, TokenService tokenService) {
         this.userDAO = userDAO;
+        this.userCache = userCache;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
     }
 
     public OutgoingUserDTO login(LoginDTO loginDTO) {
-        // Fetch the user by username
-        Optional<User> optionalUser = userDAO.findByUsername(loginDTO.getUsername());
+        // Fetch the user by username (cached - see UserCache)
+        Optional<User> optionalUser = userCache.getByUsername(loginDTO.getUsername(), userDAO::findByUsername);
 
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
 
-            if (loginDTO.getPassword().equals(user.getPassword())) {
+            // Hash check runs on the bounded hashing pool - throws ServiceUnavailableException (503) when it's full
+            if (passwordHasher.matches(loginDTO.getPassword(), user.getPassword())) {
+                if (!passwordHasher.isHashed(user.getPassword())) {
+                    upgradeLegacyPassword(user, loginDTO.getPassword());
+                }
+
                 // Return an OutgoingUserDTO if credentials are valid
                 return new OutgoingUserDTO(user.getUserId(), user.getUsername(), user.getRole());
             }
@@ -35,4 +50,38 @@ public class AuthService {
         // Return null if credentials are invalid
         return null;
     }
-}
\ No newline at end of file
+
+    //Rows created before hashing still hold the plaintext - replace it with a hash now that we've seen it match
+    private void upgradeLegacyPassword(User user, String rawPassword) {
+        try {
+            String hash = passwordHasher.hash(rawPassword);
+            if (userDAO.replacePassword(user.getUserId(), user.getPassword(), hash) > 0) {
+                userCache.invalidate(user.getUserId(), user.getUsername());
+            }
+        } catch (ServiceUnavailableException e) {
+            // The login itself succeeded - the upgrade can wait for the next one
+        }
+    }
+
+    /**
+     * Who is making this request - from the signed token when auth.token.enabled is on, otherwise from the HttpSession.
+     *
+     * @return the logged-in user, or null if there is none (no/invalid/expired token, or no session)
+     */
+    public UserPrincipal getPrincipal(HttpServletRequest request) {
+        if (tokenService.isEnabled()) {
+            return tokenService.verify(tokenService.readToken(request));
+        }
+
+        // Don't create a session just to find out nobody is logged in
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Integer userId = (Integer) session.getAttribute("userId");
+        if (userId == null) {
+            return null;
+        }
+        return new UserPrincipal(userId, (String) session.getAttribute("username"), (String) session.getAttribute("role"));
+    }
+}
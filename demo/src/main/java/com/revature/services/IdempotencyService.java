@@ -0,0 +1,223 @@
+package com.revature.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.DAOs.IdempotencyRecordDAO;
+import com.revature.exceptions.IdempotencyKeyReusedException;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.IdempotencyRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for the endpoints clients retry - claim creation and resolve (see ReimbursementController).
+ *
+ * The first request with a key runs as usual, and its response (status, JSON body, Location) is kept. A retry with
+ * the same key gets that response back, with Idempotent-Replayed: true, instead of running again - it doesn't touch
+ * the reimbursement table at all. Keys are per user and per endpoint.
+ * - Responses are kept in a bounded in-memory cache (cache.max-size entries for cache.ttl), and in the
+ *   idempotency_key table for retention, so a retry still replays once the cache has dropped the key, after a
+ *   restart, or on another instance.
+ * - Concurrent duplicates run once: the first becomes the in-flight execution and the others on this instance wait
+ *   for its response. Across instances the table's primary key does the same job: the key's row is inserted before
+ *   the work, in the same transaction, so a second instance blocks on it and then replays the committed response.
+ * - A key reused for a different request is refused with IdempotencyKeyReusedException (422).
+ * - Only finished requests are kept. If the request threw (its transaction is rolled back, key row included) or
+ *   answered 5xx, the key is free again and a retry runs for real.
+ */
+@Component
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordDAO idempotencyRecordDAO;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final long waitTimeoutMillis;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordDAO idempotencyRecordDAO, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                              @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize,
+                              @Value("${idempotency.cache.ttl:10m}") Duration cacheTtl,
+                              @Value("${idempotency.retention:24h}") Duration retention,
+                              @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.idempotencyRecordDAO = idempotencyRecordDAO;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.completed = Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfterWrite(cacheTtl).build();
+        this.retention = retention;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+    }
+
+    //What a client may send as a key: not blank, at most MAX_KEY_LENGTH characters
+    public static boolean isValidKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * Run a request at most once per key.
+     *
+     * @param userId    who sent it - keys of different users never collide
+     * @param operation which endpoint, e.g. "create-claim"
+     * @param key       the Idempotency-Key header (check it with isValidKey first)
+     * @param request   what was asked for (the parameters that matter), to tell a retry from a reused key
+     * @param action    the endpoint's work - it runs inside a transaction that also holds the key's row
+     * @return the response, fresh or replayed, with a JSON body
+     * @throws IdempotencyKeyReusedException if the key was first used for a different request
+     * @throws ServiceUnavailableException if the same request is already running and doesn't finish in time
+     */
+    public ResponseEntity<String> execute(int userId, String operation, String key, String request,
+                                          Supplier<ResponseEntity<?>> action) {
+        String id = userId + ":" + operation + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        IdempotencyRecord record = completed.getIfPresent(id);
+        if (record != null) {
+            return replay(record, fingerprint);
+        }
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(await(running), fingerprint);
+        }
+        try {
+            //it may have finished just before we registered, or on another instance (or before a restart)
+            record = completed.getIfPresent(id);
+            if (record == null) {
+                record = idempotencyRecordDAO.findById(id).orElse(null);
+            }
+            if (record != null) {
+                completed.put(id, record);
+                mine.complete(record);
+                return replay(record, fingerprint);
+            }
+
+            try {
+                record = transactionTemplate.execute(status -> {
+                    IdempotencyRecord claimed = new IdempotencyRecord(id, fingerprint, Instant.now());
+                    entityManager.persist(claimed);
+                    entityManager.flush(); //take the key now - another instance with the same key waits here until we commit
+                    store(claimed, action.get());
+                    if (claimed.getStatus() >= 500) {
+                        status.setRollbackOnly(); //don't keep it, let the retry run
+                    }
+                    return claimed;
+                });
+            } catch (PersistenceException | DataIntegrityViolationException e) {
+                //another instance took the key first - by now its response is committed
+                IdempotencyRecord theirs = idempotencyRecordDAO.findById(id).orElseThrow(() -> e);
+                completed.put(id, theirs);
+                mine.complete(theirs);
+                return replay(theirs, fingerprint);
+            }
+
+            if (record.getStatus() < 500) {
+                completed.put(id, record);
+            }
+            mine.complete(record);
+            return toResponse(record, false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e); //the waiting duplicates get the same error
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    //Keys past retention are dropped from the table (the cache forgets them sooner, after cache.ttl)
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:1h}", initialDelayString = "${idempotency.purge-interval:1h}")
+    public int purgeExpired() {
+        return idempotencyRecordDAO.deleteCreatedBefore(Instant.now().minus(retention));
+    }
+
+    private void store(IdempotencyRecord record, ResponseEntity<?> response) {
+        record.setStatus(response.getStatusCode().value());
+        try {
+            record.setBody(response.getBody() == null ? null : objectMapper.writeValueAsString(response.getBody()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response", e);
+        }
+        URI location = response.getHeaders().getLocation();
+        record.setLocation(location == null ? null : location.toString());
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("A request with this Idempotency-Key is still running, try again shortly.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted waiting for a request with the same Idempotency-Key.");
+        }
+    }
+
+    private ResponseEntity<String> replay(IdempotencyRecord record, String fingerprint) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("This Idempotency-Key was already used for a different request.");
+        }
+        return toResponse(record, true);
+    }
+
+    private static ResponseEntity<String> toResponse(IdempotencyRecord record, boolean replayed) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(record.getStatus());
+        if (record.getLocation() != null) {
+            response.location(URI.create(record.getLocation()));
+        }
+        if (replayed) {
+            response.header(REPLAYED_HEADER, "true");
+        }
+        if (record.getBody() == null) {
+            return response.build();
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(record.getBody());
+    }
+
+    private static String fingerprint(String request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); //every JVM has SHA-256
+        }
+    }
+}
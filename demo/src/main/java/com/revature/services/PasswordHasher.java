@@ -0,0 +1,113 @@
+package com.revature.services;
+
+import com.revature.exceptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Salted, adaptive (BCrypt) password hashing, run on its own small bounded thread pool.
+ *
+ * A hash costs tens of milliseconds of CPU by design. Doing that on Tomcat's request threads would let a login storm
+ * take every thread and stall the whole API, so the work is handed to a pool sized to the CPUs with a short queue.
+ * When the queue is full the request is rejected immediately (ServiceUnavailableException -> 503) instead of piling up.
+ */
+@Component
+public class PasswordHasher {
+
+    //BCrypt hashes look like $2a$10$<53 chars> - anything else in the password column is a legacy plaintext row
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    @Autowired
+    public PasswordHasher(@Value("${passwords.bcrypt.cost:10}") int cost,
+                          @Value("${passwords.hash.threads:0}") int threads,
+                          @Value("${passwords.hash.queue-size:64}") int queueSize,
+                          @Value("${passwords.hash.timeout:5s}") Duration timeout) {
+        this(new BCryptPasswordEncoder(cost), threads, queueSize, timeout);
+    }
+
+    //threads <= 0 means one per CPU
+    public PasswordHasher(PasswordEncoder encoder, int threads, int queueSize, Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+
+        this.encoder = encoder;
+        this.timeoutMillis = timeout.toMillis();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a password against what's stored. Legacy plaintext values are compared directly (constant time) -
+     * the caller should then replace them with hash() - see AuthService.login.
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    public boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT.matcher(storedPassword).matches();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many logins in progress, try again shortly.", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Password check timed out, try again shortly.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Password check interrupted.", e);
+        } catch (ExecutionException e) {
+            //e.g. IllegalArgumentException for a password BCrypt won't accept
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
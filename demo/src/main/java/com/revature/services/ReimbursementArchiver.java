@@ -0,0 +1,86 @@
+package com.revature.services;
+
+import com.revature.DAOs.ArchivedReimbursementDAO;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves resolved (APPROVED/DENIED) reimbursements older than reimbursements.archive.min-age from the hot
+ * reimbursement table into reimbursement_archive, every reimbursements.archive.interval.
+ *
+ * Resolved claims pile up forever while the pending queue stays small; moving them out keeps the hot table and its
+ * indexes close to the working set, so pending/per-user queries cost the same however much history there is.
+ * Each batch (reimbursements.archive.batch-size rows) is one short transaction: INSERT ... SELECT into the archive,
+ * then DELETE from the hot table - a claim is always in exactly one of the two. Read paths only look at the archive
+ * when asked to (includeHistory) - see ReimbursementService. Archived claims also leave the search index.
+ */
+@Component
+public class ReimbursementArchiver {
+
+    private final ReimbursementDAO reimbursementDAO;
+    private final ArchivedReimbursementDAO archivedReimbursementDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final Duration minAge;
+    private final int batchSize;
+
+    @Autowired
+    public ReimbursementArchiver(ReimbursementDAO reimbursementDAO, ArchivedReimbursementDAO archivedReimbursementDAO,
+                                 PlatformTransactionManager transactionManager, ApplicationEventPublisher events,
+                                 @Value("${reimbursements.archive.min-age:30d}") Duration minAge,
+                                 @Value("${reimbursements.archive.batch-size:1000}") int batchSize) {
+        this.reimbursementDAO = reimbursementDAO;
+        this.archivedReimbursementDAO = archivedReimbursementDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.minAge = minAge;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${reimbursements.archive.interval:1h}",
+            initialDelayString = "${reimbursements.archive.interval:1h}")
+    public void archiveScheduled() {
+        archiveResolvedBefore(Instant.now().minus(minAge));
+    }
+
+    /**
+     * Archive every resolved claim resolved before the cutoff, batch by batch.
+     *
+     * @return how many claims were moved
+     */
+    public synchronized int archiveResolvedBefore(Instant cutoff) {
+        int total = 0;
+        List<Integer> moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (!moved.isEmpty()) {
+                events.publishEvent(ReimbursementsChangedDTO.rows(moved)); //gone from the hot table
+            }
+            total += moved.size();
+        } while (moved.size() == batchSize);
+        return total;
+    }
+
+    //returns the ids moved
+    private List<Integer> archiveBatch(Instant cutoff) {
+        List<Integer> ids = reimbursementDAO.findArchivableIds(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        archivedReimbursementDAO.copyFromHot(ids, Instant.now());
+        reimbursementDAO.deleteResolved(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,247 @@
+package com.revature.services;
+
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.UserPrincipal;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of reimbursement changes to the dashboards listening on /reimbursements/events (Server-Sent Events).
+ *
+ * ReimbursementService publishes a ReimbursementEventDTO for each change; it reaches this hub only after its
+ * transaction commits, so clients never see a change that was rolled back. Managers get every event, employees only
+ * events for their own claims.
+ *
+ * Publishing never waits on a client: each subscriber has a small bounded buffer, drained onto its connection by a
+ * few shared dispatcher threads. A client that falls behind far enough to fill its buffer has the buffer dropped and
+ * gets a single "resync" event instead, telling it to refetch its list - so a slow or stalled client costs a fixed
+ * amount of memory and can't hold anyone else up. An idle connection costs no thread at all.
+ *
+ * A send is a blocking servlet write, and a client whose connection has stopped reading (full TCP window) would
+ * block it until the container's write timeout. So each send runs on a writer thread, and the dispatcher only waits
+ * send-timeout for it: a send that takes longer is cancelled and its subscriber dropped, like one whose send failed.
+ * The dispatcher moves on to everyone else straight away. Only the stalled client's writer thread stays stuck,
+ * until the container gives up on that connection.
+ */
+@Component
+public class ReimbursementEventHub {
+
+    //queued like an event so it goes out in order on the dispatcher, but never sent as one
+    private static final ReimbursementEventDTO HEARTBEAT = new ReimbursementEventDTO("heartbeat", null);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Executor dispatcher;
+    private final ExecutorService writer;
+    private final long sendTimeoutMillis;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+
+    @Autowired
+    public ReimbursementEventHub(@Value("${reimbursements.events.buffer-size:256}") int bufferSize,
+                                 @Value("${reimbursements.events.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${reimbursements.events.timeout:30m}") Duration timeout,
+                                 @Value("${reimbursements.events.dispatcher-threads:2}") int dispatcherThreads,
+                                 @Value("${reimbursements.events.send-timeout:5s}") Duration sendTimeout) {
+        this(bufferSize, maxSubscribers, timeout, sendTimeout, newDispatcher(dispatcherThreads));
+    }
+
+    public ReimbursementEventHub(int bufferSize, int maxSubscribers, Duration timeout, Duration sendTimeout,
+                                 Executor dispatcher) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.dispatcher = dispatcher;
+        this.writer = newWriter();
+    }
+
+    //A new event stream for this user - ends after reimbursements.events.timeout, and EventSource reconnects by itself
+    public SseEmitter subscribe(UserPrincipal principal) {
+        return subscribe(principal, new SseEmitter(timeoutMillis));
+    }
+
+    public SseEmitter subscribe(UserPrincipal principal, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many event streams open, try again shortly.");
+        }
+        Subscriber subscriber = new Subscriber(emitter, principal.getUserId(), principal.isManager());
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    //fallbackExecution: changes made outside a transaction (e.g. a plain save) are sent straight away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ReimbursementEventDTO event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    //A comment line every so often keeps proxies from closing idle streams, and finds clients that have gone away
+    @Scheduled(fixedRateString = "${reimbursements.events.heartbeat:20s}",
+            initialDelayString = "${reimbursements.events.heartbeat:20s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        writer.shutdownNow();
+    }
+
+    private static Executor newDispatcher(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "reimbursement-events-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    //Grows with the sends in progress - normally one per dispatcher thread, plus one per stalled client until the
+    //container times its connection out (at most max-subscribers of those)
+    private static ExecutorService newWriter() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "reimbursement-events-writer-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final int userId;
+        private final boolean manager;
+        private final BlockingQueue<ReimbursementEventDTO> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int userId, boolean manager) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.manager = manager;
+        }
+
+        boolean wants(ReimbursementEventDTO event) {
+            return manager || event.getReimbursement() == null || event.getReimbursement().getUserId() == userId;
+        }
+
+        void offer(ReimbursementEventDTO event) {
+            if (!buffer.offer(event) && event != HEARTBEAT) {
+                //too far behind - whatever is buffered is now pointless, the client will refetch
+                buffer.clear();
+                overflowed.set(true);
+            }
+            scheduleDrain();
+        }
+
+        //At most one drain per subscriber is queued or running, so its events go out in order
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false); //shutting down
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed.getAndSet(false)) {
+                    send(SseEmitter.event().name(ReimbursementEventDTO.RESYNC).data(""));
+                }
+                ReimbursementEventDTO event;
+                while ((event = buffer.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    } else if (event.getReimbursement() == null) {
+                        send(SseEmitter.event().name(event.getType()).data(""));
+                    } else {
+                        send(SseEmitter.event()
+                                .name(event.getType())
+                                .id(Integer.toString(event.getReimbursement().getReimbid()))
+                                .data(event.getReimbursement(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                //client gone (or the stream already completed) - stop sending to it
+                subscribers.remove(this);
+                buffer.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            //an event may have arrived after the last poll but before draining was cleared
+            if (!buffer.isEmpty() || overflowed.get()) {
+                scheduleDrain();
+            }
+        }
+
+        //emitter.send, given at most send-timeout - a send that takes longer is cancelled and counts as failed
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            Future<?> write;
+            try {
+                write = writer.submit(() -> {
+                    emitter.send(event);
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                throw new IllegalStateException("Shutting down", e);
+            }
+            try {
+                write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                write.cancel(true);
+                throw new IOException("Client stopped reading - send blocked for over " + sendTimeoutMillis + "ms");
+            } catch (InterruptedException e) {
+                write.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.revature.services;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.ImportResultDTO;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.utils.CsvReader;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+//Bulk-loads reimbursements from CSV, e.g. historical claims for a new business unit
+@Service
+public class ReimbursementImportService {
+
+    private static final Set<String> VALID_STATUSES = Set.of("PENDING", "APPROVED", "DENIED");
+
+    //how many user ids we remember having checked before starting over (keeps memory flat for huge files)
+    private static final int MAX_KNOWN_USERS = 10_000;
+
+    private final ReimbursementService reimbursementService;
+    private final UserDAO userDAO;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int maxFieldLength;
+    private final int maxFields;
+
+    @Autowired
+    public ReimbursementImportService(ReimbursementService reimbursementService, UserDAO userDAO,
+                                      EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                      ApplicationEventPublisher events,
+                                      @Value("${reimbursements.import.batch-size:500}") int batchSize,
+                                      @Value("${reimbursements.import.max-field-length:1000}") int maxFieldLength,
+                                      @Value("${reimbursements.import.max-fields:32}") int maxFields) {
+        this.reimbursementService = reimbursementService;
+        this.userDAO = userDAO;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxFieldLength = maxFieldLength;
+        this.maxFields = maxFields;
+    }
+
+    /**
+     * Import reimbursements from CSV, reading the input one record at a time.
+     * The header row names the columns: userId, amount and description are required, status is optional
+     * (defaults to PENDING), anything else is ignored - so a file from /reimbursements/export can be loaded back.
+     * Valid rows are inserted in JDBC batches of batchSize, each batch in its own transaction.
+     * A bad line is reported and skipped, it never aborts the rest of the file - including one with a field longer
+     * than maxFieldLength or more than maxFields fields, which is skipped without being held in memory.
+     */
+    public ImportResultDTO importReimbursements(InputStream in) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+                maxFieldLength, maxFields);
+
+        Map<String, Integer> columns = readHeader(reader);
+        int userIdColumn = columns.get("userid");
+        int amountColumn = columns.get("amount");
+        int descriptionColumn = columns.get("description");
+        Integer statusColumn = columns.get("status");
+
+        Map<Integer, Boolean> knownUsers = new HashMap<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            List<String> record;
+            try {
+                record = reader.readRecord();
+            } catch (CsvReader.RecordTooLargeException e) {
+                //already read past - report it and go on with the next line
+                result.addError(reader.getRecordLine(), e.getMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                //a broken quote swallows the rest of the file, so this is where we stop
+                result.addError(reader.getRecordLine(), e.getMessage());
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; //blank line
+            }
+
+            int line = reader.getRecordLine();
+            try {
+                Row row = parseRow(line, record, userIdColumn, amountColumn, descriptionColumn, statusColumn);
+                if (!userExists(row.userId, knownUsers)) {
+                    throw new IllegalArgumentException("User with ID " + row.userId + " not found.");
+                }
+                batch.add(row);
+            } catch (IllegalArgumentException e) {
+                result.addError(line, e.getMessage());
+                continue;
+            }
+
+            if (batch.size() >= batchSize) {
+                insertBatch(batch, result);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            insertBatch(batch, result);
+        }
+        //listening dashboards refetch once, instead of getting an event per imported row
+        if (result.getImported() > 0) {
+            events.publishEvent(ReimbursementEventDTO.resync());
+        }
+        return result;
+    }
+
+    private Map<String, Integer> readHeader(CsvReader reader) throws IOException {
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty.");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("userid", "amount", "description")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain userId, amount and description columns.");
+            }
+        }
+        return columns;
+    }
+
+    private Row parseRow(int line, List<String> record, int userIdColumn, int amountColumn,
+                         int descriptionColumn, Integer statusColumn) {
+        int userId;
+        double amount;
+        try {
+            userId = Integer.parseInt(field(record, userIdColumn).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("userId must be a whole number.");
+        }
+        try {
+            amount = Double.parseDouble(field(record, amountColumn).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount must be a number.");
+        }
+
+        String status = (statusColumn == null) ? "" : field(record, statusColumn).trim().toUpperCase(Locale.ROOT);
+        if (status.isEmpty()) {
+            status = "PENDING";
+        } else if (!VALID_STATUSES.contains(status)) {
+            throw new IllegalArgumentException("status must be PENDING, APPROVED or DENIED.");
+        }
+
+        Row row = new Row(line, userId, amount, field(record, descriptionColumn), status);
+
+        //same rules as a single insert through the API
+        reimbursementService.validateNewReimbursement(new Reimbursement(0, row.amount, row.description, row.status, null));
+        return row;
+    }
+
+    private String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : "";
+    }
+
+    private boolean userExists(int userId, Map<Integer, Boolean> knownUsers) {
+        Boolean known = knownUsers.get(userId);
+        if (known == null) {
+            if (knownUsers.size() >= MAX_KNOWN_USERS) {
+                knownUsers.clear();
+            }
+            known = userDAO.existsActiveById(userId);
+            knownUsers.put(userId, known);
+        }
+        return known;
+    }
+
+    //Insert a batch in one transaction. If the batch fails (e.g. a user was deleted mid-import),
+    //fall back to one transaction per row so only the bad rows are reported
+    //The committed rows are handed to the search index batch by batch (see ReimbursementSearchIndex)
+    private void insertBatch(List<Row> batch, ImportResultDTO result) {
+        List<Integer> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> persist(batch));
+            result.addImported(batch.size());
+        } catch (RuntimeException batchFailure) {
+            inserted = new ArrayList<>();
+            for (Row row : batch) {
+                try {
+                    inserted.addAll(transactionTemplate.execute(status -> persist(List.of(row))));
+                    result.addImported(1);
+                } catch (RuntimeException e) {
+                    result.addError(row.line, "Could not be saved: " + e.getMessage());
+                }
+            }
+        }
+        if (!inserted.isEmpty()) {
+            events.publishEvent(ReimbursementsChangedDTO.rows(inserted));
+        }
+    }
+
+    //returns the new reimbids
+    private List<Integer> persist(List<Row> rows) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Reimbursement> saved = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            User user = entityManager.getReference(User.class, row.userId); //FK only, the user isn't loaded
+            Reimbursement reimbursement = new Reimbursement(0, row.amount, row.description, row.status, user);
+            entityManager.persist(reimbursement);
+            saved.add(reimbursement);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved.stream().map(Reimbursement::getReimbid).toList();
+    }
+
+    //One parsed, validated CSV line waiting to be inserted
+    private record Row(int line, int userId, double amount, String description, String status) {
+    }
+}
@@ -0,0 +1,535 @@
+package com.revature.services;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-process Lucene full-text index of reimbursements, behind GET /reimbursements/search.
+ *
+ * Descriptions are analyzed with Lucene's English analyzer (lower case, stop words dropped, "hotels" matches "hotel")
+ * and ranked with BM25; status, user and amount filters are exact/range clauses on the same query. Every field a
+ * result needs is stored in the index, so a search never goes to the database.
+ *
+ * The index follows the hot reimbursement table (archived claims aren't searchable, like the lists without
+ * includeHistory). It is rebuilt from the database at startup, in the background - searches get a 503 until that
+ * finishes - and then kept up to date from the ReimbursementsChangedDTO every write publishes after it commits (a bulk
+ * write publishes one for all its rows). The per-row ReimbursementEventDTOs are for the dashboards and are ignored here.
+ *
+ * Changes are applied in the background, off the request thread: the event only records the changed ids, and one
+ * indexer thread picks up everything recorded since its last pass, so a row changed many times in a burst is re-read
+ * once. The rows are re-read from the database in chunks and written to the index under one lock, so the last write
+ * always reflects the latest committed row, whatever order the events arrive in. Searches see the writes at the next
+ * refresh, every reimbursements.search.refresh-interval - the index is near-real-time, not read-your-writes. The
+ * app.search.index.backlog gauge counts the changes not written yet.
+ *
+ * reimbursements.search.path keeps the index files on disk (memory-mapped) instead of on the heap - use it for big
+ * tables. The files are only a working copy: they are recreated at every startup.
+ *
+ * If writing to the index fails (a full disk, files removed underneath it), searches get a 503 and the index is
+ * recovered in the background: every reimbursements.search.recovery-interval it is reopened from scratch and rebuilt
+ * from the database, until a rebuild succeeds.
+ *
+ * A query runs over the index segments in parallel on reimbursements.search.threads threads (default one per CPU);
+ * after a rebuild the index is merged down to one segment per thread, so each thread gets an equal share.
+ */
+@Component
+public class ReimbursementSearchIndex {
+
+    private static final String ID = "id";
+    private static final String REIMBID = "reimbid";
+    private static final String AMOUNT = "amount";
+    private static final String DESCRIPTION = "description";
+    private static final String STATUS = "status";
+    private static final String USER_ID = "userId";
+    private static final String USERNAME = "username";
+
+    public static final String BACKLOG_GAUGE = "app.search.index.backlog";
+
+    //rows re-read per query
+    private static final int REREAD_CHUNK = 1000;
+
+    private final ReimbursementDAO reimbursementDAO;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final String path;
+    private final ExecutorService searchThreads;
+    private final int threads;
+    private final Duration retryDelay;
+    private final Thread indexer;
+
+    //every change to the index happens holding this, so a re-read row and its write can't interleave with another's
+    private final Object writeLock = new Object();
+
+    //replaced together by open() when the index is recovered - writes hold writeLock, searches read searcherManager
+    private Directory directory;
+    private IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    private volatile boolean ready;
+    private volatile Exception failure;
+    //during a rebuild: ids written, and users removed, by changes since it started - the rebuild reads an older
+    //snapshot, so it must not write those rows again
+    private volatile Set<Integer> touchedDuringRebuild;
+    private volatile Set<Integer> usersRemovedDuringRebuild;
+
+    //changes waiting for the indexer - a set, so an id changed again before its pass is only re-read once
+    private final Object pendingLock = new Object();
+    private Set<Integer> pendingIds = new LinkedHashSet<>();
+    private Set<Integer> pendingUsers = new LinkedHashSet<>();
+    //how many of them the indexer has taken and is applying right now
+    private int applying;
+    private volatile boolean running = true;
+
+    @Autowired
+    public ReimbursementSearchIndex(ReimbursementDAO reimbursementDAO, PlatformTransactionManager transactionManager,
+                                    MeterRegistry registry,
+                                    @Value("${reimbursements.search.path:}") String path,
+                                    @Value("${reimbursements.search.threads:0}") int threads,
+                                    @Value("${reimbursements.search.retry-delay:5s}") Duration retryDelay) throws IOException {
+        this.reimbursementDAO = reimbursementDAO;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.path = path;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.searchThreads = this.threads > 1 ? newSearchThreads(this.threads) : null;
+        open();
+        this.retryDelay = retryDelay;
+        this.indexer = new Thread(this::indexChanges, "reimbursement-search-indexer");
+        this.indexer.setDaemon(true);
+        Gauge.builder(BACKLOG_GAUGE, this, ReimbursementSearchIndex::getBacklog).register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        indexer.start(); //changes recorded until now are applied as the rebuild runs
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                //already recorded in failure - searches report it
+            }
+        }, "reimbursement-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Drop the index and build it again from every (non-deleted) row in the reimbursement table.
+     * Changes committed while this runs are applied as usual and win over the rows read here.
+     *
+     * @return how many reimbursements were indexed
+     */
+    public synchronized long rebuild() {
+        ready = false;
+        try {
+            synchronized (writeLock) {
+                writer.deleteAll();
+                touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+                usersRemovedDuringRebuild = ConcurrentHashMap.newKeySet();
+            }
+            long indexed = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<OutgoingReimbursementDTO> rows = reimbursementDAO.streamAll()) {
+                    for (OutgoingReimbursementDTO row : (Iterable<OutgoingReimbursementDTO>) rows::iterator) {
+                        synchronized (writeLock) {
+                            if (!touchedDuringRebuild.contains(row.getReimbid())
+                                    && !usersRemovedDuringRebuild.contains(row.getUserId())) {
+                                writer.updateDocument(idTerm(row.getReimbid()), toDocument(row));
+                            }
+                        }
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            //few, big segments: top-k scoring skips more postings in a big segment, and each search thread gets one
+            writer.forceMerge(threads);
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+            failure = null;
+            ready = true;
+            return indexed;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            throw e instanceof RuntimeException runtime ? runtime : new UncheckedIOException((IOException) e);
+        } finally {
+            touchedDuringRebuild = null;
+            usersRemovedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * Bring a failed index back: drop the writer and its files, open a new, empty index and rebuild it from the
+     * database. Does nothing unless a write, refresh or rebuild has failed.
+     *
+     * @return whether a recovery ran (and succeeded - a failed one throws, and is tried again on the next run)
+     */
+    @Scheduled(fixedDelayString = "${reimbursements.search.recovery-interval:30s}",
+            initialDelayString = "${reimbursements.search.recovery-interval:30s}")
+    public synchronized boolean recover() {
+        if (failure == null) {
+            return false;
+        }
+        ready = false;
+        synchronized (writeLock) {
+            closeQuietly(searcherManager, writer, directory);
+            try {
+                open();
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException(e);
+            }
+        }
+        rebuild();
+        return true;
+    }
+
+    //After commit (or straight away when there's no transaction) - only records the change for the indexer thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ReimbursementsChangedDTO change) {
+        synchronized (pendingLock) {
+            if (change.getUserId() != null) {
+                pendingUsers.add(change.getUserId());
+            }
+            if (change.getReimbids() != null) {
+                pendingIds.addAll(change.getReimbids());
+            }
+            pendingLock.notifyAll();
+        }
+    }
+
+    //Make the index writes since the last refresh visible to searches - one new reader for every change in between
+    @Scheduled(fixedDelayString = "${reimbursements.search.refresh-interval:1s}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            failure = e;
+            ready = false;
+        }
+    }
+
+    //The indexer thread: take everything recorded since the last pass and apply it
+    private void indexChanges() {
+        while (running) {
+            Set<Integer> users;
+            Set<Integer> reimbids;
+            synchronized (pendingLock) {
+                while (pendingIds.isEmpty() && pendingUsers.isEmpty()) {
+                    try {
+                        pendingLock.wait();
+                    } catch (InterruptedException e) {
+                        return; //close()
+                    }
+                }
+                users = pendingUsers;
+                reimbids = pendingIds;
+                pendingUsers = new LinkedHashSet<>();
+                pendingIds = new LinkedHashSet<>();
+                applying = users.size() + reimbids.size();
+            }
+            try {
+                for (Integer userId : users) {
+                    removeUser(userId);
+                }
+                reindex(new ArrayList<>(reimbids));
+                synchronized (pendingLock) {
+                    applying = 0;
+                }
+            } catch (RuntimeException e) {
+                //the database couldn't be read - keep the changes (applying one twice is harmless) and try again later
+                synchronized (pendingLock) {
+                    pendingUsers.addAll(users);
+                    pendingIds.addAll(reimbids);
+                    applying = 0;
+                }
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    //Re-read these rows and write them to the index - rows that no longer exist (or whose user is deleted) are removed
+    private void reindex(List<Integer> reimbids) {
+        for (int from = 0; from < reimbids.size(); from += REREAD_CHUNK) {
+            List<Integer> chunk = reimbids.subList(from, Math.min(from + REREAD_CHUNK, reimbids.size()));
+            synchronized (writeLock) {
+                Map<Integer, OutgoingReimbursementDTO> current = new HashMap<>(chunk.size() * 2);
+                for (OutgoingReimbursementDTO row : reimbursementDAO.findRowsByIds(chunk)) {
+                    current.put(row.getReimbid(), row);
+                }
+                write(() -> {
+                    for (Integer reimbid : chunk) {
+                        OutgoingReimbursementDTO row = current.get(reimbid);
+                        if (row == null) {
+                            writer.deleteDocuments(idTerm(reimbid));
+                        } else {
+                            writer.updateDocument(idTerm(reimbid), toDocument(row));
+                        }
+                        touch(reimbid);
+                    }
+                });
+            }
+        }
+    }
+
+    private void removeUser(int userId) {
+        synchronized (writeLock) {
+            write(() -> writer.deleteDocuments(IntPoint.newExactQuery(USER_ID, userId)));
+            Set<Integer> removed = usersRemovedDuringRebuild;
+            if (removed != null) {
+                removed.add(userId);
+            }
+        }
+    }
+
+    /**
+     * Ranked full-text search. Matches on any word of the text (stemmed), best BM25 score first; the filters
+     * narrow the matches without affecting the score.
+     *
+     * @param text words to look for in descriptions
+     * @param status only this status (upper case), or null
+     * @param userId only this user's claims, or null
+     * @param minAmount lowest amount (inclusive), or null
+     * @param maxAmount highest amount (inclusive), or null
+     * @param offset how many of the best results to skip
+     * @param size page size
+     * @return the page, with next set to the offset of the following page (null when there is none)
+     */
+    public PageDTO<OutgoingReimbursementDTO> search(String text, String status, Integer userId, Double minAmount,
+                                                    Double maxAmount, int offset, int size) {
+        if (!ready) {
+            Exception cause = failure;
+            throw cause == null
+                    ? new ServiceUnavailableException("The search index is still being built, try again shortly.")
+                    : new ServiceUnavailableException("The search index is unavailable.", cause);
+        }
+        Query textQuery = textQuery(text);
+        if (textQuery == null) {
+            return new PageDTO<>(List.of(), null); //only stop words, nothing to match on
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(textQuery, BooleanClause.Occur.MUST);
+        if (status != null) {
+            query.add(new TermQuery(new Term(STATUS, status)), BooleanClause.Occur.FILTER);
+        }
+        if (userId != null) {
+            query.add(IntPoint.newExactQuery(USER_ID, userId), BooleanClause.Occur.FILTER);
+        }
+        if (minAmount != null || maxAmount != null) {
+            query.add(DoublePoint.newRangeQuery(AMOUNT,
+                    minAmount == null ? Double.NEGATIVE_INFINITY : minAmount,
+                    maxAmount == null ? Double.POSITIVE_INFINITY : maxAmount), BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                //one extra hit tells us whether there's another page
+                TopDocs top = searcher.search(query.build(), offset + size + 1);
+                List<OutgoingReimbursementDTO> items = new ArrayList<>(size);
+                for (int i = offset; i < Math.min(top.scoreDocs.length, offset + size); i++) {
+                    items.add(toRow(searcher, top.scoreDocs[i]));
+                }
+                Integer next = top.scoreDocs.length > offset + size ? offset + size : null;
+                return new PageDTO<>(items, next);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //Changed rows and users not written to the index yet - waiting for the indexer, or being applied by it
+    public int getBacklog() {
+        synchronized (pendingLock) {
+            return pendingIds.size() + pendingUsers.size() + applying;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        indexer.interrupt();
+        try {
+            indexer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            closeQuietly(searcherManager, writer, directory);
+        }
+        if (searchThreads != null) {
+            searchThreads.shutdownNow();
+        }
+    }
+
+    //A new, empty index - OpenMode.CREATE discards whatever files the path holds
+    private void open() throws IOException {
+        directory = path.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(path));
+        writer = new IndexWriter(directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        searcherManager = new SearcherManager(writer, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                return new IndexSearcher(reader, searchThreads);
+            }
+        });
+    }
+
+    //A failed writer may not close cleanly - it's being replaced either way
+    private static void closeQuietly(Closeable... closeables) {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException e) {
+                //nothing more to do with it
+            }
+        }
+    }
+
+    //SHOULD clauses, one per analyzed word - a claim matching more (and rarer) words scores higher
+    private Query textQuery(String text) {
+        BooleanQuery.Builder words = new BooleanQuery.Builder();
+        int count = 0;
+        try (TokenStream tokens = analyzer.tokenStream(DESCRIPTION, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && count < IndexSearcher.getMaxClauseCount()) {
+                words.add(new TermQuery(new Term(DESCRIPTION, term.toString())), BooleanClause.Occur.SHOULD);
+                count++;
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count == 0 ? null : words.build();
+    }
+
+    private static ExecutorService newSearchThreads(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "reimbursement-search-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Document toDocument(OutgoingReimbursementDTO row) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, Integer.toString(row.getReimbid()), Field.Store.NO));
+        doc.add(new StoredField(REIMBID, row.getReimbid()));
+        doc.add(new DoublePoint(AMOUNT, row.getAmount()));
+        doc.add(new StoredField(AMOUNT, row.getAmount()));
+        doc.add(new TextField(DESCRIPTION, row.getDescription(), Field.Store.YES));
+        doc.add(new StringField(STATUS, row.getStatus(), Field.Store.YES));
+        doc.add(new IntPoint(USER_ID, row.getUserId()));
+        doc.add(new StoredField(USER_ID, row.getUserId()));
+        doc.add(new StoredField(USERNAME, row.getUsername()));
+        return doc;
+    }
+
+    private static OutgoingReimbursementDTO toRow(IndexSearcher searcher, ScoreDoc hit) throws IOException {
+        Document doc = searcher.storedFields().document(hit.doc);
+        return new OutgoingReimbursementDTO(doc.getField(REIMBID).numericValue().intValue(),
+                doc.getField(AMOUNT).numericValue().doubleValue(), doc.get(DESCRIPTION), doc.get(STATUS),
+                doc.getField(USER_ID).numericValue().intValue(), doc.get(USERNAME));
+    }
+
+    private static Term idTerm(int reimbid) {
+        return new Term(ID, Integer.toString(reimbid));
+    }
+
+    private void touch(int reimbid) {
+        Set<Integer> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(reimbid);
+        }
+    }
+
+    //Index writes run after the database commit, so an IO error can't be reported to the caller (whose change is
+    //already saved) - searches report it instead, until recover() has rebuilt the index
+    private void write(IndexWrite write) {
+        try {
+            write.run();
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            ready = false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexWrite {
+        void run() throws IOException;
+    }
+}
@@ -1,41 +1,109 @@
 package com.revature.services;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.revature.DAOs.ArchivedReimbursementDAO;
 import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.ReimbursementIndexCatalog;
 import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.ClaimantTotalDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.DTOs.ReimbursementQueryDTO;
+import com.revature.models.DTOs.ReimbursementSummaryDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import com.revature.models.DTOs.ResolveResultDTO;
+import com.revature.models.DTOs.StatusTotalDTO;
 import com.revature.models.Reimbursement;
 import com.revature.models.User;
+import com.revature.utils.CsvUtils;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service //business logic
 public class ReimbursementService {
 
+    //page size used when the caller doesn't ask for one, and the most we'll ever return in one page
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    //how many top claimants the summary returns by default, and at most
+    public static final int DEFAULT_TOP_CLAIMANTS = 10;
+    public static final int MAX_TOP_CLAIMANTS = 50;
+
+    //most ids accepted by one bulk resolve call
+    public static final int MAX_BULK_RESOLVE = 10_000;
+
+    //how deep into the ranked results search pages can go
+    public static final int MAX_SEARCH_RESULTS = 10_000;
+
+    //most status/user combinations one composed query may ask for (each is a separate index scan)
+    public static final int MAX_QUERY_BRANCHES = 100;
+
+    //formats supported by exportReimbursements()
+    public static final String EXPORT_NDJSON = "ndjson";
+    public static final String EXPORT_CSV = "csv";
+
     private final ReimbursementDAO reimbursementDAO;
+    private final ArchivedReimbursementDAO archivedReimbursementDAO;
     private final UserDAO userDAO;
+    private final ObjectWriter exportRowWriter;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
+    private final ReimbursementSearchIndex searchIndex;
+    private final ReimbursementIndexCatalog indexCatalog;
+    private final int batchSize;
 
     @Autowired
-    public ReimbursementService(ReimbursementDAO reimbursementDAO, UserDAO userDAO){
+    public ReimbursementService(ReimbursementDAO reimbursementDAO, ArchivedReimbursementDAO archivedReimbursementDAO,
+                                UserDAO userDAO, ObjectMapper objectMapper, EntityManager entityManager,
+                                ApplicationEventPublisher events, ReimbursementSearchIndex searchIndex,
+                                ReimbursementIndexCatalog indexCatalog,
+                                @Value("${reimbursements.batch-size:100}") int batchSize){
         this.reimbursementDAO = reimbursementDAO;
+        this.archivedReimbursementDAO = archivedReimbursementDAO;
         this.userDAO = userDAO;
+        this.exportRowWriter = objectMapper.writerFor(OutgoingReimbursementDTO.class);
+        this.entityManager = entityManager;
+        this.events = events;
+        this.searchIndex = searchIndex;
+        this.indexCatalog = indexCatalog;
+        this.batchSize = batchSize;
     }
 
-    public Reimbursement insertReimbursement(Reimbursement reimbursement, int userId) {
+    public OutgoingReimbursementDTO insertReimbursement(Reimbursement reimbursement, int userId) {
 
-        //check to see if amount less than 0
-        if (reimbursement.getAmount() <= 0) {
-            throw new IllegalArgumentException("Reimbursement amount must be greater than zero.");
-        }
-        //check to see if description is valid
-        if (reimbursement.getDescription() == null || reimbursement.getDescription().isBlank()) {
-            throw new IllegalArgumentException("Reimbursement description cannot be null or blank.");
-        }
+        validateNewReimbursement(reimbursement);
 
         //fetch the user from the database
-        Optional<User> userOptional = userDAO.findById(userId);
+        Optional<User> userOptional = userDAO.findActiveById(userId);
         if (userOptional.isEmpty()) {
             throw new IllegalArgumentException("User with ID " + userId + " not found.");
         }
@@ -44,102 +112,504 @@ public class ReimbursementService {
         User user = userOptional.get();
         reimbursement.setUser(user);
 
-        // Set default status to "PENDING" (if not provided)
+        // Set default status to "PENDING" (if not provided) - statuses are always stored upper case,
+        // since the conditional updates in ReimbursementDAO compare against 'PENDING' exactly
         if (reimbursement.getStatus() == null || reimbursement.getStatus().isBlank()) {
             reimbursement.setStatus("PENDING");
+        } else {
+            reimbursement.setStatus(reimbursement.getStatus().toUpperCase());
         }
 
-        // Save the reimbursement
-        return reimbursementDAO.save(reimbursement);
+        // Save the reimbursement (we already have the user, so no need to read anything back)
+        OutgoingReimbursementDTO saved = toDTO(reimbursementDAO.save(reimbursement), user);
+        events.publishEvent(new ReimbursementEventDTO(ReimbursementEventDTO.CREATED, saved));
+        events.publishEvent(ReimbursementsChangedDTO.rows(List.of(saved.getReimbid())));
+        return saved;
     }
 
+    //The rules every new reimbursement has to pass (also used by the CSV import)
+    public void validateNewReimbursement(Reimbursement reimbursement) {
+        //check to see if amount less than 0
+        if (reimbursement.getAmount() <= 0) {
+            throw new IllegalArgumentException("Reimbursement amount must be greater than zero.");
+        }
+        //check to see if description is valid
+        if (reimbursement.getDescription() == null || reimbursement.getDescription().isBlank()) {
+            throw new IllegalArgumentException("Reimbursement description cannot be null or blank.");
+        }
+    }
+
+    //Reads below only cover the hot table (pending and recently resolved claims) unless includeHistory is set -
+    //then claims ReimbursementArchiver has moved to the archive are merged in, in the same reimbid order
+
     //get reimbursement by userId
-    public List<Reimbursement> getReimbursementsByUserID(int userId){
-        return reimbursementDAO.findByUser_UserId(userId);
+    public List<OutgoingReimbursementDTO> getReimbursementsByUserID(int userId){
+        return getReimbursementsByUserID(userId, false);
+    }
+
+    public List<OutgoingReimbursementDTO> getReimbursementsByUserID(int userId, boolean includeHistory){
+        List<OutgoingReimbursementDTO> rows = reimbursementDAO.findRowsByUserId(userId);
+        if (!includeHistory) {
+            return rows;
+        }
+        return merge(rows, archivedReimbursementDAO.findRowsByUserId(userId), Integer.MAX_VALUE);
     }
 
-    //get all reimbursement
-    public List<Reimbursement> getAllReimbursements(){
-        return reimbursementDAO.findAll();
+    //get one page of a user's reimbursements, starting after the given reimbid
+    public PageDTO<OutgoingReimbursementDTO> getReimbursementsByUserID(int userId, int after, Integer size){
+        return getReimbursementsByUserID(userId, after, size, false);
     }
 
-    public List<Reimbursement> getUserPendingReimbursements(int userId) {
-        return reimbursementDAO.findByUser_UserIdAndStatus(userId, "PENDING");
+    public PageDTO<OutgoingReimbursementDTO> getReimbursementsByUserID(int userId, int after, Integer size,
+                                                                       boolean includeHistory){
+        int pageSize = clampPageSize(size);
+        int from = Math.max(after, 0);
+        List<OutgoingReimbursementDTO> rows = reimbursementDAO.findPageByUserIdAfter(userId, from, Limit.of(pageSize + 1));
+        if (includeHistory) {
+            rows = merge(rows, archivedReimbursementDAO.findPageByUserIdAfter(userId, from, Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(rows, pageSize);
     }
 
-    public List<Reimbursement> getPendingReimbursements() {
-        return reimbursementDAO.findByStatus("PENDING");
+    //get one page of all reimbursements, starting after the given reimbid
+    public PageDTO<OutgoingReimbursementDTO> getAllReimbursements(int after, Integer size){
+        return getAllReimbursements(after, size, false);
     }
 
-    public Reimbursement resolveReimbursement(int reimbursementId, String status) {
-        if (!status.equalsIgnoreCase("APPROVED") && !status.equalsIgnoreCase("DENIED")) {
-            throw new IllegalArgumentException("Invalid status. Status must be 'APPROVED' or 'DENIED'.");
+    public PageDTO<OutgoingReimbursementDTO> getAllReimbursements(int after, Integer size, boolean includeHistory){
+        int pageSize = clampPageSize(size);
+        int from = Math.max(after, 0);
+        List<OutgoingReimbursementDTO> rows = reimbursementDAO.findPageAfter(from, Limit.of(pageSize + 1));
+        if (includeHistory) {
+            rows = merge(rows, archivedReimbursementDAO.findPageAfter(from, Limit.of(pageSize + 1)), pageSize + 1);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    //Merge two lists already sorted by reimbid (a claim is in exactly one of them), keeping at most limit rows
+    //Each side was fetched with the same cursor and limit, so the first limit rows of the merge are the right page
+    private static List<OutgoingReimbursementDTO> merge(List<OutgoingReimbursementDTO> hot,
+                                                        List<OutgoingReimbursementDTO> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
         }
+        List<OutgoingReimbursementDTO> merged = new ArrayList<>(Math.min(hot.size() + archived.size(), limit));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            if (a >= archived.size() || (h < hot.size() && hot.get(h).getReimbid() < archived.get(a).getReimbid())) {
+                merged.add(hot.get(h++));
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged;
+    }
 
-        Reimbursement reimbursement = reimbursementDAO.findById(reimbursementId)
-                .orElseThrow(() -> new IllegalArgumentException("Reimbursement not found."));
+    public List<OutgoingReimbursementDTO> getUserPendingReimbursements(int userId) {
+        return reimbursementDAO.findRowsByUserIdAndStatus(userId, "PENDING");
+    }
 
-        if (!"PENDING".equalsIgnoreCase(reimbursement.getStatus())) {
-            throw new IllegalArgumentException("Only pending reimbursements can be resolved.");
+    //get one page of pending reimbursements, starting after the given reimbid
+    public PageDTO<OutgoingReimbursementDTO> getPendingReimbursements(int after, Integer size) {
+        int pageSize = clampPageSize(size);
+        return toPage(reimbursementDAO.findPendingPageAfter(Math.max(after, 0), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    /**
+     * Full-text search of descriptions, best match first (see ReimbursementSearchIndex) - never a LIKE scan.
+     *
+     * @param text words to look for - "hotels" also finds "hotel"; claims matching more of the words rank higher
+     * @param status optional status filter
+     * @param userId optional user filter
+     * @param minAmount optional lowest amount (inclusive)
+     * @param maxAmount optional highest amount (inclusive)
+     * @param after how many results to skip - the "next" of the previous page (results are ranked, not in reimbid order)
+     * @param size page size, capped at MAX_PAGE_SIZE
+     */
+    public PageDTO<OutgoingReimbursementDTO> searchReimbursements(String text, String status, Integer userId,
+                                                                  Double minAmount, Double maxAmount,
+                                                                  int after, Integer size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text is required.");
+        }
+        if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+            throw new IllegalArgumentException("minAmount cannot be greater than maxAmount.");
         }
+        int offset = Math.max(after, 0);
+        if (offset >= MAX_SEARCH_RESULTS) {
+            return new PageDTO<>(List.of(), null);
+        }
+        int pageSize = Math.min(clampPageSize(size), MAX_SEARCH_RESULTS - offset);
+        String statusFilter = (status == null || status.isBlank()) ? null : status.toUpperCase();
 
-        reimbursement.setStatus(status.toUpperCase());
-        return reimbursementDAO.save(reimbursement);
+        PageDTO<OutgoingReimbursementDTO> page =
+                searchIndex.search(text, statusFilter, userId, minAmount, maxAmount, offset, pageSize);
+        if (page.getNext() != null && page.getNext() >= MAX_SEARCH_RESULTS) {
+            page.setNext(null);
+        }
+        return page;
     }
 
-    public Reimbursement getReimbursementById(int reimbId) {
-        return reimbursementDAO.findById(reimbId)
-                .orElseThrow(() -> new IllegalArgumentException("Reimbursement with ID " + reimbId + " not found."));
+    /**
+     * One page of reimbursements matching any mix of filters, in one SQL statement (see ReimbursementQueryDAO).
+     * Only combinations an index can serve are run - the rest are refused rather than left to scan the table.
+     *
+     * @param query statuses and user ids (each "any of"), amount and reimbid ranges, sort keys and cursor.
+     *              For the following page send the "next" back as after - and when sorting by amount,
+     *              the last row's amount as afterAmount
+     * @return a page of rows, at most MAX_PAGE_SIZE
+     * @throws IllegalArgumentException for bad values, or a combination with no index behind it
+     */
+    @Transactional(readOnly = true)
+    public PageDTO<OutgoingReimbursementDTO> queryReimbursements(ReimbursementQueryDTO query) {
+        if (query == null) {
+            throw new IllegalArgumentException("A query is required.");
+        }
+        if (query.getStatuses() != null) {
+            query.setStatuses(query.getStatuses().stream().map(String::toUpperCase).distinct().toList());
+        }
+        if (query.getUserIds() != null) {
+            query.setUserIds(query.getUserIds().stream().distinct().toList());
+        }
+        //each status/user pair is one index range scan (a UNION ALL branch)
+        int statuses = query.getStatuses() == null ? 1 : Math.max(query.getStatuses().size(), 1);
+        int users = query.getUserIds() == null ? 1 : Math.max(query.getUserIds().size(), 1);
+        if (statuses * users > MAX_QUERY_BRANCHES) {
+            throw new IllegalArgumentException("At most " + MAX_QUERY_BRANCHES + " status/user combinations per query.");
+        }
+        if (query.getMinAmount() != null && query.getMaxAmount() != null && query.getMinAmount() > query.getMaxAmount()) {
+            throw new IllegalArgumentException("minAmount cannot be greater than maxAmount.");
+        }
+        if (query.getMinId() != null && query.getMaxId() != null && query.getMinId() > query.getMaxId()) {
+            throw new IllegalArgumentException("minId cannot be greater than maxId.");
+        }
+
+        //sort keys: the first is the column the index has to deliver rows in; reimbid breaks ties (and is the cursor).
+        //Both go the same way, so the index is read in one direction
+        List<String> sort = (query.getSort() == null || query.getSort().isEmpty())
+                ? List.of(ReimbursementQueryDTO.SORT_REIMBID) : query.getSort();
+        boolean descending = sort.get(0) != null && sort.get(0).startsWith("-");
+        List<String> keys = new ArrayList<>();
+        for (String key : sort) {
+            if (key == null || key.startsWith("-") != descending) {
+                throw new IllegalArgumentException("All sort keys must go the same direction.");
+            }
+            keys.add(key.substring(descending ? 1 : 0).toLowerCase());
+        }
+        if (!keys.equals(List.of(ReimbursementQueryDTO.SORT_REIMBID))
+                && !keys.equals(List.of(ReimbursementQueryDTO.SORT_AMOUNT))
+                && !keys.equals(List.of(ReimbursementQueryDTO.SORT_AMOUNT, ReimbursementQueryDTO.SORT_REIMBID))) {
+            throw new IllegalArgumentException("Sort by amount or reimbid (reimbid last), not " + sort + ".");
+        }
+        String orderColumn = keys.get(0);
+        boolean byAmount = orderColumn.equals(ReimbursementQueryDTO.SORT_AMOUNT);
+        query.setSort(List.of((descending ? "-" : "") + orderColumn));
+
+        //a range on the other column would be checked row by row, not seeked
+        if (byAmount ? (query.getMinId() != null || query.getMaxId() != null)
+                : (query.getMinAmount() != null || query.getMaxAmount() != null)) {
+            String other = byAmount ? ReimbursementQueryDTO.SORT_REIMBID : ReimbursementQueryDTO.SORT_AMOUNT;
+            throw new IllegalArgumentException("A " + other + " range needs the results sorted by " + other + ".");
+        }
+        if (query.getAfter() != null && byAmount && query.getAfterAmount() == null) {
+            throw new IllegalArgumentException("Paging by amount needs afterAmount as well as after.");
+        }
+
+        Set<String> equalityColumns = new LinkedHashSet<>();
+        if (query.getStatuses() != null && !query.getStatuses().isEmpty()) {
+            equalityColumns.add("status");
+        }
+        if (query.getUserIds() != null && !query.getUserIds().isEmpty()) {
+            equalityColumns.add("user_id");
+        }
+        if (indexCatalog.findIndex(equalityColumns, orderColumn).isEmpty()) {
+            throw new IllegalArgumentException("No index covers filtering on " + equalityColumns + " sorted by " +
+                    orderColumn + ". Indexes: " + indexCatalog.indexes().values() + ".");
+        }
+
+        int pageSize = clampPageSize(query.getSize());
+        return toPage(reimbursementDAO.findRows(query, pageSize + 1), pageSize);
     }
 
-    public Reimbursement updateReimbursement(int reimbursementId, Reimbursement updatedReimbursement, int userId) {
-        // Fetch the existing reimbursement
-        Reimbursement existingReimbursement = reimbursementDAO.findById(reimbursementId)
-                .orElseThrow(() -> new IllegalArgumentException("Reimbursement not found."));
+    //Totals of the active claims only - see below
+    public ReimbursementSummaryDTO getSummary(Integer userId, String status, Integer top) {
+        return getSummary(userId, status, top, false);
+    }
 
-        // Ensure the reimbursement belongs to the logged-in user
-        if (existingReimbursement.getUser().getUserId() != userId) {
-            throw new IllegalStateException("Unauthorized to update this reimbursement.");
+    /**
+     * Dashboard totals: count and amount per status, plus the biggest claimants by total amount.
+     * Like the lists, they cover the hot table by default - pending and recently resolved claims - so APPROVED and
+     * DENIED totals drop as ReimbursementArchiver moves old claims out. includeHistory counts the archive too.
+     *
+     * @param userId if given, the per-status totals are for this user only
+     * @param status if given, claimants are ranked on reimbursements with this status only (e.g. PENDING)
+     * @param top how many claimants to return (capped at MAX_TOP_CLAIMANTS)
+     * @param includeHistory also count archived claims - every claim ever made, not just the active ones
+     */
+    @Transactional(readOnly = true)
+    public ReimbursementSummaryDTO getSummary(Integer userId, String status, Integer top, boolean includeHistory) {
+        int limit = (top == null) ? DEFAULT_TOP_CLAIMANTS : Math.min(Math.max(top, 1), MAX_TOP_CLAIMANTS);
+        boolean anyStatus = status == null || status.isBlank();
+
+        List<StatusTotalDTO> byStatus = (userId == null)
+                ? reimbursementDAO.sumByStatus()
+                : reimbursementDAO.sumByStatusForUser(userId);
+        List<ClaimantTotalDTO> topClaimants;
+
+        if (!includeHistory) {
+            topClaimants = anyStatus
+                    ? reimbursementDAO.findTopClaimants(Limit.of(limit))
+                    : reimbursementDAO.findTopClaimantsByStatus(status.toUpperCase(), Limit.of(limit));
+        } else {
+            byStatus = addTotals(byStatus, (userId == null)
+                    ? archivedReimbursementDAO.sumByStatus()
+                    : archivedReimbursementDAO.sumByStatusForUser(userId));
+            topClaimants = anyStatus
+                    ? archivedReimbursementDAO.findTopClaimantsWithHistory(Limit.of(limit))
+                    : archivedReimbursementDAO.findTopClaimantsByStatusWithHistory(status.toUpperCase(), Limit.of(limit));
+        }
+
+        return new ReimbursementSummaryDTO(byStatus, topClaimants);
+    }
+
+    //Hot and archived totals per status added together, still in status order
+    private static List<StatusTotalDTO> addTotals(List<StatusTotalDTO> hot, List<StatusTotalDTO> archived) {
+        Map<String, StatusTotalDTO> byStatus = new TreeMap<>();
+        for (StatusTotalDTO total : hot) {
+            byStatus.put(total.getStatus(), total);
+        }
+        for (StatusTotalDTO total : archived) {
+            byStatus.merge(total.getStatus(), total, (a, b) ->
+                    new StatusTotalDTO(a.getStatus(), a.getCount() + b.getCount(), a.getTotal() + b.getTotal()));
+        }
+        return new ArrayList<>(byStatus.values());
+    }
+
+    /**
+     * Stream every reimbursement matching the (optional) filters to the given output, one row at a time.
+     * Rows come off a forward-only DB cursor (ReimbursementDAO.EXPORT_FETCH_SIZE rows per fetch) and are written
+     * straight out, so memory use doesn't depend on how many rows there are.
+     * The transaction (and its pooled connection) lives exactly as long as this method does.
+     *
+     * @param format EXPORT_NDJSON or EXPORT_CSV
+     * @param status only export reimbursements with this status (null for all)
+     * @param userId only export this user's reimbursements (null for all)
+     */
+    @Transactional(readOnly = true)
+    public void exportReimbursements(String format, String status, Integer userId, OutputStream out) throws IOException {
+        String statusFilter = (status == null || status.isBlank()) ? null : status.toUpperCase();
+
+        try (Stream<OutgoingReimbursementDTO> rows = streamReimbursements(statusFilter, userId)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (EXPORT_CSV.equals(format)) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+            writer.flush();
+        }
+    }
+
+    private Stream<OutgoingReimbursementDTO> streamReimbursements(String status, Integer userId) {
+        if (userId == null) {
+            return status == null ? reimbursementDAO.streamAll() : reimbursementDAO.streamByStatus(status);
+        }
+        return status == null
+                ? reimbursementDAO.streamByUserId(userId)
+                : reimbursementDAO.streamByUserIdAndStatus(userId, status);
+    }
+
+    private void writeNdjson(Iterator<OutgoingReimbursementDTO> rows, Writer writer) throws IOException {
+        JsonGenerator generator = exportRowWriter.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); //we write our own newline between rows
+        while (rows.hasNext()) {
+            exportRowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<OutgoingReimbursementDTO> rows, Writer writer) throws IOException {
+        writer.write("reimbid,amount,description,status,userId,username\r\n");
+        while (rows.hasNext()) {
+            OutgoingReimbursementDTO row = rows.next();
+            writer.write(Integer.toString(row.getReimbid()));
+            writer.write(',');
+            writer.write(Double.toString(row.getAmount()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getDescription()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getStatus()));
+            writer.write(',');
+            writer.write(Integer.toString(row.getUserId()));
+            writer.write(',');
+            writer.write(CsvUtils.escape(row.getUsername()));
+            writer.write("\r\n");
         }
+    }
 
-        // Ensure the reimbursement is still pending
-        if (!"PENDING".equalsIgnoreCase(existingReimbursement.getStatus())) {
-            throw new IllegalStateException("Only pending reimbursements can be updated.");
+    private int clampPageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
         }
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
 
-        // Update fields
-        if (updatedReimbursement.getDescription() != null) {
-            existingReimbursement.setDescription(updatedReimbursement.getDescription());
+    //The DAO is always asked for one row more than the page size
+    //If that extra row came back there is another page, and it starts after the last row we return
+    private PageDTO<OutgoingReimbursementDTO> toPage(List<OutgoingReimbursementDTO> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new PageDTO<>(rows, null);
         }
-        if (updatedReimbursement.getAmount() > 0) {
-            existingReimbursement.setAmount(updatedReimbursement.getAmount());
+        List<OutgoingReimbursementDTO> items = rows.subList(0, pageSize);
+        return new PageDTO<>(items, items.get(pageSize - 1).getReimbid());
+    }
+
+    /**
+     * Resolve one reimbursement. The "is it still PENDING?" check and the status change are a single
+     * conditional UPDATE, so if two managers resolve the same claim at once exactly one of them wins.
+     * The same statement returns the resolved row, so a successful resolve is one round trip.
+     */
+    @Transactional
+    public OutgoingReimbursementDTO resolveReimbursement(int reimbursementId, String status) {
+        validateResolveStatus(status);
+
+        Optional<OutgoingReimbursementDTO> resolved =
+                reimbursementDAO.resolveIfPending(reimbursementId, status.toUpperCase(), Instant.now());
+        if (resolved.isEmpty()) {
+            //nothing changed - only now do we spend a query finding out why
+            if (reimbursementDAO.findRowById(reimbursementId).isEmpty()) {
+                throw new IllegalArgumentException("Reimbursement not found.");
+            }
+            throw new IllegalArgumentException("Only pending reimbursements can be resolved.");
         }
 
-        // Save the updated reimbursement
-        return reimbursementDAO.save(existingReimbursement);
+        OutgoingReimbursementDTO row = resolved.get();
+        events.publishEvent(new ReimbursementEventDTO(ReimbursementEventDTO.RESOLVED, row));
+        events.publishEvent(ReimbursementsChangedDTO.rows(List.of(reimbursementId)));
+        return row;
     }
 
-    public Reimbursement updateReimbursementAsManager(int reimbursementId, Reimbursement updatedReimbursement) {
-        // Fetch the existing reimbursement
-        Reimbursement existingReimbursement = reimbursementDAO.findById(reimbursementId)
-                .orElseThrow(() -> new IllegalArgumentException("Reimbursement not found."));
+    //Resolve many reimbursements in one transaction, in chunks of the configured batch size
+    @Transactional
+    public List<ResolveResultDTO> resolveReimbursements(List<Integer> ids, String status) {
+        return resolveReimbursements(ids, status, batchSize);
+    }
 
-        // Ensure the reimbursement is still pending
-        if (!"PENDING".equalsIgnoreCase(existingReimbursement.getStatus())) {
-            throw new IllegalStateException("Only pending reimbursements can be updated.");
+    /**
+     * Resolve many reimbursements in one transaction.
+     * Ids are handled in chunks of batchSize: each chunk is one SELECT ... FOR UPDATE, then its UPDATEs go to the
+     * DB as a single JDBC batch. So N ids cost about 2 * N / batchSize round trips instead of 2 * N.
+     *
+     * @return one result per distinct id, in the order given: RESOLVED, NOT_PENDING or NOT_FOUND
+     */
+    @Transactional
+    public List<ResolveResultDTO> resolveReimbursements(List<Integer> ids, String status, int batchSize) {
+        validateResolveStatus(status);
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one reimbursement id is required.");
+        }
+        if (ids.size() > MAX_BULK_RESOLVE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_RESOLVE + " reimbursements can be resolved at once.");
         }
 
-        // Update fields
-        if (updatedReimbursement.getDescription() != null) {
-            existingReimbursement.setDescription(updatedReimbursement.getDescription());
+        String newStatus = status.toUpperCase();
+        int chunkSize = Math.max(batchSize, 1);
+        entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+
+        //lock in id order (see ReimbursementDAO.findAllForUpdate)
+        List<Integer> sortedIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        sortedIds.sort(null);
+
+        Map<Integer, String> outcomes = new HashMap<>(sortedIds.size() * 2);
+        for (int from = 0; from < sortedIds.size(); from += chunkSize) {
+            List<Integer> chunk = sortedIds.subList(from, Math.min(from + chunkSize, sortedIds.size()));
+
+            for (Reimbursement reimbursement : reimbursementDAO.findAllForUpdate(chunk)) {
+                if ("PENDING".equalsIgnoreCase(reimbursement.getStatus())) {
+                    reimbursement.setStatus(newStatus);
+                    outcomes.put(reimbursement.getReimbid(), ResolveResultDTO.RESOLVED);
+                } else {
+                    outcomes.put(reimbursement.getReimbid(), ResolveResultDTO.NOT_PENDING);
+                }
+            }
+
+            //send this chunk's UPDATEs as one batch, then drop the entities so memory stays flat
+            entityManager.flush();
+            entityManager.clear();
         }
-        if (updatedReimbursement.getAmount() > 0) {
-            existingReimbursement.setAmount(updatedReimbursement.getAmount());
+
+        //One "refetch" to listening dashboards rather than up to MAX_BULK_RESOLVE events (and the queries to build them)
+        if (outcomes.containsValue(ResolveResultDTO.RESOLVED)) {
+            events.publishEvent(ReimbursementEventDTO.resync());
+            List<Integer> resolved = new ArrayList<>();
+            outcomes.forEach((id, outcome) -> {
+                if (ResolveResultDTO.RESOLVED.equals(outcome)) {
+                    resolved.add(id);
+                }
+            });
+            events.publishEvent(ReimbursementsChangedDTO.rows(resolved));
         }
 
-        // Save the updated reimbursement
-        return reimbursementDAO.save(existingReimbursement);
+        List<ResolveResultDTO> results = new ArrayList<>(outcomes.size());
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            results.add(new ResolveResultDTO(id, outcomes.getOrDefault(id, ResolveResultDTO.NOT_FOUND)));
+        }
+        return results;
     }
 
+    private void validateResolveStatus(String status) {
+        if (status == null || (!status.equalsIgnoreCase("APPROVED") && !status.equalsIgnoreCase("DENIED"))) {
+            throw new IllegalArgumentException("Invalid status. Status must be 'APPROVED' or 'DENIED'.");
+        }
+    }
 
+    public Reimbursement getReimbursementById(int reimbId) {
+        return reimbursementDAO.findById(reimbId)
+                .orElseThrow(() -> new IllegalArgumentException("Reimbursement with ID " + reimbId + " not found."));
+    }
+
+    //Employee edit of their own reimbursement - one conditional UPDATE (must be theirs and still PENDING),
+    //which also returns the edited row
+    @Transactional
+    public OutgoingReimbursementDTO updateReimbursement(int reimbursementId, Reimbursement updatedReimbursement, int userId) {
+        OutgoingReimbursementDTO row = reimbursementDAO.updateOwnIfPending(reimbursementId, userId,
+                        updatedReimbursement.getDescription(), updatedReimbursement.getAmount())
+                .orElseThrow(() -> notUpdated(reimbursementId, userId));
+        events.publishEvent(new ReimbursementEventDTO(ReimbursementEventDTO.UPDATED, row));
+        events.publishEvent(ReimbursementsChangedDTO.rows(List.of(reimbursementId)));
+        return row;
+    }
+
+    //Manager edit of any reimbursement - one conditional UPDATE (must still be PENDING), which also returns the row
+    @Transactional
+    public OutgoingReimbursementDTO updateReimbursementAsManager(int reimbursementId, Reimbursement updatedReimbursement) {
+        OutgoingReimbursementDTO row = reimbursementDAO.updateIfPending(reimbursementId,
+                        updatedReimbursement.getDescription(), updatedReimbursement.getAmount())
+                .orElseThrow(() -> notUpdated(reimbursementId, null));
+        events.publishEvent(new ReimbursementEventDTO(ReimbursementEventDTO.UPDATED, row));
+        events.publishEvent(ReimbursementsChangedDTO.rows(List.of(reimbursementId)));
+        return row;
+    }
+
+    //An edit changed nothing - look up why (only on this failure path)
+    private RuntimeException notUpdated(int reimbursementId, Integer userId) {
+        Optional<OutgoingReimbursementDTO> row = reimbursementDAO.findRowById(reimbursementId);
+        if (row.isEmpty()) {
+            return new IllegalArgumentException("Reimbursement not found.");
+        }
+        // Ensure the reimbursement belongs to the logged-in user
+        if (userId != null && row.get().getUserId() != userId) {
+            return new IllegalStateException("Unauthorized to update this reimbursement.");
+        }
+        return new IllegalStateException("Only pending reimbursements can be updated.");
+    }
+
+    //Build the response view of a reimbursement we already hold, along with its (loaded) owner
+    private OutgoingReimbursementDTO toDTO(Reimbursement reimbursement, User user) {
+        return new OutgoingReimbursementDTO(reimbursement.getReimbid(), reimbursement.getAmount(),
+                reimbursement.getDescription(), reimbursement.getStatus(), user.getUserId(), user.getUsername());
+    }
 }
@@ -0,0 +1,373 @@
+package com.revature.services;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.ClaimTicketDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accept-then-persist for employee claims (POST /reimbursements/user/self) - off unless
+ * reimbursements.write-behind.enabled is set.
+ *
+ * A validated claim goes into a bounded in-memory queue and the request gets a ticket straight away (202), without
+ * touching the database. One writer thread takes claims off the queue and inserts them in groups: a group is
+ * written when it reaches batch-size claims or flush-interval after its first claim, whichever comes first, as one
+ * JDBC batch in one transaction. So a month-end burst costs one connection doing a few big inserts instead of a
+ * connection per request, and the pool doesn't have to grow for it.
+ * - Backpressure: when capacity claims are already waiting, submit() fails fast with ServiceUnavailableException
+ *   (503 + Retry-After) rather than queueing without bound.
+ * - Tickets (QUEUED, then SAVED with the reimbid or FAILED with the reason) can be looked up for ticket-ttl after
+ *   they're settled.
+ * - Submitted inside a transaction (an Idempotency-Key request, see IdempotencyService), the claim takes its place in
+ *   the queue straight away but is only handed to the writer once that transaction commits - so a claim is never
+ *   saved for a key whose response was rolled back. On rollback the place and the ticket are dropped.
+ * - On shutdown it stops taking claims, and the writer saves everything still queued before the DataSource closes.
+ *   Its lifecycle phase is below the web server's, so in-flight requests finish submitting first.
+ *
+ * Claims only live in memory until written: a crash (not a clean shutdown) loses whatever was queued.
+ */
+@Component
+public class ReimbursementWriteBehindQueue implements SmartLifecycle {
+
+    private final ReimbursementService reimbursementService;
+    private final UserDAO userDAO;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final BlockingQueue<Claim> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long ticketTtlNanos;
+    private final long drainTimeoutMillis;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Object submitLock = new Object();
+    private volatile int reserved; //places taken by claims waiting for their transaction to commit, under submitLock
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public ReimbursementWriteBehindQueue(ReimbursementService reimbursementService, UserDAO userDAO,
+                                         EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                         ApplicationEventPublisher events,
+                                         @Value("${reimbursements.write-behind.enabled:false}") boolean enabled,
+                                         @Value("${reimbursements.write-behind.capacity:10000}") int capacity,
+                                         @Value("${reimbursements.write-behind.batch-size:500}") int batchSize,
+                                         @Value("${reimbursements.write-behind.flush-interval:100ms}") Duration flushInterval,
+                                         @Value("${reimbursements.write-behind.ticket-ttl:10m}") Duration ticketTtl,
+                                         @Value("${reimbursements.write-behind.drain-timeout:30s}") Duration drainTimeout) {
+        this.reimbursementService = reimbursementService;
+        this.userDAO = userDAO;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.enabled = enabled;
+        this.capacity = Math.max(capacity, 1);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.ticketTtlNanos = ticketTtl.toNanos();
+        this.drainTimeoutMillis = drainTimeout.toMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validate a claim and queue it for the writer - once the current transaction commits, if there is one.
+     *
+     * @return the ticket to look the claim up by
+     * @throws IllegalArgumentException if the claim is invalid (same rules as ReimbursementService.insertReimbursement)
+     * @throws ServiceUnavailableException if the queue is full or the app is shutting down
+     */
+    public ClaimTicketDTO submit(Reimbursement reimbursement, int userId, String username) {
+        reimbursementService.validateNewReimbursement(reimbursement);
+        String status = (reimbursement.getStatus() == null || reimbursement.getStatus().isBlank())
+                ? "PENDING" : reimbursement.getStatus().toUpperCase();
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId);
+        Claim claim = new Claim(ticket, userId, username, reimbursement.getAmount(), reimbursement.getDescription(),
+                status);
+
+        //under the lock stop() takes, so nothing can be queued after the writer has been told to finish
+        synchronized (submitLock) {
+            if (!accepting) {
+                throw new ServiceUnavailableException("Shutting down, try again shortly.");
+            }
+            //only the writer takes claims out, so a place counted here is still free when the claim is offered
+            if (queue.size() + reserved >= capacity) {
+                throw new ServiceUnavailableException("Too many claims waiting to be saved, try again shortly.");
+            }
+            tickets.put(ticket.id, ticket);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                reserved++;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        release(claim, status == STATUS_COMMITTED);
+                    }
+                });
+            } else {
+                queue.offer(claim);
+            }
+        }
+        return ticket.toDTO();
+    }
+
+    //The submitting transaction is over: queue the claim if it committed, forget it if not
+    private void release(Claim claim, boolean committed) {
+        synchronized (submitLock) {
+            reserved--;
+            if (committed) {
+                queue.offer(claim);
+            } else {
+                tickets.remove(claim.ticket.id);
+            }
+        }
+    }
+
+    //empty once the ticket has been settled for longer than ticket-ttl (or was never issued)
+    public Optional<ClaimTicketDTO> getTicket(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        return ticket == null ? Optional.empty() : Optional.of(ticket.toDTO());
+    }
+
+    //claims waiting for the writer
+    public int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        accepting = true;
+        running = true;
+        writer = new Thread(this::drain, "reimbursement-writer");
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        synchronized (submitLock) {
+            accepting = false;
+        }
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(drainTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    //after the web server (SmartLifecycle.DEFAULT_PHASE - 2048) on stop, before it on start
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    //The writer: keeps going until stop() and then until the queue is empty and no claim is waiting for a commit
+    private void drain() {
+        List<Claim> batch = new ArrayList<>(batchSize);
+        long lastPrune = System.nanoTime();
+        while (running || !queue.isEmpty() || reserved > 0) {
+            try {
+                if (System.nanoTime() - lastPrune > TimeUnit.SECONDS.toNanos(1)) {
+                    pruneTickets();
+                    lastPrune = System.nanoTime();
+                }
+                Claim first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                //fill up to batchSize, waiting at most flushInterval from the first claim
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Claim next = (remaining > 0 && running) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                //keep draining - stop() decides when we're done
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (RuntimeException e) {
+                //write() settles every ticket itself - this is only a safety net so the writer never dies
+                for (Claim claim : batch) {
+                    claim.ticket.fail("Could not be saved: " + e.getMessage());
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    //Insert a batch in one transaction. If that fails, fall back to one transaction per claim
+    //so only the bad ones fail (as ReimbursementImportService does)
+    private void write(List<Claim> batch) {
+        List<Claim> saved;
+        try {
+            saved = transactionTemplate.execute(status -> persist(batch));
+        } catch (RuntimeException batchFailure) {
+            saved = new ArrayList<>();
+            for (Claim claim : batch) {
+                try {
+                    saved.addAll(transactionTemplate.execute(status -> persist(List.of(claim))));
+                } catch (RuntimeException e) {
+                    claim.ticket.fail("Could not be saved: " + e.getMessage());
+                }
+            }
+        }
+        //only now, after the commit: tickets say SAVED and dashboards hear about each new claim,
+        //while the search index gets the whole batch as one change (one re-read, one refresh)
+        List<Integer> reimbids = new ArrayList<>(saved.size());
+        for (Claim claim : saved) {
+            claim.ticket.save(claim.reimbid);
+            reimbids.add(claim.reimbid);
+            events.publishEvent(new ReimbursementEventDTO(ReimbursementEventDTO.CREATED,
+                    new OutgoingReimbursementDTO(claim.reimbid, claim.amount, claim.description, claim.status,
+                            claim.userId, claim.username)));
+        }
+        if (!reimbids.isEmpty()) {
+            events.publishEvent(ReimbursementsChangedDTO.rows(reimbids));
+        }
+    }
+
+    //Returns the claims that were inserted (with their reimbid set) - claims of users deleted since are failed
+    private List<Claim> persist(List<Claim> claims) {
+        Set<Integer> userIds = new HashSet<>();
+        for (Claim claim : claims) {
+            userIds.add(claim.userId);
+        }
+        Set<Integer> active = new HashSet<>(userDAO.findActiveIds(userIds));
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Claim> inserted = new ArrayList<>(claims.size());
+        List<Reimbursement> rows = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            if (!active.contains(claim.userId)) {
+                claim.ticket.fail("User with ID " + claim.userId + " not found.");
+                continue;
+            }
+            User user = entityManager.getReference(User.class, claim.userId); //FK only, the user isn't loaded
+            Reimbursement row = new Reimbursement(0, claim.amount, claim.description, claim.status, user);
+            entityManager.persist(row);
+            inserted.add(claim);
+            rows.add(row);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        for (int i = 0; i < inserted.size(); i++) {
+            inserted.get(i).reimbid = rows.get(i).getReimbid();
+        }
+        return inserted;
+    }
+
+    private void pruneTickets() {
+        long now = System.nanoTime();
+        tickets.values().removeIf(ticket -> ticket.settledAt != 0 && now - ticket.settledAt > ticketTtlNanos);
+    }
+
+    //One queued claim; reimbid is set by persist()
+    private static final class Claim {
+        final Ticket ticket;
+        final int userId;
+        final String username;
+        final double amount;
+        final String description;
+        final String status;
+        int reimbid;
+
+        Claim(Ticket ticket, int userId, String username, double amount, String description, String status) {
+            this.ticket = ticket;
+            this.userId = userId;
+            this.username = username;
+            this.amount = amount;
+            this.description = description;
+            this.status = status;
+        }
+    }
+
+    private static final class Ticket {
+        final String id;
+        final int userId;
+        volatile String status = ClaimTicketDTO.QUEUED;
+        volatile Integer reimbid;
+        volatile String error;
+        volatile long settledAt; //System.nanoTime(), 0 while queued
+
+        Ticket(String id, int userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        void save(int reimbid) {
+            this.reimbid = reimbid;
+            settle(ClaimTicketDTO.SAVED);
+        }
+
+        void fail(String error) {
+            this.error = error;
+            settle(ClaimTicketDTO.FAILED);
+        }
+
+        private void settle(String status) {
+            settledAt = Math.max(System.nanoTime(), 1);
+            this.status = status;
+        }
+
+        ClaimTicketDTO toDTO() {
+            return new ClaimTicketDTO(id, status, userId, reimbid, error);
+        }
+    }
+}
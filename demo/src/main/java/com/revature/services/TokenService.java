@@ -0,0 +1,216 @@
+package com.revature.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.models.UserPrincipal;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stateless auth tokens (opt-in with auth.token.enabled=true) - lets any app node authenticate a request without
+ * a shared or sticky HttpSession.
+ *
+ * A token is "kid.payload.signature": payload is base64url JSON (user id, username, role, expiry) and signature is
+ * base64url HMAC-SHA256 over "kid.payload" with the key named kid. Tokens are signed with auth.token.active-key,
+ * and accepted with any key listed in auth.token.keys - to rotate, add the new key everywhere, switch active-key,
+ * then drop the old key once its tokens have expired (auth.token.ttl).
+ *
+ * Tokens can't be revoked before they expire: a role change or deletion takes effect at the user's next login
+ * (same as with sessions). Keep the TTL short.
+ */
+@Service
+public class TokenService {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+    private final Map<String, Mac> keys;
+    private final String activeKey;
+    private final Duration ttl;
+    private final String cookieName;
+    private final boolean secureCookie;
+    private final Clock clock;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TokenService(@Value("${auth.token.enabled:false}") boolean enabled,
+                        @Value("${auth.token.keys:}") String keys,
+                        @Value("${auth.token.active-key:}") String activeKey,
+                        @Value("${auth.token.ttl:8h}") Duration ttl,
+                        @Value("${auth.token.cookie-name:AUTH_TOKEN}") String cookieName,
+                        @Value("${auth.token.secure-cookie:false}") boolean secureCookie,
+                        ObjectMapper objectMapper) {
+        this(enabled, parseKeys(keys), activeKey, ttl, cookieName, secureCookie, Clock.systemUTC(), objectMapper);
+    }
+
+    //keys: key id -> secret
+    public TokenService(boolean enabled, Map<String, byte[]> keys, String activeKey, Duration ttl,
+                        String cookieName, boolean secureCookie, Clock clock, ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.activeKey = activeKey;
+        this.ttl = ttl;
+        this.cookieName = cookieName;
+        this.secureCookie = secureCookie;
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.keys = new LinkedHashMap<>();
+
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, byte[]> key : keys.entrySet()) {
+            if (key.getValue().length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("auth.token key '" + key.getKey() + "' must be at least " + MIN_KEY_BYTES + " bytes.");
+            }
+            this.keys.put(key.getKey(), newMac(key.getValue()));
+        }
+        if (!this.keys.containsKey(activeKey)) {
+            throw new IllegalStateException("auth.token.active-key must name one of auth.token.keys.");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String issue(UserPrincipal principal) {
+        long expires = clock.instant().plus(ttl).getEpochSecond();
+        Claims claims = new Claims(principal.getUserId(), principal.getUsername(), principal.getRole(), expires);
+
+        String payload;
+        try {
+            payload = B64.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        String signed = activeKey + "." + payload;
+        return signed + "." + B64.encodeToString(sign(keys.get(activeKey), signed));
+    }
+
+    //The principal in a valid, unexpired token, or null for anything else (missing, malformed, forged, unknown key, expired)
+    public UserPrincipal verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int sigStart = token.lastIndexOf('.');
+        int kidEnd = token.indexOf('.');
+        if (kidEnd <= 0 || sigStart <= kidEnd) {
+            return null;
+        }
+
+        Mac key = keys.get(token.substring(0, kidEnd));
+        if (key == null) {
+            return null;
+        }
+
+        try {
+            byte[] expected = sign(key, token.substring(0, sigStart));
+            byte[] actual = B64_DECODER.decode(token.substring(sigStart + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            Claims claims = objectMapper.readValue(B64_DECODER.decode(token.substring(kidEnd + 1, sigStart)), Claims.class);
+            if (claims.exp() <= clock.instant().getEpochSecond()) {
+                return null;
+            }
+            return new UserPrincipal(claims.uid(), claims.name(), claims.role());
+        } catch (IllegalArgumentException | IOException e) {
+            //bad base64 or JSON
+            return null;
+        }
+    }
+
+    //The token sent with a request - "Authorization: Bearer <token>" first, then the auth cookie
+    public String readToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return header.substring(7).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    public ResponseCookie cookie(String token) {
+        return baseCookie(token).maxAge(ttl).build();
+    }
+
+    //Overwrites the auth cookie with an already-expired one (logout)
+    public ResponseCookie clearCookie() {
+        return baseCookie("").maxAge(0).build();
+    }
+
+    private ResponseCookie.ResponseCookieBuilder baseCookie(String value) {
+        return ResponseCookie.from(cookieName, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/");
+    }
+
+    private static byte[] sign(Mac prototype, String data) {
+        Mac mac;
+        try {
+            //cloning an initialised Mac is much cheaper than Mac.getInstance + init on every request
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac newMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //"kid1:base64secret,kid2:base64secret"
+    private static Map<String, byte[]> parseKeys(String keys) {
+        Map<String, byte[]> parsed = new LinkedHashMap<>();
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0 || entry.substring(0, colon).contains(".")) {
+                throw new IllegalStateException("auth.token.keys entries must look like <kid>:<base64 secret>, kid without '.'.");
+            }
+            parsed.put(entry.substring(0, colon).trim(), Base64.getDecoder().decode(entry.substring(colon + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private record Claims(int uid, String name, String role, long exp) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.revature.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.revature.models.DTOs.CacheStatsDTO;
+import com.revature.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache in front of the user lookups on the login and session paths.
+ * Entries are evicted by size (least recently/frequently used) and by age (TTL), and only users that exist are
+ * cached. The cached Users are shared detached entities - read them, never modify them.
+ *
+ * Anything that changes a user must call invalidate() - see UserService.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Integer, User> byId;
+    private final Cache<String, User> byUsername;
+
+    @Autowired
+    public UserCache(@Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:10m}") Duration ttl) {
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.byUsername = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    //Cached user by id, or load it with the given lookup (only a found user is cached)
+    public Optional<User> getById(int userId, Function<Integer, Optional<User>> loader) {
+        return Optional.ofNullable(byId.get(userId, id -> loader.apply(id).orElse(null)));
+    }
+
+    //Cached user by username, or load it with the given lookup (only a found user is cached)
+    public Optional<User> getByUsername(String username, Function<String, Optional<User>> loader) {
+        return Optional.ofNullable(byUsername.get(username, name -> loader.apply(name).orElse(null)));
+    }
+
+    /**
+     * Drop a user from both caches.
+     * Called inside a transaction, the entries are dropped now AND again right after commit: a lookup that runs
+     * between the change and the commit still sees the old row and could re-cache it. Caffeine finishes any
+     * in-flight load of the key before removing it, so once the mutating call returns nothing stale is left.
+     */
+    public void invalidate(int userId, String username) {
+        evict(userId, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId, username);
+                }
+            });
+        }
+    }
+
+    private void evict(int userId, String username) {
+        byId.invalidate(userId);
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return List.of(toDTO("usersById", byId), toDTO("usersByUsername", byUsername));
+    }
+
+    private CacheStatsDTO toDTO(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,125 @@
+package com.revature.services;
+
+import com.revature.DAOs.ArchivedReimbursementDAO;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.PurgeProgressDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background removal of deleted (tombstoned) users - see UserService.deleteUser.
+ *
+ * Every users.purge.interval it takes the tombstoned users oldest first and deletes their reimbursements (hot table,
+ * then archive) with set-based DELETEs of users.purge.chunk-size rows, each chunk in its own short transaction,
+ * then deletes the user row.
+ * No chunk holds locks for long, and a purge that stops halfway (restart, error) just carries on from where it was
+ * on the next run. Progress is kept in memory per node and shown at GET /users/purges.
+ */
+@Component
+public class UserPurger {
+
+    //How long finished purges stay listed
+    private static final Duration HISTORY = Duration.ofHours(1);
+
+    private final UserDAO userDAO;
+    private final ReimbursementDAO reimbursementDAO;
+    private final ArchivedReimbursementDAO archivedReimbursementDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Map<Integer, Progress> progress = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserPurger(UserDAO userDAO, ReimbursementDAO reimbursementDAO, ArchivedReimbursementDAO archivedReimbursementDAO,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${users.purge.chunk-size:1000}") int chunkSize) {
+        this.userDAO = userDAO;
+        this.reimbursementDAO = reimbursementDAO;
+        this.archivedReimbursementDAO = archivedReimbursementDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    //synchronized: a manual call waits for a scheduled run instead of purging the same users alongside it
+    @Scheduled(fixedDelayString = "${users.purge.interval:30s}", initialDelayString = "${users.purge.interval:30s}")
+    public synchronized void purgeTombstonedUsers() {
+        Instant cutoff = Instant.now().minus(HISTORY);
+        progress.values().removeIf(p -> p.finishedAt != null && p.finishedAt.isBefore(cutoff));
+
+        for (int userId : userDAO.findTombstonedIds()) {
+            purge(userId);
+        }
+    }
+
+    private void purge(int userId) {
+        Progress current = new Progress(reimbursementDAO.countByUser_UserId(userId)
+                + archivedReimbursementDAO.countByUser_UserId(userId));
+        progress.put(userId, current);
+
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> reimbursementDAO.deleteChunkByUserId(userId, chunkSize));
+                current.deleted += deleted;
+            } while (deleted == chunkSize);
+            do {
+                deleted = transactionTemplate.execute(status -> archivedReimbursementDAO.deleteChunkByUserId(userId, chunkSize));
+                current.deleted += deleted;
+            } while (deleted == chunkSize);
+
+            // Nothing references the user any more - the row itself goes last
+            userDAO.deleteTombstoned(userId);
+            current.state = PurgeProgressDTO.DONE;
+        } catch (RuntimeException e) {
+            // e.g. a lock timeout - whatever was deleted stays deleted, the rest is retried next run
+            current.state = PurgeProgressDTO.FAILED;
+            current.error = e.getMessage();
+        }
+        current.finishedAt = Instant.now();
+    }
+
+    //Purges started on this node (running, or finished within the last hour) plus tombstoned users still waiting
+    public List<PurgeProgressDTO> getProgress() {
+        List<PurgeProgressDTO> result = new ArrayList<>();
+        for (Map.Entry<Integer, Progress> entry : progress.entrySet()) {
+            result.add(entry.getValue().toDTO(entry.getKey()));
+        }
+        for (int userId : userDAO.findTombstonedIds()) {
+            if (!progress.containsKey(userId)) {
+                result.add(new PurgeProgressDTO(userId, PurgeProgressDTO.QUEUED, 0, 0, null, null, null));
+            }
+        }
+        result.sort(Comparator.comparingInt(PurgeProgressDTO::getUserId));
+        return result;
+    }
+
+    //Written only by the purging thread, read by /users/purges requests
+    private static final class Progress {
+        private final long total;
+        private final Instant startedAt = Instant.now();
+        private volatile long deleted;
+        private volatile String state = PurgeProgressDTO.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Progress(long total) {
+            this.total = total;
+        }
+
+        PurgeProgressDTO toDTO(int userId) {
+            return new PurgeProgressDTO(userId, state, total, deleted, startedAt, finishedAt, error);
+        }
+    }
+}
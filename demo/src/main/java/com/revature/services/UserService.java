@@ -1,29 +1,45 @@
 package com.revature.services;
 
-import com.revature.DAOs.ReimbursementDAO;
 import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.CacheStatsDTO;
 import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.PurgeProgressDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import com.revature.models.DTOs.UserSummaryDTO;
 import com.revature.models.Reimbursement;
 import com.revature.models.User;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class UserService {
+    private static final String USERNAME_INDEX = "ux_user_username";
+
     //constructor inject
     private final UserDAO userDAO;
-    private final ReimbursementDAO reimbursementDAO;
+    private final UserCache userCache;
+    private final PasswordHasher passwordHasher;
+    private final UserPurger userPurger;
+    private final ApplicationEventPublisher events;
 
     @Autowired
-    public UserService(UserDAO userDAO, ReimbursementDAO reimbursementDAO){
+    public UserService(UserDAO userDAO, UserCache userCache, PasswordHasher passwordHasher, UserPurger userPurger,
+                       ApplicationEventPublisher events){
         this.userDAO = userDAO;
-        this.reimbursementDAO = reimbursementDAO;
+        this.userCache = userCache;
+        this.passwordHasher = passwordHasher;
+        this.userPurger = userPurger;
+        this.events = events;
 
     }
 
@@ -35,39 +51,68 @@ public class UserService {
             throw new IllegalArgumentException("Password cannot be null or blank.");
         }
 
-        if (userDAO.existsByUsername(userDTO.getUsername())) {
-            throw new IllegalArgumentException("Username already exists.");
-        }
-
         String role = (userDTO.getRole() == null || userDTO.getRole().isBlank()) ? "employee" : userDTO.getRole();
 
         User user = new User();
         user.setFirstName(userDTO.getFirstName());
         user.setLastName(userDTO.getLastName());
         user.setUsername(userDTO.getUsername());
-        user.setPassword((userDTO.getPassword()));
+        user.setPassword(passwordHasher.hash(userDTO.getPassword()));
         user.setRole(role);
 
-        return userDAO.save(user);
+        //No existsByUsername check first - the unique index on username rejects a duplicate (even a concurrent one)
+        //flush so the INSERT, and any violation, happens here rather than at some later commit
+        User saved;
+        try {
+            saved = userDAO.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUsernameConflict(e)) {
+                throw new IllegalArgumentException("Username already exists.");
+            }
+            throw e;
+        }
+        userCache.invalidate(saved.getUserId(), saved.getUsername());
+        return saved;
+    }
+
+    private static boolean isUsernameConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException cve
+                && cve.getConstraintName() != null
+                && cve.getConstraintName().toLowerCase().contains(USERNAME_INDEX);
+    }
+
+    public List<UserSummaryDTO> getAllUsers() {
+        return userDAO.findAllSummaries();
+    }
+
+    public List<CacheStatsDTO> getCacheStats() {
+        return userCache.getStats();
     }
 
-    public List<User> getAllUsers() {
-        return userDAO.findAll();
+    public List<PurgeProgressDTO> getPurgeProgress() {
+        return userPurger.getProgress();
     }
 
+    /**
+     * Deletes a user at once by tombstoning them (one UPDATE) - from then on logins, lookups and reimbursement
+     * lists skip them. Their reimbursements, and then the row itself, are removed in the background by UserPurger,
+     * in small chunks, so deleting a user with years of claims doesn't hold a long transaction and its row locks.
+     */
     @Transactional
     public void deleteUser(int userId) {
-        if (!userDAO.existsById(userId)) {
-            throw new IllegalArgumentException("User not found.");
-        }
+        User user = userDAO.findActiveById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found."));
 
-        // Delete all reimbursements related to the user
-        reimbursementDAO.deleteAllByUser_UserId(userId);
+        userDAO.tombstone(userId, Instant.now());
 
-        // Delete the user
-        userDAO.deleteById(userId);
+        // Evicted now and again after commit, so a concurrent lookup can't re-cache the deleted row
+        userCache.invalidate(userId, user.getUsername());
+
+        // Their claims drop out of search results once this commits, not when UserPurger gets to them
+        events.publishEvent(ReimbursementsChangedDTO.user(userId));
     }
 
+    @Transactional
     public User updateUserRole(int userId, String role) {
         // Validate the role input
         if (role == null || role.isBlank()) {
@@ -75,7 +120,7 @@ public class UserService {
         }
 
         // Fetch the user from the database
-        Optional<User> optionalUser = userDAO.findById(userId);
+        Optional<User> optionalUser = userDAO.findActiveById(userId);
         if (optionalUser.isEmpty()) {
             throw new IllegalArgumentException("User with ID " + userId + " not found.");
         }
@@ -83,11 +128,16 @@ public class UserService {
         // Update the role and save the user
         User user = optionalUser.get();
         user.setRole(role);
-        return userDAO.save(user);
+        User saved = userDAO.save(user);
+
+        // Evicted now and again after commit, so a concurrent lookup can't re-cache the old role
+        userCache.invalidate(userId, saved.getUsername());
+        return saved;
     }
 
+    //Cached - the returned User is shared, don't modify it
     public User getUserById(int userId) {
-        return userDAO.findById(userId)
+        return userCache.getById(userId, userDAO::findActiveById)
                 .orElseThrow(() -> new IllegalArgumentException("User with ID " + userId + " not found."));
     }
 }
@@ -0,0 +1,140 @@
+package com.revature.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+//Incremental RFC 4180 reader - hands back one record at a time, so a file of any size can be read in constant memory
+//Quoted fields may contain commas, doubled quotes and line breaks (everything CsvUtils.escape() produces)
+//Records are bounded too: a field over maxFieldLength characters, or a record of more than maxFields fields, is read
+//to its end without being kept and then rejected, so one runaway quote or line can't fill the heap
+public class CsvReader {
+
+    private static final int NONE = -2;
+
+    //A record over the limits - it has been skipped, and the next readRecord() carries on after it
+    public static class RecordTooLargeException extends IllegalArgumentException {
+        public RecordTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final int maxFields;
+    private int pushedBack = NONE;
+    private int line = 1;
+    private int recordLine = 1;
+
+    public CsvReader(Reader in, int maxFieldLength, int maxFields) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+        this.maxFields = maxFields;
+    }
+
+    //Line number (1-based) the last record returned by readRecord() started on
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the record's fields, or null at end of input
+     * @throws RecordTooLargeException if the record is over maxFieldLength or maxFields (reading can go on)
+     * @throws IllegalArgumentException if a quoted field is never closed
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        String tooLarge = null; //once set, the rest of the record is only read past
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field.");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        tooLarge = append(field, '"', tooLarge); //escaped quote
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    tooLarge = append(field, c, tooLarge);
+                }
+            } else if (c == ',') {
+                tooLarge = addField(fields, field, tooLarge);
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                }
+                line++;
+                break;
+            } else if (c == -1) {
+                break;
+            } else {
+                tooLarge = append(field, c, tooLarge);
+            }
+            c = read();
+        }
+
+        tooLarge = addField(fields, field, tooLarge);
+        if (tooLarge != null) {
+            throw new RecordTooLargeException(tooLarge);
+        }
+        return fields;
+    }
+
+    //Each returns the record's problem so far - null while it's within the limits
+    private String append(StringBuilder field, int c, String tooLarge) {
+        if (tooLarge != null) {
+            return tooLarge;
+        }
+        if (field.length() >= maxFieldLength) {
+            return "Field longer than " + maxFieldLength + " characters.";
+        }
+        field.append((char) c);
+        return null;
+    }
+
+    private String addField(List<String> fields, StringBuilder field, String tooLarge) {
+        if (tooLarge != null) {
+            return tooLarge;
+        }
+        if (fields.size() >= maxFields) {
+            return "More than " + maxFields + " fields.";
+        }
+        fields.add(field.toString());
+        return null;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,27 @@
+package com.revature.utils;
+
+//Small RFC 4180 helpers for the CSV export
+public final class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    //Quote a field only when it needs it (comma, quote, or line break), doubling any embedded quotes
+    public static String escape(String field) {
+        if (field == null) {
+            return "";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,35 @@
+-- The schema as ddl-auto=update left it (tables, id sequences, foreign key and the keyset/summary indexes).
+-- Everything is IF NOT EXISTS so this also runs cleanly against a database Hibernate already built
+-- (spring.flyway.baseline-on-migrate with baseline-version 0 - see application.properties).
+
+-- ids are handed out 50 at a time (allocationSize = 50 on the entities)
+create sequence if not exists demo.user_seq start with 1 increment by 50;
+create sequence if not exists demo.reimbursement_seq start with 1 increment by 50;
+
+create table if not exists demo.user (
+    user_id integer not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    role varchar(255) not null,
+    primary key (user_id)
+);
+
+create table if not exists demo.reimbursement (
+    reimbid integer not null,
+    amount float(53) not null,
+    description varchar(255) not null,
+    status varchar(255) not null,
+    version integer default 0 not null,
+    user_id integer,
+    primary key (reimbid),
+    constraint fk_reimbursement_user foreign key (user_id) references demo.user (user_id)
+);
+
+-- keyset pages in ReimbursementDAO (filter column first, then the cursor column)
+create index if not exists idx_reimbursement_status_reimbid on demo.reimbursement (status, reimbid);
+create index if not exists idx_reimbursement_user_reimbid on demo.reimbursement (user_id, reimbid);
+-- covering indexes for the summary GROUP BYs (ReimbursementDAO.sumByStatus etc.)
+create index if not exists idx_reimbursement_status_amount on demo.reimbursement (status, amount);
+create index if not exists idx_reimbursement_user_status_amount on demo.reimbursement (user_id, status, amount);
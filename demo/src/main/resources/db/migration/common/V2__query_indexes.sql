@@ -0,0 +1,8 @@
+-- A user's claims with a given status (findByUser_UserIdAndStatus, findRowsByUserIdAndStatus, /pending/{userId}):
+-- equality on both columns, rows come back already in reimbid order so there is no sort step
+create index if not exists idx_reimbursement_user_status_reimbid on demo.reimbursement (user_id, status, reimbid);
+
+-- Login and registration look users up by username. Unique, so a duplicate registration fails on insert
+-- (UserService.insertUser) instead of needing a separate existsByUsername check that could still race.
+-- Fails if the table already holds duplicate usernames - remove those before migrating.
+create unique index if not exists ux_user_username on demo.user (username);
@@ -0,0 +1,3 @@
+-- Deleting a user only sets deleted_at (UserService.deleteUser). UserPurger then removes their reimbursements in
+-- chunks and finally the row itself, so no single transaction has to delete a long-tenured user's whole history.
+alter table demo.user add column if not exists deleted_at timestamp(6) with time zone;
@@ -0,0 +1,27 @@
+-- Hot/cold split: ReimbursementArchiver moves APPROVED/DENIED claims resolved more than
+-- reimbursements.archive.min-age ago from reimbursement into reimbursement_archive, so the hot table stays
+-- about the size of the pending queue plus recent history however much history piles up.
+
+-- When a claim left PENDING (set by the entity on insert/update and by ReimbursementDAO.resolveIfPending)
+alter table demo.reimbursement add column if not exists resolved_at timestamp(6) with time zone;
+-- Claims resolved before this column existed start their archive clock now
+update demo.reimbursement set resolved_at = current_timestamp where status <> 'PENDING' and resolved_at is null;
+
+-- the archiver's scan: oldest resolved claims first
+create index if not exists idx_reimbursement_resolved_at on demo.reimbursement (resolved_at);
+
+-- Same columns as reimbursement (no version - archived rows are never updated), plus when they were moved
+create table if not exists demo.reimbursement_archive (
+    reimbid integer not null,
+    amount float(53) not null,
+    description varchar(255) not null,
+    status varchar(255) not null,
+    resolved_at timestamp(6) with time zone,
+    archived_at timestamp(6) with time zone not null,
+    user_id integer,
+    primary key (reimbid),
+    constraint fk_reimbursement_archive_user foreign key (user_id) references demo.user (user_id)
+);
+
+-- history pages: all claims, or one user's, in reimbid order
+create index if not exists idx_reimbursement_archive_user_reimbid on demo.reimbursement_archive (user_id, reimbid);
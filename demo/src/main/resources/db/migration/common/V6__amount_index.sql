@@ -0,0 +1,4 @@
+-- Composed queries sorted by amount with no status or user filter ("everything over $500, biggest first" -
+-- ReimbursementQueryDAO). Without this only (status, amount) and (user_id, status, amount) have amount in order,
+-- and ReimbursementIndexCatalog would refuse the query.
+create index if not exists idx_reimbursement_amount_reimbid on demo.reimbursement (amount, reimbid);
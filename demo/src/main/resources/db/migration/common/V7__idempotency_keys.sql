@@ -0,0 +1,16 @@
+-- Idempotency-Key support for claim creation and resolve (see IdempotencyService).
+-- One row per key a user has sent to an endpoint, holding the response to replay when the request is retried.
+-- The row is inserted before the request does its work, in the same transaction, so the primary key also stops two
+-- instances running the same request; rows older than idempotency.retention are purged.
+create table if not exists demo.idempotency_key (
+    id varchar(400) not null, -- <userId>:<operation>:<key>
+    fingerprint varchar(64) not null, -- SHA-256 of the request, to spot a key reused for a different request
+    status integer not null,
+    body varchar(4000),
+    location varchar(255),
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+-- the purge: oldest keys first
+create index if not exists idx_idempotency_key_created_at on demo.idempotency_key (created_at);
@@ -0,0 +1,4 @@
+-- The optimistic-lock column (Reimbursement.version, bumped by the conditional updates in ReimbursementUpdateDAO).
+-- V1 only has it in its CREATE TABLE, which a database built by ddl-auto=update skips - its reimbursement table
+-- already exists, without the column - so add it here like the V4/V5 columns. Existing claims start at version 0.
+alter table demo.reimbursement add column if not exists version integer default 0 not null;
@@ -0,0 +1,13 @@
+-- H2 version of postgresql/V8: move the id sequences past the highest id in use, never back.
+-- RESTART WITH sets the next value handed out; Hibernate's pooled allocator takes a next value of N as the block
+-- N-49..N, so restarting at max+50 makes the next block max+1..max+50. base_value is the sequence's next value now.
+alter sequence demo.user_seq restart with (select greatest(
+    (select coalesce(max(user_id), 0) from demo.user) + 50,
+    (select base_value from information_schema.sequences
+     where lower(sequence_schema) = 'demo' and lower(sequence_name) = 'user_seq')));
+
+alter sequence demo.reimbursement_seq restart with (select greatest(
+    (select coalesce(max(reimbid), 0) from demo.reimbursement) + 50,
+    (select coalesce(max(reimbid), 0) from demo.reimbursement_archive) + 50,
+    (select base_value from information_schema.sequences
+     where lower(sequence_schema) = 'demo' and lower(sequence_name) = 'reimbursement_seq')));
@@ -0,0 +1,4 @@
+-- Postgres only (H2 has no partial indexes and uses idx_reimbursement_status_reimbid instead).
+-- Pending claims are the small, hot slice of the table that managers page through (findPageByStatusAfter("PENDING"))
+-- and resolve. Indexing only those rows keeps the index tiny, and resolved claims drop out of it.
+create index if not exists idx_reimbursement_pending on demo.reimbursement (reimbid) where status = 'PENDING';
@@ -0,0 +1,14 @@
+-- V1 creates the id sequences starting at 1. On a database whose rows got their ids before these sequences existed
+-- (IDENTITY columns, under ddl-auto=update), that is below ids already in use, and the first batched insert collides
+-- with an existing row. Move each sequence past the highest id in use - never back, if it's already further along.
+-- Hibernate's pooled allocator (allocationSize = 50) takes a nextval of N as the block N-49..N, so after
+-- setval(seq, max) the next block is max+1..max+50. Archived claims keep their reimbid, so they count too.
+-- (The H2 version of this is in db/migration/h2.)
+select setval('demo.user_seq', greatest(
+    (select coalesce(max(user_id), 0) from demo.user),
+    (select last_value from demo.user_seq)));
+
+select setval('demo.reimbursement_seq', greatest(
+    (select coalesce(max(reimbid), 0) from demo.reimbursement),
+    (select coalesce(max(reimbid), 0) from demo.reimbursement_archive),
+    (select last_value from demo.reimbursement_seq)));
@@ -0,0 +1,46 @@
+package com.revature.demo;
+
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.User;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//The shipped admission limits, not the tight ones AdmissionTests sets: a whole office behind one NAT address
+//(or an untrusted proxy) shares a login bucket, and must still be able to log in together
+@SpringBootTest(properties = "admission.enabled=true")
+@AutoConfigureMockMvc
+class AdmissionDefaultsTests {
+
+    private static final int OFFICE = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void officeBehindOneAddressCanLogIn() throws Exception {
+        for (int i = 0; i < OFFICE; i++) {
+            User user = userService.insertUser(new IncomingUserDTO(0, "Office", "Worker",
+                    "office-" + UUID.randomUUID(), "password", "employee"));
+            mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"" + user.getUsername() + "\",\"password\":\"password\"}")
+                            .with(request -> {
+                                request.setRemoteAddr("198.51.100.7");
+                                return request;
+                            }))
+                    .andExpect(status().isOk());
+        }
+    }
+}
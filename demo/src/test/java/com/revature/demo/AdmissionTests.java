@@ -0,0 +1,224 @@
+package com.revature.demo;
+
+import com.revature.models.DTOs.AdmissionLimitsDTO;
+import com.revature.models.User;
+import com.revature.services.AdmissionControl;
+import com.revature.services.AdmissionControl.EndpointClass;
+import com.revature.services.AdmissionControl.Rejection;
+import com.revature.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Per-client token buckets (429) and per-class in-flight caps (503), both with Retry-After, and limits changed at runtime
+//Every test logs in from its own address, so the login buckets of different tests don't mix
+@SpringBootTest(properties = {
+        "admission.enabled=true",
+        "admission.auth.rate-per-second=0.01",
+        "admission.auth.burst=3",
+        "admission.write.rate-per-second=0.01",
+        "admission.write.burst=2",
+        "admission.trusted-proxies=192.0.2.0/24"
+})
+@AutoConfigureMockMvc
+class AdmissionTests {
+
+    private static final AtomicInteger addresses = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void eachUserHasTheirOwnBucket() throws Exception {
+        String address = newAddress();
+        MockHttpSession hammering = login(TestAccounts.newUser(userService, "employee"), address);
+        MockHttpSession other = login(TestAccounts.newUser(userService, "employee"), address);
+        double rejectedBefore = rejected("write", "rate_limited");
+
+        createClaim(hammering).andExpect(status().isCreated());
+        createClaim(hammering).andExpect(status().isCreated());
+        createClaim(hammering)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        long retryAfter = Long.parseLong(createClaim(hammering).andReturn().getResponse().getHeader("Retry-After"));
+        assertTrue(retryAfter > 1, "next token is ~100s away, Retry-After was " + retryAfter);
+
+        //the same address, but logged in as someone else - a full bucket
+        createClaim(other).andExpect(status().isCreated());
+        //and reads are a class of their own
+        mockMvc.perform(get("/reimbursements/user/self").session(hammering)).andExpect(status().isOk());
+
+        assertEquals(rejectedBefore + 2, rejected("write", "rate_limited"));
+    }
+
+    @Test
+    void loginsAreLimitedPerAddress() throws Exception {
+        User user = TestAccounts.newUser(userService, "employee");
+        String address = newAddress();
+
+        for (int i = 0; i < 3; i++) {
+            login(user, address);
+        }
+        mockMvc.perform(loginRequest(user, address))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        //someone else's address isn't affected
+        login(user, newAddress());
+    }
+
+    @Test
+    void behindATrustedProxyLoginsAreLimitedPerForwardedAddress() throws Exception {
+        User user = TestAccounts.newUser(userService, "employee");
+        String proxy = "192.0.2.1";
+        String client = newAddress();
+
+        for (int i = 0; i < 3; i++) {
+            login(user, proxy, client);
+        }
+        mockMvc.perform(loginRequest(user, proxy, client)).andExpect(status().isTooManyRequests());
+        //hops the client wrote itself, left of what the proxy appended, don't get it a new bucket
+        mockMvc.perform(loginRequest(user, proxy, "203.0.113.9, " + client)).andExpect(status().isTooManyRequests());
+        //someone else behind the same proxy
+        login(user, proxy, newAddress());
+
+        //from an address that isn't a trusted proxy the header is ignored, so it can't be used to dodge the limit
+        String direct = newAddress();
+        for (int i = 0; i < 3; i++) {
+            login(user, direct, newAddress());
+        }
+        mockMvc.perform(loginRequest(user, direct, newAddress())).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void classAtItsCapIsShedUntilASlotFrees() {
+        AdmissionLimitsDTO before = limits(EndpointClass.READ);
+        try {
+            admissionControl.setLimits(EndpointClass.READ, new AdmissionLimitsDTO("READ", 0, 0, 1, 0));
+            double rejectedBefore = rejected("read", "concurrency_limited");
+
+            assertTrue(admissionControl.admit(EndpointClass.READ, "user:1").isEmpty());
+            Optional<Rejection> shed = admissionControl.admit(EndpointClass.READ, "user:2");
+            assertTrue(shed.isPresent());
+            assertEquals(AdmissionControl.Reason.CONCURRENCY_LIMITED, shed.get().reason());
+            assertEquals(1, shed.get().retryAfterSeconds());
+            //other classes have their own cap
+            assertTrue(admissionControl.admit(EndpointClass.WRITE, "user:3").isEmpty());
+            admissionControl.release(EndpointClass.WRITE);
+
+            admissionControl.release(EndpointClass.READ);
+            assertTrue(admissionControl.admit(EndpointClass.READ, "user:2").isEmpty());
+            admissionControl.release(EndpointClass.READ);
+            assertEquals(rejectedBefore + 1, rejected("read", "concurrency_limited"));
+        } finally {
+            admissionControl.setLimits(EndpointClass.READ, before);
+        }
+    }
+
+    @Test
+    void limitsCanBeChangedAtRuntime() throws Exception {
+        String address = newAddress();
+        MockHttpSession manager = login(TestAccounts.newUser(userService, "manager"), address);
+        MockHttpSession employee = login(TestAccounts.newUser(userService, "employee"), address);
+        AdmissionLimitsDTO before = limits(EndpointClass.WRITE);
+        try {
+            mockMvc.perform(get("/admission").session(manager))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(EndpointClass.values().length));
+
+            mockMvc.perform(put("/admission/write").session(manager).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ratePerSecond\":0.01,\"burst\":1,\"maxConcurrent\":5}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.endpointClass").value("WRITE"))
+                    .andExpect(jsonPath("$.burst").value(1));
+            createClaim(employee).andExpect(status().isCreated());
+            createClaim(employee).andExpect(status().isTooManyRequests());
+
+            mockMvc.perform(put("/admission/write").session(manager).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ratePerSecond\":1,\"burst\":0,\"maxConcurrent\":5}"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(put("/admission/everything").session(manager).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ratePerSecond\":1,\"burst\":1,\"maxConcurrent\":5}"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/admission").session(employee)).andExpect(status().isForbidden());
+        } finally {
+            admissionControl.setLimits(EndpointClass.WRITE, before);
+        }
+
+        //every admitted call gave its slot back
+        for (AdmissionLimitsDTO limits : admissionControl.getLimits()) {
+            assertEquals(0, limits.getInFlight(), limits.getEndpointClass());
+        }
+    }
+
+    private AdmissionLimitsDTO limits(EndpointClass endpointClass) {
+        return admissionControl.getLimits().stream()
+                .filter(limits -> limits.getEndpointClass().equals(endpointClass.name()))
+                .findFirst().orElseThrow();
+    }
+
+    private double rejected(String endpointClass, String reason) {
+        return registry.get(AdmissionControl.REJECTED_COUNTER)
+                .tag("class", endpointClass).tag("reason", reason).counter().count();
+    }
+
+    private ResultActions createClaim(MockHttpSession session) throws Exception {
+        return mockMvc.perform(post("/reimbursements/user/self").session(session)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":10,\"description\":\"Parking\"}"));
+    }
+
+    private static String newAddress() {
+        int n = addresses.incrementAndGet();
+        return "10.0." + (n / 256) + "." + (n % 256);
+    }
+
+    private RequestBuilder loginRequest(User user, String address) {
+        return TestAccounts.loginRequest(user).with(request -> {
+            request.setRemoteAddr(address);
+            return request;
+        });
+    }
+
+    //Through a proxy at address, which says the call came from forwardedFor
+    private RequestBuilder loginRequest(User user, String address, String forwardedFor) {
+        return TestAccounts.loginRequest(user).header("X-Forwarded-For", forwardedFor).with(request -> {
+            request.setRemoteAddr(address);
+            return request;
+        });
+    }
+
+    private MockHttpSession login(User user, String address) throws Exception {
+        return TestAccounts.login(mockMvc, loginRequest(user, address));
+    }
+
+    private void login(User user, String address, String forwardedFor) throws Exception {
+        TestAccounts.login(mockMvc, loginRequest(user, address, forwardedFor));
+    }
+}
@@ -0,0 +1,53 @@
+package com.revature.demo;
+
+import com.revature.aspects.AuthInterceptor;
+import com.revature.controllers.ReimbursementController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The call AuthInterceptorBenchmarks (demo/benchmarks) times - preHandle on a bare HandlerMethod, with the session
+//the old AuthAspect read - makes the same decisions the old aspect did: manager in, employee 403, no session 401
+@SpringBootTest
+class AuthInterceptorBenchmarkTests {
+
+    @Autowired
+    private AuthInterceptor authInterceptor;
+
+    @Autowired
+    private ReimbursementController reimbursementController;
+
+    @Test
+    void preHandleDecidesLikeTheOldAspect() throws Exception {
+        HandlerMethod handler = new HandlerMethod(reimbursementController,
+                ReimbursementController.class.getMethod("getAllReimbursements", int.class, Integer.class, boolean.class));
+
+        assertEquals(200, preHandle(handler, session("manager")));
+        assertEquals(403, preHandle(handler, session("employee")));
+        assertEquals(401, preHandle(handler, null));
+    }
+
+    private static MockHttpSession session(String role) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("userId", 1);
+        session.setAttribute("username", role);
+        session.setAttribute("role", role);
+        return session;
+    }
+
+    //the response status, 200 when the call is let through
+    private int preHandle(HandlerMethod handler, MockHttpSession session) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reimbursements/all");
+        request.setSession(session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean allowed = authInterceptor.preHandle(request, response, handler);
+        assertEquals(allowed, response.getStatus() == 200);
+        return response.getStatus();
+    }
+}
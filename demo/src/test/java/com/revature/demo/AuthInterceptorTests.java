@@ -0,0 +1,100 @@
+package com.revature.demo;
+
+import com.revature.aspects.AuthInterceptor;
+import com.revature.aspects.AuthInterceptor.Access;
+import com.revature.controllers.ReimbursementController;
+import com.revature.controllers.UserController;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//The route table is built from the annotations, and requests are refused before reaching the controller
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthInterceptorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthInterceptor authInterceptor;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void routeTableIsBuiltFromAnnotations() throws Exception {
+        assertEquals(Access.MANAGER, authInterceptor.getRequiredAccess(
+                ReimbursementController.class.getMethod("getAllReimbursements", int.class, Integer.class, boolean.class)));
+        assertEquals(Access.LOGGED_IN, authInterceptor.getRequiredAccess(
+                UserController.class.getMethod("getLoggedInUser", com.revature.models.UserPrincipal.class)));
+        assertEquals(Access.PUBLIC, authInterceptor.getRequiredAccess(
+                UserController.class.getMethod("insertUser", IncomingUserDTO.class)));
+    }
+
+    //A handler of ours that says nothing about access would be public - startup refuses it instead
+    @Test
+    void aHandlerWithoutAnAccessAnnotationIsRefused() throws Exception {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> AuthInterceptor.requiredAccess(
+                Unannotated.class.getMethod("forgotten")));
+        assertTrue(e.getMessage().contains("forgotten"), e.getMessage());
+        assertEquals(Access.PUBLIC, AuthInterceptor.requiredAccess(Object.class.getMethod("toString")));
+    }
+
+    @Test
+    void requestsAreCheckedAgainstTheTable() throws Exception {
+        MockHttpSession employee = login("employee");
+        MockHttpSession manager = login("manager");
+
+        mockMvc.perform(get("/reimbursements/all")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/reimbursements/all").session(employee)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/reimbursements/all").session(manager)).andExpect(status().isOk());
+
+        //someone's pending claims: themselves or a manager only
+        MockHttpSession other = login("employee");
+        int employeeId = (Integer) employee.getAttribute("userId");
+        mockMvc.perform(get("/reimbursements/user/" + employeeId + "/pending")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/reimbursements/user/" + employeeId + "/pending").session(other))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/reimbursements/user/" + employeeId + "/pending").session(employee))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/reimbursements/user/" + employeeId + "/pending").session(manager))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/self")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/users/self").session(employee))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("employee"));
+    }
+
+    private MockHttpSession login(String role) throws Exception {
+        String username = role + "-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "Auth", "Check", username, "password", role));
+        return (MockHttpSession) mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    //Stands in for a controller method someone forgot to annotate
+    static class Unannotated {
+        public void forgotten() {
+        }
+    }
+}
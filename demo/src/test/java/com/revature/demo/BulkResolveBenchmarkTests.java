@@ -0,0 +1,64 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Throughput of the bulk resolve at different batch sizes
+//Off by default - run with: mvn test -Dbenchmarks=true -Dtest=BulkResolveBenchmarkTests
+//Point spring.datasource.* at a real Postgres to include network round trips (H2 in-memory has none)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BulkResolveBenchmarkTests {
+
+    private static final int ROWS = 5_000;
+    private static final int[] BATCH_SIZES = {1, 10, 50, 100, 500};
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Test
+    void throughputByBatchSize() {
+        User user = userDAO.save(new User(0, "Bench", "Mark", "bench-resolve", "password", "employee", null));
+        try {
+            //one warm-up round so the first measured batch size doesn't pay for JIT/class loading
+            resolveAll(user, 100);
+
+            System.out.printf("%-12s %12s %14s%n", "batch size", "millis", "rows/second");
+            for (int batchSize : BATCH_SIZES) {
+                long nanos = resolveAll(user, batchSize);
+                System.out.printf("%-12d %12d %14.0f%n", batchSize, nanos / 1_000_000, ROWS / (nanos / 1e9));
+            }
+        } finally {
+            reimbursementDAO.deleteAll();
+            userDAO.deleteAll();
+        }
+    }
+
+    private long resolveAll(User user, int batchSize) {
+        List<Reimbursement> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Reimbursement(0, 1 + i, "bench " + i, "PENDING", user));
+        }
+        List<Integer> ids = reimbursementDAO.saveAll(rows).stream().map(Reimbursement::getReimbid).toList();
+
+        long start = System.nanoTime();
+        reimbursementService.resolveReimbursements(ids, "APPROVED", batchSize);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,87 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.ResolveResultDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BulkResolveTests {
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private UserService userService;
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void reportsAnOutcomePerIdInRequestOrder() {
+        User user = userDAO.save(new User(0, "Bulk", "Tester", "bulk", "password", "employee", null));
+        Reimbursement pending1 = reimbursementDAO.save(new Reimbursement(0, 10, "a", "PENDING", user));
+        Reimbursement denied = reimbursementDAO.save(new Reimbursement(0, 20, "b", "DENIED", user));
+        Reimbursement pending2 = reimbursementDAO.save(new Reimbursement(0, 30, "c", "PENDING", user));
+        int missing = pending2.getReimbid() + 1000;
+
+        //batch size 2 so the ids span more than one chunk
+        List<ResolveResultDTO> results = reimbursementService.resolveReimbursements(
+                List.of(pending2.getReimbid(), missing, denied.getReimbid(), pending1.getReimbid(), pending2.getReimbid()),
+                "approved", 2);
+
+        assertEquals(4, results.size());
+        assertEquals(pending2.getReimbid(), results.get(0).getReimbid());
+        assertEquals(ResolveResultDTO.RESOLVED, results.get(0).getResult());
+        assertEquals(ResolveResultDTO.NOT_FOUND, results.get(1).getResult());
+        assertEquals(ResolveResultDTO.NOT_PENDING, results.get(2).getResult());
+        assertEquals(ResolveResultDTO.RESOLVED, results.get(3).getResult());
+
+        assertEquals("APPROVED", reimbursementDAO.findById(pending1.getReimbid()).orElseThrow().getStatus());
+        assertEquals("APPROVED", reimbursementDAO.findById(pending2.getReimbid()).orElseThrow().getStatus());
+        assertEquals("DENIED", reimbursementDAO.findById(denied.getReimbid()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void claimsOfDeletedUsersAreNotFound() {
+        User active = userDAO.save(new User(0, "Bulk", "Active", "bulk-active", "password", "employee", null));
+        User deleted = userDAO.save(new User(0, "Bulk", "Deleted", "bulk-deleted", "password", "employee", null));
+        Reimbursement kept = reimbursementDAO.save(new Reimbursement(0, 10, "a", "PENDING", active));
+        Reimbursement orphaned = reimbursementDAO.save(new Reimbursement(0, 20, "b", "PENDING", deleted));
+        userService.deleteUser(deleted.getUserId());
+
+        List<ResolveResultDTO> results = reimbursementService.resolveReimbursements(
+                List.of(kept.getReimbid(), orphaned.getReimbid()), "denied");
+
+        assertEquals(ResolveResultDTO.RESOLVED, results.get(0).getResult());
+        assertEquals(ResolveResultDTO.NOT_FOUND, results.get(1).getResult());
+        //left for UserPurger, untouched
+        assertEquals("PENDING", reimbursementDAO.findById(orphaned.getReimbid()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rejectsAnInvalidStatus() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reimbursementService.resolveReimbursements(List.of(1), "MAYBE"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.revature.demo;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.config.CompactReimbursementConverter;
+import com.revature.models.DTOs.CompactReimbursementsDTO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//The compact list format is only sent when asked for, and carries the same rows as the plain JSON in far fewer bytes
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompactFormatTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compactPageHasTheSameRowsAsThePlainOne() throws Exception {
+        MockHttpSession manager = login("manager");
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            owners.add(userService.insertUser(new IncomingUserDTO(0, "Compact", "Owner", "owner-" + UUID.randomUUID(),
+                    "password", "employee")));
+        }
+        for (int i = 0; i < 60; i++) {
+            reimbursementDAO.save(new Reimbursement(0, 10 + i, "claim " + i, i % 3 == 0 ? "APPROVED" : "PENDING",
+                    owners.get(i % owners.size())));
+        }
+
+        byte[] plainBytes = mockMvc.perform(get("/reimbursements/all?size=50").session(manager)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] compactBytes = mockMvc.perform(get("/reimbursements/all?size=50").session(manager)
+                        .accept(CompactReimbursementConverter.COMPACT_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactReimbursementConverter.COMPACT_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PageDTO<OutgoingReimbursementDTO> plain = objectMapper.readValue(plainBytes, new TypeReference<>() {});
+        CompactReimbursementsDTO compact = objectMapper.readValue(compactBytes, CompactReimbursementsDTO.class);
+
+        assertEquals(plain.getNext(), compact.getNext());
+        assertEquals(plain.getItems().size(), compact.getReimbid().length);
+        for (int i = 0; i < plain.getItems().size(); i++) {
+            OutgoingReimbursementDTO row = plain.getItems().get(i);
+            assertEquals(row.getReimbid(), compact.getReimbid()[i]);
+            assertEquals(row.getAmount(), compact.getAmount()[i]);
+            assertEquals(row.getDescription(), compact.getDescription()[i]);
+            assertEquals(row.getStatus(), compact.getStatuses().get(compact.getStatus()[i]));
+            assertEquals(row.getUserId(), compact.getUserId()[i]);
+            assertEquals(row.getUsername(), compact.getUsers().get(row.getUserId()));
+        }
+        assertEquals(2, compact.getStatuses().size());
+        assertTrue(plainBytes.length >= 3 * compactBytes.length,
+                "plain " + plainBytes.length + " bytes, compact " + compactBytes.length + " bytes");
+    }
+
+    @Test
+    void compactIsOnlySentWhenAskedForByName() throws Exception {
+        MockHttpSession employee = login("employee");
+
+        mockMvc.perform(get("/reimbursements/user/self").session(employee).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/reimbursements/user/self").session(employee)
+                        .accept(CompactReimbursementConverter.COMPACT_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactReimbursementConverter.COMPACT_JSON));
+    }
+
+    private MockHttpSession login(String role) throws Exception {
+        String username = role + "-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "Compact", "Reader", username, "password", role));
+        return (MockHttpSession) mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+}
@@ -0,0 +1,57 @@
+package com.revature.demo;
+
+import com.revature.config.ConcurrencyLimitFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The filter is only registered in virtual-thread mode, so it's exercised directly here
+class ConcurrencyLimitFilterTests {
+
+    @Test
+    void requestsOverTheLimitAreShedWith503() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(null, 1, 2, Duration.ofMillis(100));
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            //first request takes the only slot and holds it
+            Future<?> first = executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> fail("should not get through"));
+            assertEquals(503, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(1, filter.getAvailablePermits());
+
+            MockHttpServletResponse accepted = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), accepted, (req, res) -> { });
+            assertEquals(200, accepted.getStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.ReimbursementUpdateDAOImpl;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Many "managers" clicking approve/deny on the same claims at the same moment - every claim must have exactly one winner
+@SpringBootTest
+class ConcurrentResolveTests {
+
+    private static final int CLAIMS = 50;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void exactlyOneWinnerPerClaim() throws Exception {
+        User user = userDAO.save(new User(0, "Race", "Tester", "racer", "password", "employee", null));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < CLAIMS; i++) {
+            ids.add(reimbursementDAO.save(new Reimbursement(0, 10 + i, "claim " + i, "PENDING", user)).getReimbid());
+        }
+
+        Map<Integer, AtomicInteger> wins = new ConcurrentHashMap<>();
+        Map<Integer, String> winningStatus = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String status = (t % 2 == 0) ? "APPROVED" : "DENIED";
+                List<Integer> order = new ArrayList<>(ids);
+                Collections.shuffle(order);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int id : order) {
+                        try {
+                            reimbursementService.resolveReimbursement(id, status);
+                            wins.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                            winningStatus.put(id, status);
+                        } catch (IllegalArgumentException alreadyResolved) {
+                            //lost the race - expected
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int id : ids) {
+            assertEquals(1, wins.get(id).get(), "claim " + id + " should have exactly one winner");
+            Reimbursement stored = reimbursementDAO.findById(id).orElseThrow();
+            assertEquals(winningStatus.get(id), stored.getStatus());
+            assertEquals(1, stored.getVersion());
+        }
+    }
+
+    @Test
+    void editOfAResolvedClaimIsRejected() {
+        User user = userDAO.save(new User(0, "Edit", "Tester", "editor", "password", "employee", null));
+        int id = reimbursementDAO.save(new Reimbursement(0, 10, "claim", "PENDING", user)).getReimbid();
+        reimbursementService.resolveReimbursement(id, "DENIED");
+
+        Reimbursement change = new Reimbursement(0, 99, "changed", null, null);
+        assertThrows(IllegalStateException.class,
+                () -> reimbursementService.updateReimbursement(id, change, user.getUserId()));
+        assertThrows(IllegalStateException.class,
+                () -> reimbursementService.updateReimbursementAsManager(id, change));
+        assertEquals("claim", reimbursementDAO.findById(id).orElseThrow().getDescription());
+    }
+
+    //Production runs the Postgres form, which the H2 tests can't - so at least check it is the same UPDATE with
+    //RETURNING, and that H2 gets the FINAL TABLE form the other tests run
+    @Test
+    void postgresGetsUpdateReturning() {
+        String returning = " returning r.reimbid, r.amount, r.description, r.status, r.user_id, " +
+                "(select u.username from {h-schema}user u where u.user_id = r.user_id) username";
+        String pendingWithActiveOwner = "r.reimbid = :reimbid and r.status = 'PENDING' and exists (select 1 from " +
+                "{h-schema}user u where u.user_id = r.user_id and u.deleted_at is null)";
+
+        assertEquals("update {h-schema}reimbursement r set status = :status, resolved_at = :resolvedAt, " +
+                        "version = version + 1 where " + pendingWithActiveOwner + returning,
+                ReimbursementUpdateDAOImpl.resolveSql(new PostgreSQLDialect()));
+        assertEquals("update {h-schema}reimbursement r set description = coalesce(:description, description), " +
+                        "amount = case when :amount > 0 then :amount else amount end, version = version + 1 " +
+                        "where " + pendingWithActiveOwner + " and r.user_id = :userId" + returning,
+                ReimbursementUpdateDAOImpl.editSql(new PostgreSQLDialect(), true));
+
+        String h2 = ReimbursementUpdateDAOImpl.editSql(new H2Dialect(), false);
+        assertTrue(h2.startsWith("select r.reimbid") && h2.contains(" from final table (update "), h2);
+        assertFalse(h2.contains("returning"), h2);
+    }
+}
@@ -0,0 +1,251 @@
+package com.revature.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.DAOs.IdempotencyRecordDAO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.IdempotencyService;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Idempotency-Key on claim creation and resolve: retries replay the first response, from memory or from the table,
+//without running the request again - and duplicates arriving together run it once
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordDAO idempotencyRecordDAO;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retriedClaimIsReplayedWithoutTouchingTheDatabase() throws Exception {
+        User employee = TestAccounts.newUser(userService, "employee");
+        MockHttpSession session = TestAccounts.login(mockMvc, employee);
+        String key = UUID.randomUUID().toString();
+
+        String first = createClaim(session, key, "{\"amount\":12.5,\"description\":\"Airport taxi\"}")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SearchIndexing.awaitIdle(searchIndex);
+        statistics.clear();
+        String retry = createClaim(session, key, "{\"amount\":12.5,\"description\":\"Airport taxi\"}")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.description").value("Airport taxi"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, retry);
+        assertEquals(0, statistics.getPrepareStatementCount()); //answered from the cache
+        assertEquals(1, reimbursementService.getReimbursementsByUserID(employee.getUserId()).size());
+
+        //same key, different claim
+        createClaim(session, key, "{\"amount\":99,\"description\":\"Airport taxi\"}")
+                .andExpect(status().isUnprocessableEntity());
+        //keys are per user - another employee's identical key is a new claim
+        MockHttpSession other = TestAccounts.login(mockMvc, userService, "employee");
+        createClaim(other, key, "{\"amount\":12.5,\"description\":\"Airport taxi\"}")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER));
+        //an invalid claim's 400 is replayed too, and a key has to be a usable one
+        String badKey = UUID.randomUUID().toString();
+        createClaim(session, badKey, "{\"amount\":-1,\"description\":\"Refund\"}").andExpect(status().isBadRequest());
+        createClaim(session, badKey, "{\"amount\":-1,\"description\":\"Refund\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+        createClaim(session, " ", "{\"amount\":5,\"description\":\"Blank key\"}").andExpect(status().isBadRequest());
+        createClaim(session, "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), "{\"amount\":5,\"description\":\"Long key\"}")
+                .andExpect(status().isBadRequest());
+        assertEquals(1, reimbursementService.getReimbursementsByUserID(employee.getUserId()).size());
+
+        //after a restart (or on another instance) the cache is empty, and the table answers
+        IdempotencyService restarted = newService();
+        SearchIndexing.awaitIdle(searchIndex);
+        statistics.clear();
+        ResponseEntity<String> replayed = restarted.execute(employee.getUserId(), "create-claim", key,
+                "12.5|PENDING|Airport taxi", () -> {
+                    throw new AssertionError("a replay must not run the request");
+                });
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals(first, replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, statistics.getPrepareStatementCount()); //the idempotency_key lookup, nothing else
+    }
+
+    @Test
+    void retriedResolveIsReplayedInsteadOfFailing() throws Exception {
+        User employee = TestAccounts.newUser(userService, "employee");
+        OutgoingReimbursementDTO claim = reimbursementService.insertReimbursement(
+                new Reimbursement(0, 80, "Conference ticket", null, null), employee.getUserId());
+        MockHttpSession manager = TestAccounts.login(mockMvc, userService, "manager");
+        String key = UUID.randomUUID().toString();
+
+        resolve(manager, claim.getReimbid(), "approved", key)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+        resolve(manager, claim.getReimbid(), "approved", key)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+
+        //without the key it runs again, and the claim is no longer pending
+        mockMvc.perform(patch("/reimbursements/" + claim.getReimbid() + "/resolve").param("status", "approved")
+                        .session(manager))
+                .andExpect(status().isUnauthorized());
+        //the same key can't be used to change the decision
+        resolve(manager, claim.getReimbid(), "denied", key).andExpect(status().isUnprocessableEntity());
+        //a request that threw isn't kept: the key is free and a retry runs again
+        String failedKey = UUID.randomUUID().toString();
+        resolve(manager, claim.getReimbid(), "denied", failedKey).andExpect(status().isUnauthorized());
+        assertFalse(idempotencyRecordDAO.findAll().stream().anyMatch(record -> record.getId().endsWith(failedKey)));
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        User employee = TestAccounts.newUser(userService, "employee");
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(pool.submit(() -> idempotencyService.execute(employee.getUserId(), "create-claim", key,
+                        "20.0|PENDING|Team lunch", () -> {
+                            executions.incrementAndGet();
+                            started.countDown();
+                            try {
+                                release.await(10, TimeUnit.SECONDS); //keep it in flight while the others arrive
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return ResponseEntity.status(HttpStatus.CREATED).body(reimbursementService.insertReimbursement(
+                                    new Reimbursement(0, 20, "Team lunch", null, null), employee.getUserId()));
+                        })));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+
+            String body = null;
+            for (Future<ResponseEntity<String>> response : responses) {
+                ResponseEntity<String> result = response.get(10, TimeUnit.SECONDS);
+                assertEquals(HttpStatus.CREATED, result.getStatusCode());
+                if (body == null) {
+                    body = result.getBody();
+                }
+                assertEquals(body, result.getBody());
+            }
+            assertEquals(1, executions.get());
+            List<OutgoingReimbursementDTO> saved = reimbursementService.getReimbursementsByUserID(employee.getUserId());
+            assertEquals(1, saved.size());
+            assertEquals(saved.get(0).getReimbid(), objectMapper.readValue(body, OutgoingReimbursementDTO.class).getReimbid());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredKeysArePurged() {
+        User employee = TestAccounts.newUser(userService, "employee");
+        String fresh = employee.getUserId() + ":test:fresh";
+        String stale = employee.getUserId() + ":test:stale";
+        jdbcTemplate.update("insert into demo.idempotency_key (id, fingerprint, status, created_at) values (?, 'x', 200, ?)",
+                fresh, Timestamp.from(Instant.now()));
+        jdbcTemplate.update("insert into demo.idempotency_key (id, fingerprint, status, created_at) values (?, 'x', 200, ?)",
+                stale, Timestamp.from(Instant.now().minus(Duration.ofDays(2))));
+
+        assertTrue(idempotencyService.purgeExpired() >= 1);
+        assertTrue(idempotencyRecordDAO.existsById(fresh));
+        assertFalse(idempotencyRecordDAO.existsById(stale));
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(idempotencyRecordDAO, entityManager, transactionManager, objectMapper,
+                100, Duration.ofMinutes(10), Duration.ofHours(24), Duration.ofSeconds(30));
+    }
+
+    private ResultActions createClaim(MockHttpSession session, String key, String body) throws Exception {
+        return mockMvc.perform(post("/reimbursements/user/self").session(session)
+                .header(IdempotencyService.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private ResultActions resolve(MockHttpSession session, int id, String status, String key) throws Exception {
+        return mockMvc.perform(patch("/reimbursements/" + id + "/resolve").param("status", status)
+                .header(IdempotencyService.HEADER, key)
+                .session(session));
+    }
+}
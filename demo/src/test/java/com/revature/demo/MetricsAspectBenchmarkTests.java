@@ -0,0 +1,47 @@
+package com.revature.demo;
+
+import com.revature.aspects.MetricsAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The setup MetricsAspectBenchmarks (demo/benchmarks) times: a controller proxied outside Spring with MetricsAspect
+//returns what the controller returns, and every call and failure lands in its timers
+class MetricsAspectBenchmarkTests {
+
+    @RestController
+    public static class TrivialController {
+        public int handle(int x) {
+            if (x < 0) {
+                throw new IllegalArgumentException("negative");
+            }
+            return x + 1;
+        }
+    }
+
+    @Test
+    void proxiedCallsAreTimedByOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TrivialController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MetricsAspect(registry));
+        TrivialController timed = factory.getProxy();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, timed.handle(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> timed.handle(-1));
+
+        assertEquals(3, timer(registry, "success"));
+        assertEquals(1, timer(registry, "error"));
+    }
+
+    private static long timer(SimpleMeterRegistry registry, String outcome) {
+        return registry.get(MetricsAspect.CONTROLLER_TIMER)
+                .tag("class", "TrivialController").tag("method", "handle").tag("outcome", outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,65 @@
+package com.revature.demo;
+
+import com.revature.aspects.MetricsAspect;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Controller and DAO calls are timed, and the timers + pool gauges show up on the scrape endpoint
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void controllerAndDaoCallsAreTimed() throws Exception {
+        String username = "metrics-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "Me", "Trics", username, "password", "employee"));
+
+        mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"nobody-" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(2, meterRegistry.get(MetricsAspect.CONTROLLER_TIMER)
+                .tags("class", "AuthController", "method", "login", "outcome", "success").timer().count());
+        assertTrue(meterRegistry.get(MetricsAspect.DAO_TIMER)
+                .tags("class", "UserDAO", "method", "saveAndFlush", "outcome", "success").timer().count() >= 1);
+        assertTrue(meterRegistry.get(MetricsAspect.DAO_TIMER)
+                .tags("class", "UserDAO", "method", "findByUsername").timer().count() >= 1);
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("app_controller_seconds_bucket{class=\"AuthController\""), "controller histogram");
+        assertTrue(scrape.contains("app_dao_seconds_bucket{class=\"UserDAO\""), "DAO histogram");
+        assertTrue(scrape.contains("hikaricp_connections_active"), "active connections");
+        assertTrue(scrape.contains("hikaricp_connections_idle"), "idle connections");
+        assertTrue(scrape.contains("hikaricp_connections_pending"), "waiting connections");
+    }
+}
@@ -0,0 +1,85 @@
+package com.revature.demo;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.LoginDTO;
+import com.revature.models.User;
+import com.revature.services.AuthService;
+import com.revature.services.PasswordHasher;
+import com.revature.services.TokenService;
+import com.revature.services.UserCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+//Successful logins per second at different BCrypt cost factors, with as many concurrent callers as CPUs
+//Off by default - run with: mvn test -Dbenchmarks=true -Dtest=PasswordHashingBenchmarkTests
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PasswordHashingBenchmarkTests {
+
+    private static final int[] COSTS = {4, 8, 10, 12};
+    private static final Duration ROUND = Duration.ofSeconds(3);
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void loginsPerSecondByCost() throws Exception {
+        int callers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            System.out.printf("%-6s %14s %14s%n", "cost", "logins/second", "millis/login");
+            for (int cost : COSTS) {
+                BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+                String username = "bench-login-" + cost;
+                userDAO.save(new User(0, "Bench", "Mark", username, encoder.encode("password"), "employee", null));
+
+                PasswordHasher hasher = new PasswordHasher(encoder, 0, 1024, Duration.ofMinutes(1));
+                AuthService authService = new AuthService(userDAO, userCache, hasher, tokenService);
+                LoginDTO login = new LoginDTO(username, "password");
+                assertNotNull(authService.login(login));
+
+                long deadline = System.nanoTime() + ROUND.toNanos();
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    results.add(pool.submit(() -> {
+                        int n = 0;
+                        while (System.nanoTime() < deadline) {
+                            authService.login(login);
+                            n++;
+                        }
+                        return n;
+                    }));
+                }
+                int total = 0;
+                for (Future<Integer> result : results) {
+                    total += result.get();
+                }
+                hasher.shutdown();
+
+                double perSecond = total / (ROUND.toNanos() / 1e9);
+                System.out.printf("%-6d %14.0f %14.2f%n", cost, perSecond, callers * 1000 / perSecond);
+            }
+        } finally {
+            pool.shutdown();
+            userDAO.deleteAll();
+        }
+    }
+}
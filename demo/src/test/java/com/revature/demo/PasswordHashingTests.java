@@ -0,0 +1,142 @@
+package com.revature.demo;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.LoginDTO;
+import com.revature.models.User;
+import com.revature.services.AuthService;
+import com.revature.services.PasswordHasher;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Test
+    void newUsersAreStoredHashed() {
+        String username = "hashed-" + UUID.randomUUID();
+        User user = userService.insertUser(new IncomingUserDTO(0, "Hash", "Ed", username, "s3cret", "employee"));
+
+        String stored = userDAO.findById(user.getUserId()).orElseThrow().getPassword();
+        assertNotEquals("s3cret", stored);
+        assertTrue(passwordHasher.isHashed(stored));
+        assertNotNull(authService.login(new LoginDTO(username, "s3cret")));
+        assertNull(authService.login(new LoginDTO(username, "wrong")));
+    }
+
+    //Every endpoint that returns a User - the hash stays on the server
+    @Test
+    void hashesAreNeverSentToClients() throws Exception {
+        String username = "signup-" + UUID.randomUUID();
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Sign\",\"lastName\":\"Up\",\"username\":\"" + username
+                                + "\",\"password\":\"s3cret\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.username").value(username))
+                .andExpect(jsonPath("$.password").doesNotExist());
+
+        User employee = TestAccounts.newUser(userService, "employee");
+        MockHttpSession session = TestAccounts.login(mockMvc, employee);
+        mockMvc.perform(get("/users/self").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(employee.getUsername()))
+                .andExpect(jsonPath("$.password").doesNotExist());
+
+        mockMvc.perform(patch("/users/" + employee.getUserId() + "/role").param("role", "manager")
+                        .session(TestAccounts.login(mockMvc, userService, "manager")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("manager"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void legacyPlaintextIsUpgradedOnLogin() {
+        String username = "legacy-" + UUID.randomUUID();
+        User user = userDAO.save(new User(0, "Leg", "Acy", username, "plain", "employee", null));
+
+        assertNull(authService.login(new LoginDTO(username, "wrong")));
+        assertEquals("plain", userDAO.findById(user.getUserId()).orElseThrow().getPassword());
+
+        assertNotNull(authService.login(new LoginDTO(username, "plain")));
+        String stored = userDAO.findById(user.getUserId()).orElseThrow().getPassword();
+        assertTrue(passwordHasher.isHashed(stored));
+
+        //and the hashed row (not a stale cached copy) is what the next login checks against
+        assertNotNull(authService.login(new LoginDTO(username, "plain")));
+        assertNull(authService.login(new LoginDTO(username, "wrong")));
+    }
+
+    @Test
+    void saturatedPoolRejectsFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence raw) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "x";
+            }
+
+            @Override
+            public boolean matches(CharSequence raw, String encoded) {
+                return false;
+            }
+        };
+        PasswordHasher hasher = new PasswordHasher(blocking, 1, 1, Duration.ofSeconds(30));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            //one hash running, one queued - the pool is full
+            callers.submit(() -> hasher.hash("a"));
+            callers.submit(() -> hasher.hash("b"));
+            Thread.sleep(200);
+
+            long start = System.nanoTime();
+            assertThrows(ServiceUnavailableException.class, () -> hasher.hash("c"));
+            assertTrue(System.nanoTime() - start < 100_000_000L, "rejection should not wait");
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            hasher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementSummaryDTO;
+import com.revature.models.DTOs.UserSummaryDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The list endpoints should each cost exactly one query, however many users/reimbursements there are,
+//and a resolve or edit one statement that both changes the row and returns it
+@SpringBootTest
+class ProjectionQueryTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int u = 0; u < 5; u++) {
+            User user = userDAO.save(new User(0, "First" + u, "Last" + u, "user" + u, "password", "employee", null));
+            List<Reimbursement> rows = new ArrayList<>();
+            for (int i = 0; i <= u; i++) {
+                rows.add(new Reimbursement(0, 5 + i, "claim " + i, "PENDING", user));
+            }
+            reimbursementDAO.saveAll(rows);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SearchIndexing.awaitIdle(searchIndex);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void userListIsOneQueryWithCounts() {
+        List<UserSummaryDTO> users = userService.getAllUsers();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(5, users.size());
+        for (int u = 0; u < 5; u++) {
+            assertEquals(u + 1, users.get(u).getReimbursementCount());
+        }
+    }
+
+    @Test
+    void reimbursementPageIsOneQueryWithOwner() {
+        PageDTO<OutgoingReimbursementDTO> page = reimbursementService.getAllReimbursements(0, 100);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(15, page.getItems().size());
+        page.getItems().forEach(r -> assertTrue(r.getUsername().startsWith("user")));
+    }
+
+    @Test
+    void summaryIsComputedByTheDatabase() {
+        ReimbursementSummaryDTO summary = reimbursementService.getSummary(null, "pending", 2);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, summary.getByStatus().size());
+        assertEquals("PENDING", summary.getByStatus().get(0).getStatus());
+        assertEquals(15, summary.getByStatus().get(0).getCount());
+
+        //user4 has 5 claims (5+6+7+8+9), user3 has 4 (5+6+7+8)
+        assertEquals(2, summary.getTopClaimants().size());
+        assertEquals("user4", summary.getTopClaimants().get(0).getUsername());
+        assertEquals(35.0, summary.getTopClaimants().get(0).getTotal());
+        assertEquals("user3", summary.getTopClaimants().get(1).getUsername());
+    }
+
+    @Test
+    void resolveAndEditAreOneStatementEach() {
+        User owner = userDAO.findByUsername("user2").orElseThrow();
+        List<Integer> ids = reimbursementDAO.findByUser_UserId(owner.getUserId()).stream()
+                .map(Reimbursement::getReimbid).sorted().toList();
+
+        //counted inside one outer transaction, so the search indexer (which runs after commit) can't add to it
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            statistics.clear();
+            OutgoingReimbursementDTO resolved = reimbursementService.resolveReimbursement(ids.get(0), "approved");
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals("APPROVED", resolved.getStatus());
+            assertEquals("user2", resolved.getUsername());
+            assertEquals(5.0, resolved.getAmount());
+
+            statistics.clear();
+            OutgoingReimbursementDTO edited = reimbursementService.updateReimbursement(ids.get(1),
+                    new Reimbursement(0, 0, "taxi", null, null), owner.getUserId());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals("taxi", edited.getDescription());
+            assertEquals(6.0, edited.getAmount()); //an amount of 0 leaves it as it was
+
+            statistics.clear();
+            OutgoingReimbursementDTO managerEdited = reimbursementService.updateReimbursementAsManager(ids.get(2),
+                    new Reimbursement(0, 70, null, null, null));
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals("claim 2", managerEdited.getDescription());
+            assertEquals(70.0, managerEdited.getAmount());
+            assertEquals(owner.getUserId(), managerEdited.getUserId());
+        });
+
+        //a write that changes nothing still says why
+        IllegalStateException notPending = assertThrows(IllegalStateException.class, () ->
+                reimbursementService.updateReimbursementAsManager(ids.get(0), new Reimbursement(0, 1, "x", null, null)));
+        assertEquals("Only pending reimbursements can be updated.", notPending.getMessage());
+        IllegalStateException notTheirs = assertThrows(IllegalStateException.class, () ->
+                reimbursementService.updateReimbursement(ids.get(1), new Reimbursement(0, 1, "x", null, null), -1));
+        assertEquals("Unauthorized to update this reimbursement.", notTheirs.getMessage());
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, () ->
+                reimbursementService.resolveReimbursement(Integer.MAX_VALUE, "denied"));
+        assertEquals("Reimbursement not found.", missing.getMessage());
+        assertEquals("Only pending reimbursements can be resolved.", assertThrows(IllegalArgumentException.class, () ->
+                reimbursementService.resolveReimbursement(ids.get(0), "denied")).getMessage());
+    }
+}
@@ -0,0 +1,161 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ArchivedReimbursementDAO;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.ClaimantTotalDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementSummaryDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementArchiver;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserPurger;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Resolved claims move to the archive in batches; reads only include them when asked for history
+@SpringBootTest(properties = "reimbursements.archive.batch-size=2")
+class ReimbursementArchiveTests {
+
+    @Autowired
+    private ReimbursementArchiver archiver;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserPurger userPurger;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private ArchivedReimbursementDAO archivedReimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private User user;
+    private final List<Integer> allIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = userDAO.save(new User(0, "Archie", "Ve", "archive-user", "password", "employee", null));
+        //interleave pending and resolved claims so history pages have to merge both tables
+        for (int i = 0; i < 7; i++) {
+            int id = reimbursementDAO.save(new Reimbursement(0, 10 + i, "claim " + i, "PENDING", user)).getReimbid();
+            if (i % 2 == 0) {
+                reimbursementService.resolveReimbursement(id, i % 4 == 0 ? "approved" : "denied");
+            }
+            allIds.add(id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        archivedReimbursementDAO.deleteAll();
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void movesOnlyResolvedClaimsOlderThanTheCutoff() {
+        assertEquals(0, archiver.archiveResolvedBefore(Instant.now().minus(Duration.ofDays(1))));
+
+        assertEquals(4, archiver.archiveResolvedBefore(Instant.now().plusSeconds(1)));
+
+        assertEquals(3, reimbursementDAO.count());
+        reimbursementDAO.findAll().forEach(r -> assertEquals("PENDING", r.getStatus()));
+        assertEquals(4, archivedReimbursementDAO.count());
+        archivedReimbursementDAO.findAll().forEach(r -> {
+            assertNotEquals("PENDING", r.getStatus());
+            assertNotNull(r.getResolvedAt());
+            assertNotNull(r.getArchivedAt());
+        });
+
+        //nothing left to move
+        assertEquals(0, archiver.archiveResolvedBefore(Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    void historyIsOnlyReadWhenAskedFor() {
+        archiver.archiveResolvedBefore(Instant.now().plusSeconds(1));
+
+        assertEquals(3, reimbursementService.getReimbursementsByUserID(user.getUserId()).size());
+        assertEquals(allIds, ids(reimbursementService.getReimbursementsByUserID(user.getUserId(), true)));
+
+        //keyset pages over both tables, 2 at a time
+        List<Integer> paged = new ArrayList<>();
+        Integer after = 0;
+        while (after != null) {
+            PageDTO<OutgoingReimbursementDTO> page = reimbursementService.getAllReimbursements(after, 2, true);
+            paged.addAll(ids(page.getItems()));
+            after = page.getNext();
+        }
+        assertEquals(allIds, paged);
+
+        assertEquals(3, reimbursementService.getAllReimbursements(0, 100).getItems().size());
+        assertEquals(7, reimbursementService.getReimbursementsByUserID(user.getUserId(), 0, 100, true).getItems().size());
+    }
+
+    @Test
+    void summaryOnlyCountsTheArchiveWhenAskedFor() {
+        archiver.archiveResolvedBefore(Instant.now().plusSeconds(1));
+
+        //active claims only: the resolved ones have moved out
+        ReimbursementSummaryDTO active = reimbursementService.getSummary(null, null, 5);
+        assertEquals(List.of("PENDING 3 39.0"), totals(active));
+        assertEquals(39.0, active.getTopClaimants().get(0).getTotal());
+        assertTrue(reimbursementService.getSummary(null, "APPROVED", 5).getTopClaimants().isEmpty());
+
+        ReimbursementSummaryDTO history = reimbursementService.getSummary(null, null, 5, true);
+        assertEquals(List.of("APPROVED 2 24.0", "DENIED 2 28.0", "PENDING 3 39.0"), totals(history));
+        ClaimantTotalDTO claimant = history.getTopClaimants().get(0);
+        assertEquals(user.getUserId(), claimant.getUserId());
+        assertEquals(7, claimant.getCount());
+        assertEquals(91.0, claimant.getTotal());
+
+        assertEquals(List.of("APPROVED 2 24.0", "DENIED 2 28.0", "PENDING 3 39.0"),
+                totals(reimbursementService.getSummary(user.getUserId(), null, 5, true)));
+        ClaimantTotalDTO approved = reimbursementService.getSummary(null, "approved", 5, true).getTopClaimants().get(0);
+        assertEquals(2, approved.getCount());
+        assertEquals(24.0, approved.getTotal());
+    }
+
+    @Test
+    void purgingAUserAlsoRemovesTheirArchivedClaims() {
+        archiver.archiveResolvedBefore(Instant.now().plusSeconds(1));
+
+        userService.deleteUser(user.getUserId());
+        userPurger.purgeTombstonedUsers();
+
+        assertEquals(0, archivedReimbursementDAO.count());
+        assertEquals(0, reimbursementDAO.count());
+        assertTrue(userDAO.findById(user.getUserId()).isEmpty());
+    }
+
+    private static List<String> totals(ReimbursementSummaryDTO summary) {
+        return summary.getByStatus().stream()
+                .map(total -> total.getStatus() + " " + total.getCount() + " " + total.getTotal()).toList();
+    }
+
+    private static List<Integer> ids(List<OutgoingReimbursementDTO> rows) {
+        return rows.stream().map(OutgoingReimbursementDTO::getReimbid).toList();
+    }
+}
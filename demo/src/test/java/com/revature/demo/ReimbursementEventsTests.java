@@ -0,0 +1,214 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.models.UserPrincipal;
+import com.revature.services.ReimbursementEventHub;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Committed changes reach the right dashboards, a slow dashboard gets one resync instead of an unbounded backlog,
+//and a stalled one is dropped
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReimbursementEventsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private ReimbursementEventHub eventHub;
+
+    @Test
+    void managersSeeEveryEventAndEmployeesOnlyTheirOwn() {
+        ReimbursementEventHub hub = new ReimbursementEventHub(16, 10, Duration.ofMinutes(1), Duration.ofSeconds(5), Runnable::run);
+        RecordingEmitter manager = new RecordingEmitter();
+        RecordingEmitter alice = new RecordingEmitter();
+        hub.subscribe(new UserPrincipal(1, "boss", "manager"), manager);
+        hub.subscribe(new UserPrincipal(2, "alice", "employee"), alice);
+
+        hub.publish(event(ReimbursementEventDTO.CREATED, 10, 2));
+        hub.publish(event(ReimbursementEventDTO.RESOLVED, 11, 3));
+        hub.publish(ReimbursementEventDTO.resync());
+
+        assertEquals(List.of("created:10", "resolved:11", "resync"), manager.events);
+        assertEquals(List.of("created:10", "resync"), alice.events);
+    }
+
+    @Test
+    void aSubscriberThatFallsBehindIsToldToResync() {
+        List<Runnable> pending = new ArrayList<>();
+        ReimbursementEventHub hub = new ReimbursementEventHub(2, 10, Duration.ofMinutes(1), Duration.ofSeconds(5), pending::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.subscribe(new UserPrincipal(1, "boss", "manager"), slow);
+
+        //nothing is written out until the dispatcher runs, so the third event overflows the buffer of 2
+        for (int id = 1; id <= 5; id++) {
+            hub.publish(event(ReimbursementEventDTO.CREATED, id, 2));
+        }
+        assertEquals(1, pending.size()); //one drain per subscriber, however many events
+        pending.remove(0).run();
+
+        assertEquals(List.of("resync", "created:4", "created:5"), slow.events);
+    }
+
+    @Test
+    void aFailedSendUnsubscribes() {
+        ReimbursementEventHub hub = new ReimbursementEventHub(16, 10, Duration.ofMinutes(1), Duration.ofSeconds(5), Runnable::run);
+        RecordingEmitter gone = new RecordingEmitter();
+        gone.fail = true;
+        hub.subscribe(new UserPrincipal(1, "boss", "manager"), gone);
+
+        hub.publish(event(ReimbursementEventDTO.CREATED, 1, 2));
+
+        assertEquals(0, hub.getSubscriberCount());
+    }
+
+    //A client that has stopped reading blocks its send - it's dropped after send-timeout, and even with a single
+    //dispatcher thread everyone else keeps getting events
+    @Test
+    void aSendThatBlocksUnsubscribesWithoutHoldingUpOthers() throws Exception {
+        ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+        ReimbursementEventHub hub = new ReimbursementEventHub(16, 10, Duration.ofMinutes(1), Duration.ofMillis(200),
+                dispatcher);
+        try {
+            RecordingEmitter stalled = new RecordingEmitter();
+            stalled.blocked = new CountDownLatch(1);
+            RecordingEmitter healthy = new RecordingEmitter();
+            hub.subscribe(new UserPrincipal(1, "boss", "manager"), stalled);
+            hub.subscribe(new UserPrincipal(2, "other-boss", "manager"), healthy);
+
+            for (int id = 1; id <= 3; id++) {
+                hub.publish(event(ReimbursementEventDTO.CREATED, id, 2));
+            }
+
+            for (int i = 0; i < 100 && healthy.events.size() < 3; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(List.of("created:1", "created:2", "created:3"), healthy.events);
+            assertEquals(1, hub.getSubscriberCount());
+            assertTrue(stalled.events.isEmpty());
+            //the blocked write was cancelled rather than left to wait for the client
+            assertTrue(stalled.interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void streamDeliversCommittedChanges() throws Exception {
+        MockHttpSession manager = login("manager");
+        MvcResult stream = mockMvc.perform(get("/reimbursements/events").session(manager)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        User owner = userService.insertUser(new IncomingUserDTO(0, "Event", "Owner", "owner-" + UUID.randomUUID(),
+                "password", "employee"));
+        int id = reimbursementDAO.save(new Reimbursement(0, 42, "taxi", "PENDING", owner)).getReimbid();
+        reimbursementService.resolveReimbursement(id, "approved");
+
+        String body = "";
+        for (int i = 0; i < 100 && !body.contains("event:resolved"); i++) {
+            Thread.sleep(50);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:resolved"), body);
+        assertTrue(body.contains("id:" + id), body);
+        assertTrue(body.contains("\"status\":\"APPROVED\""), body);
+
+        mockMvc.perform(get("/reimbursements/events")).andExpect(status().isUnauthorized());
+        assertTrue(eventHub.getSubscriberCount() >= 1);
+    }
+
+    private static ReimbursementEventDTO event(String type, int reimbid, int userId) {
+        return new ReimbursementEventDTO(type,
+                new OutgoingReimbursementDTO(reimbid, 10, "claim", "PENDING", userId, "user" + userId));
+    }
+
+    private MockHttpSession login(String role) throws Exception {
+        String username = role + "-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "Event", "Watcher", username, "password", role));
+        return (MockHttpSession) mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    //Records "name:id" per event instead of writing to a response
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private boolean fail;
+        private CountDownLatch blocked; //when set, a send waits on it, like a write to a client that stopped reading
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("client went away");
+            }
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IOException("write interrupted", e);
+                }
+            }
+            String text = builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .reduce("", String::concat);
+            String name = field(text, "event:");
+            if (name == null) {
+                return; //heartbeat comment
+            }
+            String id = field(text, "id:");
+            events.add(id == null ? name : name + ":" + id);
+        }
+
+        //the value of a "name:value" line of the SSE frame, or null if there's no such line
+        private static String field(String text, String prefix) {
+            int start = text.indexOf(prefix);
+            return start < 0 ? null : text.substring(start + prefix.length(), text.indexOf('\n', start));
+        }
+    }
+}
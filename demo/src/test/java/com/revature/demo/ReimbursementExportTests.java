@@ -0,0 +1,73 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReimbursementExportTests {
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = userDAO.save(new User(0, "Alice", "A", "alice", "password", "employee", null));
+        User bob = userDAO.save(new User(0, "Bob", "B", "bob", "password", "employee", null));
+        reimbursementDAO.saveAll(List.of(
+                new Reimbursement(0, 12.5, "Hotel, \"downtown\"", "PENDING", alice),
+                new Reimbursement(0, 40, "Flight", "APPROVED", alice),
+                new Reimbursement(0, 7, "Taxi", "PENDING", bob)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void csvExportQuotesFieldsAndAppliesFilters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reimbursementService.exportReimbursements(ReimbursementService.EXPORT_CSV, "pending", alice.getUserId(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("reimbid,amount,description,status,userId,username", lines[0]);
+        assertTrue(lines[1].endsWith(",12.5,\"Hotel, \"\"downtown\"\"\",PENDING," + alice.getUserId() + ",alice"));
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reimbursementService.exportReimbursements(ReimbursementService.EXPORT_NDJSON, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"));
+            assertFalse(line.contains("password"));
+        }
+    }
+}
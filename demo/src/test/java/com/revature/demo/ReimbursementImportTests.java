@@ -0,0 +1,89 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.ImportResultDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.User;
+import com.revature.services.ReimbursementImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReimbursementImportTests {
+
+    @Autowired
+    private ReimbursementImportService importService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void importsGoodLinesAndReportsBadOnes() throws Exception {
+        User user = userDAO.save(new User(0, "Import", "Tester", "importer", "password", "employee", null));
+        int id = user.getUserId();
+        String csv = "userId,amount,description,status\n" +
+                id + ",12.50,Hotel,APPROVED\n" +               //line 2
+                id + ",-3,Refund,\n" +                         //line 3 - bad amount
+                "\n" +                                         //line 4 - blank, skipped
+                id + ",8,\"Taxi, airport\nto hotel\",\n" +     //line 5-6 - quoted comma and newline
+                (id + 999) + ",5,Lunch,PENDING\n" +            //line 7 - unknown user
+                id + ",abc,Dinner,PENDING\n" +                 //line 8 - not a number
+                id + ",20,Parking,MAYBE\n";                    //line 9 - bad status
+
+        ImportResultDTO result = importService.importReimbursements(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(3, 7, 8, 9), result.getErrors().stream().map(e -> e.getLine()).toList());
+
+        List<OutgoingReimbursementDTO> rows = reimbursementDAO.findRowsByUserId(id);
+        assertEquals(2, rows.size());
+        assertEquals("APPROVED", rows.get(0).getStatus());
+        assertEquals("Taxi, airport\nto hotel", rows.get(1).getDescription());
+        assertEquals("PENDING", rows.get(1).getStatus());
+    }
+
+    @Test
+    void skipsLinesOverTheSizeLimits() throws Exception {
+        User user = userDAO.save(new User(0, "Import", "Tester", "importer", "password", "employee", null));
+        int id = user.getUserId();
+        String csv = "userId,amount,description\n" +
+                id + ",5,\"" + "x\n".repeat(2000) + "\"\n" +      //lines 2-2002 - a 4000-character field
+                id + ",6,Taxi" + ",".repeat(100) + "\n" +        //line 2003 - 103 fields
+                id + ",7,Lunch\n";                               //line 2004
+
+        ImportResultDTO result = importService.importReimbursements(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(2, 2003), result.getErrors().stream().map(e -> e.getLine()).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("longer than"));
+        assertTrue(result.getErrors().get(1).getMessage().contains("More than"));
+        assertEquals("Lunch", reimbursementDAO.findRowsByUserId(id).get(0).getDescription());
+    }
+
+    @Test
+    void rejectsAFileWithoutTheRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importReimbursements(
+                new ByteArrayInputStream("amount,description\n1,a\n".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,101 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReimbursementPaginationTests {
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userDAO.save(new User(0, "Page", "Tester", "pager", "password", "employee", null));
+        List<Reimbursement> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new Reimbursement(0, 10 + i, "claim " + i, i % 5 == 0 ? "APPROVED" : "PENDING", user));
+        }
+        reimbursementDAO.saveAll(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reimbursementDAO.deleteAll();
+        userDAO.deleteAll();
+    }
+
+    @Test
+    void walksEveryRowExactlyOnceInIdOrder() {
+        List<Integer> seen = new ArrayList<>();
+        int after = 0;
+        int pages = 0;
+        while (true) {
+            PageDTO<OutgoingReimbursementDTO> page = reimbursementService.getAllReimbursements(after, 10);
+            page.getItems().forEach(r -> seen.add(r.getReimbid()));
+            pages++;
+            if (page.getNext() == null) {
+                break;
+            }
+            after = page.getNext();
+        }
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i) > seen.get(i - 1));
+        }
+    }
+
+    @Test
+    void pendingPagesOnlyContainPendingRows() {
+        PageDTO<OutgoingReimbursementDTO> first = reimbursementService.getPendingReimbursements(0, 15);
+        assertEquals(15, first.getItems().size());
+        assertNotNull(first.getNext());
+
+        PageDTO<OutgoingReimbursementDTO> second = reimbursementService.getPendingReimbursements(first.getNext(), 15);
+        assertEquals(5, second.getItems().size());
+        assertNull(second.getNext());
+
+        first.getItems().forEach(r -> assertEquals("PENDING", r.getStatus()));
+        second.getItems().forEach(r -> assertEquals("PENDING", r.getStatus()));
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        //one more than a page can hold, on top of the 25 from setUp
+        List<Reimbursement> rows = new ArrayList<>();
+        for (int i = 0; i < ReimbursementService.MAX_PAGE_SIZE + 1; i++) {
+            rows.add(new Reimbursement(0, 5, "extra " + i, "PENDING", user));
+        }
+        reimbursementDAO.saveAll(rows);
+
+        PageDTO<OutgoingReimbursementDTO> page = reimbursementService.getReimbursementsByUserID(user.getUserId(), 0, 1_000_000);
+        assertEquals(ReimbursementService.MAX_PAGE_SIZE, page.getItems().size());
+        assertNotNull(page.getNext());
+        assertEquals(page.getItems().get(ReimbursementService.MAX_PAGE_SIZE - 1).getReimbid(), page.getNext());
+    }
+}
@@ -0,0 +1,278 @@
+package com.revature.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.ReimbursementIndexCatalog;
+import com.revature.DAOs.ReimbursementQueryDAOImpl;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.DTOs.ReimbursementQueryDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Composed queries return the same rows as filtering and sorting in memory would, page by page,
+//refuse what no index covers, and every accepted shape is planned as index scans even on a big table
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReimbursementQueryTests {
+
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "DENIED"};
+    private static final List<String> STATUSES_LIST = List.of(STATUSES);
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private ReimbursementIndexCatalog indexCatalog;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<User> users;
+    private List<OutgoingReimbursementDTO> rows;
+
+    @BeforeEach
+    void setUp() {
+        users = new ArrayList<>();
+        rows = new ArrayList<>();
+        Random random = new Random(7);
+        for (int u = 0; u < 3; u++) {
+            User user = TestAccounts.newUser(userService, "employee");
+            users.add(user);
+            for (int i = 0; i < 40; i++) {
+                //few distinct amounts, so ties on amount have to be broken by reimbid
+                Reimbursement saved = reimbursementDAO.save(new Reimbursement(0, 5 * (1 + random.nextInt(10)),
+                        "claim " + i, STATUSES[random.nextInt(STATUSES.length)], user));
+                rows.add(new OutgoingReimbursementDTO(saved.getReimbid(), saved.getAmount(), saved.getDescription(),
+                        saved.getStatus(), user.getUserId(), user.getUsername()));
+            }
+        }
+    }
+
+    @Test
+    void matchesFilteringAndSortingInMemory() {
+        int firstUser = users.get(0).getUserId();
+        int secondUser = users.get(1).getUserId();
+
+        assertQuery(query(null, List.of(firstUser), null, null, null, null, null),
+                r -> r.getUserId() == firstUser, byId());
+        assertQuery(query(List.of("pending", "DENIED"), List.of(firstUser, secondUser), null, null, null, null,
+                        List.of("-reimbid")),
+                r -> !r.getStatus().equals("APPROVED") && r.getUserId() != users.get(2).getUserId(), byId().reversed());
+        assertQuery(query(List.of("APPROVED"), List.of(firstUser, secondUser), 20.0, 40.0, null, null,
+                        List.of("-amount")),
+                r -> r.getStatus().equals("APPROVED") && r.getUserId() != users.get(2).getUserId()
+                        && r.getAmount() >= 20 && r.getAmount() <= 40, byAmount().reversed());
+        int middle = rows.get(rows.size() / 2).getReimbid();
+        assertQuery(query(STATUSES_LIST, userIds(), null, null, middle, null, null),
+                r -> r.getReimbid() >= middle, byId());
+        assertQuery(query(STATUSES_LIST, userIds(), 25.0, null, null, null, List.of("amount", "reimbid")),
+                r -> r.getAmount() >= 25, byAmount());
+    }
+
+    @Test
+    void queriesWithoutUserFiltersStayInOrder() {
+        ReimbursementQueryDTO query = query(null, null, 30.0, null, null, null, List.of("-amount"));
+        query.setSize(500);
+        List<OutgoingReimbursementDTO> found = reimbursementService.queryReimbursements(query).getItems();
+
+        assertTrue(found.stream().allMatch(r -> r.getAmount() >= 30));
+        assertEquals(found.stream().sorted(byAmount().reversed()).toList(), found);
+        //our users' rows are in there, in the same relative order
+        Set<Integer> ours = Set.copyOf(rows.stream().map(OutgoingReimbursementDTO::getReimbid).toList());
+        assertEquals(rows.stream().filter(r -> r.getAmount() >= 30).sorted(byAmount().reversed())
+                        .map(OutgoingReimbursementDTO::getReimbid).toList(),
+                found.stream().map(OutgoingReimbursementDTO::getReimbid).filter(ours::contains).toList());
+    }
+
+    @Test
+    void refusesWhatNoIndexCovers() {
+        int userId = users.get(0).getUserId();
+        //(user_id, amount) isn't indexed - (user_id, status, amount) only helps with a status filter too
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(null, List.of(userId), null, null, null, null, List.of("amount"))));
+        //a range on anything but the sort column can't be part of the index scan
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(List.of("PENDING"), null, 10.0, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(null, null, null, null, 5, null, List.of("amount"))));
+        //mixed directions, unknown keys
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(null, null, null, null, null, null, List.of("-amount", "reimbid"))));
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(null, null, null, null, null, null, List.of("description"))));
+        //too many branches
+        List<Integer> manyUsers = new ArrayList<>();
+        for (int i = 0; i < ReimbursementService.MAX_QUERY_BRANCHES; i++) {
+            manyUsers.add(i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.queryReimbursements(
+                query(List.of("PENDING", "DENIED"), manyUsers, null, null, null, null, null)));
+    }
+
+    //The plan matrix: every shape the catalog accepts, on a table big enough that a scan would show
+    @Test
+    void acceptedShapesArePlannedAsIndexScans() {
+        int extra = 100_000;
+        int base = 1_000_000_000;
+        Random random = new Random(11);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= extra; i++) {
+            batch.add(new Object[]{base + i, 1 + random.nextInt(5000), "bulk " + i, STATUSES[i % 3],
+                    users.get(i % users.size()).getUserId()});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("insert into demo.reimbursement (reimbid, amount, description, status, " +
+                        "version, user_id) values (?, ?, ?, ?, 0, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("analyze");
+
+        try {
+            List<Integer> oneUser = List.of(users.get(0).getUserId());
+            List<ReimbursementQueryDTO> shapes = new ArrayList<>();
+            for (List<String> sort : List.of(List.of("reimbid"), List.of("-reimbid"), List.of("amount"),
+                    List.of("-amount", "-reimbid"))) {
+                boolean byAmount = sort.get(0).endsWith("amount");
+                Double minAmount = byAmount ? 4000.0 : null;
+                Integer minId = byAmount ? null : base + extra / 2;
+                shapes.add(query(null, null, minAmount, null, minId, null, sort));
+                shapes.add(query(List.of("PENDING"), null, minAmount, null, minId, null, sort));
+                shapes.add(query(List.of("PENDING", "DENIED"), null, minAmount, null, minId, null, sort));
+                shapes.add(query(List.of("APPROVED"), userIds(), minAmount, null, minId, null, sort));
+                if (!byAmount) {
+                    shapes.add(query(null, oneUser, null, null, minId, null, sort));
+                    shapes.add(query(null, userIds(), null, null, minId, null, sort));
+                }
+                //and the following page of each
+                ReimbursementQueryDTO next = query(List.of("PENDING"), null, null, null, null, null, sort);
+                next.setAfter(base + extra / 2);
+                next.setAfterAmount(byAmount ? 2500.0 : null);
+                shapes.add(next);
+            }
+
+            for (ReimbursementQueryDTO shape : shapes) {
+                String plan = String.join("\n", explain(shape, 51)).toLowerCase();
+                assertFalse(plan.contains("tablescan"), shape + "\n" + plan);
+                assertTrue(indexCatalog.indexes().keySet().stream().anyMatch(plan::contains), shape + "\n" + plan);
+                //and it still returns what it should
+                assertFalse(reimbursementService.queryReimbursements(shape).getItems().isEmpty(), shape.toString());
+            }
+        } finally {
+            jdbcTemplate.update("delete from demo.reimbursement where reimbid > ?", base);
+        }
+    }
+
+    @Test
+    void queryEndpointIsForManagers() throws Exception {
+        OutgoingReimbursementDTO biggest = rows.stream().filter(r -> r.getUserId() == users.get(1).getUserId())
+                .max(byAmount()).orElseThrow();
+        String body = objectMapper.writeValueAsString(
+                query(null, List.of(users.get(1).getUserId()), null, null, null, null, null));
+
+        mockMvc.perform(post("/reimbursements/query").session(TestAccounts.login(mockMvc, userService, "manager"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"statuses\":" + objectMapper.writeValueAsString(STATUSES_LIST) +
+                                ",\"userIds\":[" + users.get(1).getUserId() + "],\"sort\":[\"-amount\"],\"size\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].amount").value(biggest.getAmount()))
+                .andExpect(jsonPath("$.next").isNumber());
+        mockMvc.perform(post("/reimbursements/query").session(TestAccounts.login(mockMvc, userService, "manager"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[1],\"sort\":[\"amount\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/reimbursements/query").session(TestAccounts.login(mockMvc, userService, "employee"))
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+    }
+
+    //The database's plan for exactly the statement ReimbursementQueryDAO.findRows runs, one line per row
+    private List<String> explain(ReimbursementQueryDTO query, int limit) {
+        ReimbursementQueryDAOImpl.Statement statement = ReimbursementQueryDAOImpl.statement(query, limit);
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+                "explain " + statement.sql().replace("{h-schema}", "demo."), statement.parameters(), String.class);
+    }
+
+    //Page through the query 7 rows at a time and compare with the same filter and order done in memory
+    private void assertQuery(ReimbursementQueryDTO query, Predicate<OutgoingReimbursementDTO> filter,
+                             Comparator<OutgoingReimbursementDTO> order) {
+        List<Integer> expected = rows.stream().filter(filter).sorted(order)
+                .map(OutgoingReimbursementDTO::getReimbid).toList();
+        boolean byAmount = query.getSort() != null && query.getSort().get(0).endsWith("amount");
+
+        List<Integer> found = new ArrayList<>();
+        query.setSize(7);
+        PageDTO<OutgoingReimbursementDTO> page;
+        do {
+            page = reimbursementService.queryReimbursements(query);
+            page.getItems().forEach(r -> found.add(r.getReimbid()));
+            if (page.getNext() != null) {
+                query.setAfter(page.getNext());
+                query.setAfterAmount(byAmount ? page.getItems().get(page.getItems().size() - 1).getAmount() : null);
+            }
+        } while (page.getNext() != null);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found, query.toString());
+    }
+
+    private static ReimbursementQueryDTO query(List<String> statuses, List<Integer> userIds, Double minAmount,
+                                               Double maxAmount, Integer minId, Integer maxId, List<String> sort) {
+        ReimbursementQueryDTO query = new ReimbursementQueryDTO();
+        query.setStatuses(statuses);
+        query.setUserIds(userIds);
+        query.setMinAmount(minAmount);
+        query.setMaxAmount(maxAmount);
+        query.setMinId(minId);
+        query.setMaxId(maxId);
+        query.setSort(sort);
+        return query;
+    }
+
+    private List<Integer> userIds() {
+        return users.stream().map(User::getUserId).toList();
+    }
+
+    private static Comparator<OutgoingReimbursementDTO> byId() {
+        return Comparator.comparingInt(OutgoingReimbursementDTO::getReimbid);
+    }
+
+    private static Comparator<OutgoingReimbursementDTO> byAmount() {
+        return Comparator.comparingDouble(OutgoingReimbursementDTO::getAmount).thenComparing(byId());
+    }
+}
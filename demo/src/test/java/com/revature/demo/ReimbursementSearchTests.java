@@ -0,0 +1,228 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementArchiver;
+import com.revature.services.ReimbursementImportService;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Ranked description search, and the index following every kind of write without a rebuild
+//Each test works on a fresh user's claims (filtered by userId), so rows from other tests can't change the results
+//Writes reach searches in the background, at the next refresh - hence eventually()
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReimbursementSearchTests {
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    @Autowired
+    private ReimbursementImportService importService;
+
+    @Autowired
+    private ReimbursementArchiver archiver;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.rebuild(); //also waits for the startup rebuild
+        user = TestAccounts.newUser(userService, "employee");
+    }
+
+    @Test
+    void ranksByRelevanceAndMatchesWordForms() {
+        int registration = claim("Conference registration fee", 400);
+        int hotelForConference = claim("Hotel stay for the sales conference", 600);
+        int berlin = claim("Hotels in Berlin, two nights", 350);
+        claim("Taxi to the airport", 40);
+
+        //the shorter description is the closer match for a single word
+        eventually(() -> assertEquals(List.of(registration, hotelForConference), ids(search("conference"))));
+        //"hotel" finds "Hotels" too
+        eventually(() -> assertEquals(Set.of(berlin, hotelForConference), Set.copyOf(ids(search("hotel")))));
+        //the claim with both words comes first
+        assertEquals(hotelForConference, ids(search("hotel conference")).get(0));
+        assertTrue(search("lunch").isEmpty());
+        assertTrue(search("the").isEmpty()); //stop words alone match nothing
+    }
+
+    @Test
+    void filtersByStatusUserAndAmount() {
+        int cheap = claim("Conference lunch", 20);
+        int pricey = claim("Conference flight", 900);
+        reimbursementService.resolveReimbursement(pricey, "approved");
+
+        eventually(() -> assertEquals(List.of(cheap), ids(reimbursementService.searchReimbursements("conference",
+                "pending", user.getUserId(), null, null, 0, null).getItems())));
+        eventually(() -> assertEquals(List.of(pricey), ids(reimbursementService.searchReimbursements("conference", null,
+                user.getUserId(), 100.0, null, 0, null).getItems())));
+        eventually(() -> assertEquals(List.of(cheap), ids(reimbursementService.searchReimbursements("conference", null,
+                user.getUserId(), null, 100.0, 0, null).getItems())));
+        assertThrows(IllegalArgumentException.class, () -> reimbursementService.searchReimbursements(" ", null,
+                null, null, null, 0, null));
+    }
+
+    @Test
+    void followsEditsBulkChangesAndDeletes() throws Exception {
+        int id = claim("Parking at the office", 15);
+        reimbursementService.updateReimbursementAsManager(id, new Reimbursement(0, 0, "Parking at the expo", "", null));
+        eventually(() -> {
+            assertEquals(List.of(id), ids(search("expo")));
+            assertTrue(search("office").isEmpty());
+        });
+
+        reimbursementService.resolveReimbursements(List.of(id), "denied");
+        eventually(() -> assertEquals("DENIED", search("expo").get(0).getStatus()));
+
+        String csv = "userId,amount,description\n" + user.getUserId() + ",75,Workshop tickets\n";
+        importService.importReimbursements(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        eventually(() -> assertEquals(1, search("workshop").size()));
+
+        //archived claims leave the index along with the hot table
+        archiver.archiveResolvedBefore(Instant.now().plusSeconds(1));
+        eventually(() -> assertTrue(search("expo").isEmpty()));
+
+        userService.deleteUser(user.getUserId());
+        eventually(() -> assertTrue(search("workshop").isEmpty()));
+    }
+
+    @Test
+    void rebuildPicksUpRowsWrittenWithoutEvents() {
+        int id = reimbursementDAO.save(new Reimbursement(0, 12, "Printer toner", "PENDING", user)).getReimbid();
+        assertTrue(search("toner").isEmpty());
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(id), ids(search("toner")));
+    }
+
+    @Test
+    void failedIndexIsRecoveredByARebuild(@TempDir Path path) throws Exception {
+        int id = claim("Standing desk", 450);
+        ReimbursementSearchIndex index = new ReimbursementSearchIndex(reimbursementDAO, transactionManager,
+                new SimpleMeterRegistry(), path.toString(), 1, Duration.ofSeconds(1));
+        try {
+            index.rebuild();
+            assertEquals(List.of(id), ids(search(index, "desk")));
+            assertFalse(index.recover()); //nothing to recover from
+
+            //the files are removed underneath the writer, so the next segment it writes fails
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            assertThrows(RuntimeException.class, index::rebuild);
+            assertFalse(index.isReady());
+            assertThrows(ServiceUnavailableException.class, () -> search(index, "desk"));
+
+            assertTrue(index.recover());
+            assertTrue(index.isReady());
+            assertEquals(List.of(id), ids(search(index, "desk")));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    void searchEndpointIsForManagers() throws Exception {
+        int id = claim("Keynote speaker gift", 80);
+        eventually(() -> assertEquals(List.of(id), ids(search("keynote"))));
+
+        mockMvc.perform(get("/reimbursements/search").param("q", "keynote").param("userId", "" + user.getUserId())
+                        .session(TestAccounts.login(mockMvc, userService, "manager")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].reimbid").value(id))
+                .andExpect(jsonPath("$.next").isEmpty());
+        mockMvc.perform(get("/reimbursements/search").session(TestAccounts.login(mockMvc, userService, "manager")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/reimbursements/search").param("q", "keynote")
+                        .session(TestAccounts.login(mockMvc, userService, "employee")))
+                .andExpect(status().isForbidden());
+    }
+
+    private int claim(String description, double amount) {
+        return reimbursementService.insertReimbursement(new Reimbursement(0, amount, description, null, null),
+                user.getUserId()).getReimbid();
+    }
+
+    private List<OutgoingReimbursementDTO> search(String text) {
+        PageDTO<OutgoingReimbursementDTO> page = reimbursementService.searchReimbursements(text, null, user.getUserId(),
+                null, null, 0, null);
+        return page.getItems();
+    }
+
+    private List<OutgoingReimbursementDTO> search(ReimbursementSearchIndex index, String text) {
+        return index.search(text, null, user.getUserId(), null, null, 0, 10).getItems();
+    }
+
+    //Retry an assertion until the index has caught up, for up to 10s
+    private static void eventually(Runnable assertion) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<OutgoingReimbursementDTO> rows) {
+        return rows.stream().map(OutgoingReimbursementDTO::getReimbid).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//p50/p99 latency and throughput of a DB-backed endpoint under 2,000 concurrent closed-loop clients
+//Off by default. Compare the two modes by running it twice:
+//  mvn test -Dbenchmarks=true -Dtest=RequestConcurrencyBenchmarkTests
+//  mvn test -Pjava21 -Dbenchmarks=true -Dtest=RequestConcurrencyBenchmarkTests -Dspring.threads.virtual.enabled=true
+//(the second needs Maven running on a JDK 21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RequestConcurrencyBenchmarkTests {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 2_000);
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(20);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void latencyAndThroughputUnderLoad() throws Exception {
+        String username = "bench-" + UUID.randomUUID();
+        User user = userService.insertUser(new IncomingUserDTO(0, "Bench", "Mark", username, "password", "employee"));
+        List<Reimbursement> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new Reimbursement(0, 10 + i, "bench " + i, "PENDING", user));
+        }
+        reimbursementDAO.saveAll(rows);
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String cookie = login(client, username);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/reimbursements/user/self"))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            long warmUpEnd = System.nanoTime() + WARM_UP.toNanos();
+            long end = warmUpEnd + MEASURE.toNanos();
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                results.add(clients.submit(() -> runClient(client, request, warmUpEnd, end)));
+            }
+
+            long[] latencies = new long[0];
+            long rejected = 0;
+            long errors = 0;
+            for (Future<long[]> result : results) {
+                long[] r = result.get();
+                //last two slots are the 503 and error counts
+                rejected += r[r.length - 2];
+                errors += r[r.length - 1];
+                int n = latencies.length;
+                latencies = Arrays.copyOf(latencies, n + r.length - 2);
+                System.arraycopy(r, 0, latencies, n, r.length - 2);
+            }
+            Arrays.sort(latencies);
+
+            System.out.printf("mode=%s clients=%d%n",
+                    environment.getProperty("spring.threads.virtual.enabled", "false").equals("true")
+                            && Runtime.version().feature() >= 21 ? "virtual" : "platform", CLIENTS);
+            System.out.printf("ok=%d rejected(503)=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                    latencies.length, rejected, errors, latencies.length / (MEASURE.toNanos() / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    //closed loop: send, wait for the response, repeat - only responses completed in the measured window are recorded
+    private static long[] runClient(HttpClient client, HttpRequest request, long warmUpEnd, long end) {
+        long[] latencies = new long[1024];
+        int n = 0;
+        long rejected = 0;
+        long errors = 0;
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= end) {
+                break;
+            }
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long done = System.nanoTime();
+            if (start < warmUpEnd || done > end) {
+                continue;
+            }
+            if (status == 200) {
+                if (n == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, n * 2);
+                }
+                latencies[n++] = done - start;
+            } else if (status == 503) {
+                rejected++;
+            } else {
+                errors++;
+            }
+        }
+        long[] result = Arrays.copyOf(latencies, n + 2);
+        result[n] = rejected;
+        result[n + 1] = errors;
+        return result;
+    }
+
+    private String login(HttpClient client, String username) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("login failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.headers().firstValue("Set-Cookie").orElseThrow().split(";")[0];
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,154 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The schema comes from the Flyway migrations (Hibernate only validates it), and username uniqueness is enforced by the DB
+@SpringBootTest
+class SchemaMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Test
+    void migrationsAreApplied() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied.length >= 2);
+        for (MigrationInfo migration : applied) {
+            assertTrue(migration.getState().isApplied(), migration.getScript());
+        }
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void queryIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select lower(index_name) from information_schema.indexes where lower(table_schema) = 'demo'",
+                String.class);
+
+        assertTrue(indexes.contains("idx_reimbursement_user_status_reimbid"), indexes.toString());
+        assertTrue(indexes.contains("ux_user_username"), indexes.toString());
+    }
+
+    //A database the original app built with ddl-auto=update (IDENTITY ids, no sequences, none of the later columns):
+    //the app starts on it as in production - Flyway from baseline 0, then Hibernate's validation - and the id
+    //sequences (V8) hand out ids past the rows already there
+    @Test
+    void databaseBuiltByTheOriginalAppIsMigratedAndValidates() {
+        String url = "jdbc:h2:mem:legacy-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS demo";
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        try {
+            //the DDL Hibernate generated for the original entities
+            legacy.execute("create table demo.user (user_id integer generated by default as identity, "
+                    + "first_name varchar(255) not null, last_name varchar(255) not null, password varchar(255) not null, "
+                    + "role varchar(255) not null, username varchar(255) not null, primary key (user_id))");
+            legacy.execute("create table demo.reimbursement (reimbid integer generated by default as identity, "
+                    + "amount float(53) not null, description varchar(255) not null, status varchar(255) not null, "
+                    + "user_id integer, primary key (reimbid))");
+            legacy.execute("alter table if exists demo.reimbursement add constraint fk_legacy_reimbursement_user "
+                    + "foreign key (user_id) references demo.user");
+            legacy.update("insert into demo.user (user_id, first_name, last_name, username, password, role)"
+                    + " values (3, 'Old', 'User', 'old-user', 'password', 'employee')");
+            legacy.update("insert into demo.reimbursement (reimbid, amount, description, status, user_id)"
+                    + " values (120, 10, 'Old claim', 'PENDING', 3), (121, 20, 'Old approved claim', 'approved', 3)");
+
+            //command-line arguments, so they win over the test application.properties
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(DemoApplication.class).run(
+                    "--spring.datasource.url=" + url,
+                    "--server.port=0",
+                    "--spring.flyway.baseline-on-migrate=true",
+                    "--spring.flyway.baseline-version=0")) {
+                assertEquals(0, app.getBean(Flyway.class).info().pending().length);
+                assertEquals(0, legacy.queryForObject(
+                        "select version from demo.reimbursement where reimbid = 120", Integer.class));
+
+                ReimbursementDAO reimbursementDAO = app.getBean(ReimbursementDAO.class);
+                User user = app.getBean(UserDAO.class).save(new User(0, "New", "User", "new-user", "password", "employee", null));
+                assertEquals(4, user.getUserId());
+                Reimbursement claim = reimbursementDAO.save(new Reimbursement(0, 5, "New claim", "PENDING", user));
+                assertEquals(122, claim.getReimbid());
+                //and the old rows work with the new code
+                assertEquals("APPROVED", app.getBean(ReimbursementService.class)
+                        .resolveReimbursement(120, "approved").getStatus());
+            }
+        } finally {
+            legacy.execute("shutdown");
+        }
+    }
+
+    @Test
+    void duplicateUsernameIsRejected() {
+        String username = "dup-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "First", "User", username, "password", "employee"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                userService.insertUser(new IncomingUserDTO(0, "Second", "User", username, "password", "employee")));
+        assertEquals("Username already exists.", e.getMessage());
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneUsernameCreateOneUser() throws Exception {
+        String username = "race-" + UUID.randomUUID();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.insertUser(new IncomingUserDTO(0, "Race", "User", username, "password", "employee"));
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    created++;
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(userDAO.findByUsername(username).isPresent());
+    }
+}
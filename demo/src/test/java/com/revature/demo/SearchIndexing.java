@@ -0,0 +1,25 @@
+package com.revature.demo;
+
+import com.revature.services.ReimbursementSearchIndex;
+
+//The search index re-reads changed rows on its own thread. Tests that count statements wait for it first,
+//so its queries don't end up in their counts
+final class SearchIndexing {
+
+    private SearchIndexing() {
+    }
+
+    static void awaitIdle(ReimbursementSearchIndex searchIndex) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (searchIndex.getBacklog() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("search index still has " + searchIndex.getBacklog() + " changes to apply");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.revature.demo;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.PageDTO;
+import com.revature.models.User;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.ReimbursementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Search latency over a large table: loads synthetic claims into H2, builds the index, then times mixed queries
+//Off by default - run with: mvn test -Dbenchmarks=true -Dtest=SearchLatencyBenchmarkTests
+//The claim count defaults to 1M; -Dbenchmark.claims=10000000 for the full-size run (give Surefire a few GB of heap,
+//e.g. -DargLine=-Xmx6g, and ideally -Dreimbursements.search.path=<dir> to keep the index off the heap)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SearchLatencyBenchmarkTests {
+
+    private static final int USERS = 1_000;
+    private static final int QUERIES = 2_000;
+    private static final long P99_BUDGET_MILLIS = 50;
+
+    private static final String[] WORDS = ("hotel conference flight taxi train lunch dinner breakfast client team " +
+            "offsite workshop training course book license software laptop monitor keyboard mouse printer toner " +
+            "parking mileage fuel rental car airport visa passport badge registration fee booth expo summit " +
+            "keynote speaker gift coffee snacks catering venue projector cable adapter phone internet roaming " +
+            "postage courier shipping office supplies chair desk lamp headset webcam subscription journal " +
+            "membership certification exam seminar meetup hackathon recruiting interview relocation storage").split(" ");
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void p99StaysWithinBudget() {
+        int claims = Integer.getInteger("benchmark.claims", 1_000_000);
+        Random random = new Random(42);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(userDAO.save(new User(0, "Bench", "Search", "bench-search-" + i, "password", "employee", null)));
+        }
+        load(claims, users, random);
+
+        long buildStart = System.nanoTime();
+        long indexed = searchIndex.rebuild();
+        System.out.printf("indexed %d claims in %d s%n", indexed, (System.nanoTime() - buildStart) / 1_000_000_000);
+
+        //warm-up, then the measured queries: 1-3 words, a third of them with a filter
+        runQueries(500, users, random);
+        long[] nanos = runQueries(QUERIES, users, random);
+        Arrays.sort(nanos);
+
+        long p50 = nanos[nanos.length / 2] / 1_000_000;
+        long p99 = nanos[nanos.length * 99 / 100] / 1_000_000;
+        System.out.printf("%d queries over %d claims: p50 %d ms, p99 %d ms, max %d ms%n",
+                QUERIES, claims, p50, p99, nanos[nanos.length - 1] / 1_000_000);
+        assertTrue(p99 <= P99_BUDGET_MILLIS, "p99 " + p99 + " ms");
+    }
+
+    //Plain JDBC batches - going through JPA would take far longer than the part we're measuring
+    private void load(int claims, List<User> users, Random random) {
+        int batch = 10_000;
+        List<Object[]> rows = new ArrayList<>(batch);
+        for (int i = 1; i <= claims; i++) {
+            String status = i % 5 == 0 ? "APPROVED" : i % 7 == 0 ? "DENIED" : "PENDING";
+            rows.add(new Object[]{1_000_000_000 + i, 5 + random.nextInt(2000), description(random), status,
+                    users.get(random.nextInt(users.size())).getUserId()});
+            if (rows.size() == batch || i == claims) {
+                jdbcTemplate.batchUpdate("insert into demo.reimbursement (reimbid, amount, description, status, " +
+                        "version, user_id) values (?, ?, ?, ?, 0, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private long[] runQueries(int count, List<User> users, Random random) {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            String text = WORDS[random.nextInt(WORDS.length)];
+            if (random.nextBoolean()) {
+                text += " " + WORDS[random.nextInt(WORDS.length)];
+            }
+            String status = i % 3 == 0 ? "PENDING" : null;
+            Integer userId = i % 3 == 1 ? users.get(random.nextInt(users.size())).getUserId() : null;
+
+            long start = System.nanoTime();
+            PageDTO<OutgoingReimbursementDTO> page =
+                    reimbursementService.searchReimbursements(text, status, userId, null, null, 0, null);
+            nanos[i] = System.nanoTime() - start;
+            assertTrue(page.getItems().size() <= ReimbursementService.DEFAULT_PAGE_SIZE);
+        }
+        return nanos;
+    }
+
+    private static String description(Random random) {
+        int words = 3 + random.nextInt(6);
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.revature.demo;
+
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.User;
+import com.revature.services.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Accounts for tests that call the endpoints: a user with a unique username (password "password"), and a logged-in
+//session for one. Users are made through the service - sign-up is rate limited where AdmissionTests turns limits on
+final class TestAccounts {
+
+    static final String PASSWORD = "password";
+
+    private TestAccounts() {
+    }
+
+    static User newUser(UserService userService, String role) {
+        return userService.insertUser(new IncomingUserDTO(0, "Test", "User", role + "-" + UUID.randomUUID(),
+                PASSWORD, role));
+    }
+
+    //POST /auth for this user, for tests that need to change the request (e.g. the client address)
+    static MockHttpServletRequestBuilder loginRequest(User user) {
+        return post("/auth").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    static MockHttpSession login(MockMvc mockMvc, User user) throws Exception {
+        return login(mockMvc, loginRequest(user));
+    }
+
+    static MockHttpSession login(MockMvc mockMvc, RequestBuilder loginRequest) throws Exception {
+        return (MockHttpSession) mockMvc.perform(loginRequest)
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    //A new user with this role, logged in
+    static MockHttpSession login(MockMvc mockMvc, UserService userService, String role) throws Exception {
+        return login(mockMvc, newUser(userService, role));
+    }
+}
@@ -0,0 +1,129 @@
+package com.revature.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.controllers.AuthController;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.UserPrincipal;
+import com.revature.services.TokenService;
+import com.revature.services.UserService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Token mode: login issues a signed token, and every auth check reads it instead of the HttpSession
+@SpringBootTest(properties = {
+        "auth.token.enabled=true",
+        "auth.token.keys=old:MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=,new:ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=",
+        "auth.token.active-key=new"
+})
+@AutoConfigureMockMvc
+class TokenAuthTests {
+
+    private static final byte[] OLD_KEY = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final byte[] NEW_KEY = "fedcba9876543210fedcba9876543210".getBytes();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void loginIssuesTokenThatReplacesTheSession() throws Exception {
+        String username = "token-" + UUID.randomUUID();
+        userService.insertUser(new IncomingUserDTO(0, "To", "Ken", username, "password", "employee"));
+
+        MvcResult login = mockMvc.perform(post("/auth").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNull(login.getRequest().getSession(false), "token mode must not create a session");
+        Cookie cookie = login.getResponse().getCookie("AUTH_TOKEN");
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+        String token = login.getResponse().getHeader(AuthController.TOKEN_HEADER);
+
+        mockMvc.perform(get("/auth/session").cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(username));
+        mockMvc.perform(get("/reimbursements/user/self").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        //employee token on a manager endpoint, and no token at all
+        mockMvc.perform(get("/reimbursements/all").cookie(cookie)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/auth/session")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/session").header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tokensSurviveKeyRotationUntilTheOldKeyIsDropped() {
+        Map<String, byte[]> bothKeys = new LinkedHashMap<>();
+        bothKeys.put("old", OLD_KEY);
+        bothKeys.put("new", NEW_KEY);
+        TokenService beforeRotation = service(Map.of("old", OLD_KEY), "old", Clock.systemUTC());
+        TokenService duringRotation = service(bothKeys, "new", Clock.systemUTC());
+        TokenService afterRotation = service(Map.of("new", NEW_KEY), "new", Clock.systemUTC());
+
+        String oldToken = beforeRotation.issue(new UserPrincipal(7, "u", "manager"));
+        UserPrincipal principal = duringRotation.verify(oldToken);
+        assertNotNull(principal);
+        assertEquals(7, principal.getUserId());
+        assertTrue(principal.isManager());
+        assertNull(afterRotation.verify(oldToken));
+
+        String newToken = duringRotation.issue(new UserPrincipal(7, "u", "manager"));
+        assertNotNull(afterRotation.verify(newToken));
+        //the shared test context uses the same keys
+        assertNotNull(tokenService.verify(newToken));
+    }
+
+    @Test
+    void expiredAndTamperedTokensAreRejected() {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        TokenService issuer = service(Map.of("new", NEW_KEY), "new", Clock.fixed(now, ZoneOffset.UTC));
+        TokenService later = service(Map.of("new", NEW_KEY), "new", Clock.fixed(now.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+        String token = issuer.issue(new UserPrincipal(1, "u", "employee"));
+        assertNotNull(issuer.verify(token));
+        assertNull(later.verify(token));
+
+        //swap the payload for one claiming a manager role, keeping the original signature
+        String forgedPayload = service(Map.of("new", NEW_KEY), "new", Clock.fixed(now, ZoneOffset.UTC))
+                .issue(new UserPrincipal(1, "u", "manager")).split("\\.")[1];
+        String[] parts = token.split("\\.");
+        assertNull(issuer.verify(parts[0] + "." + forgedPayload + "." + parts[2]));
+        assertNull(issuer.verify("garbage"));
+        assertNull(issuer.verify("unknown." + parts[1] + "." + parts[2]));
+    }
+
+    private TokenService service(Map<String, byte[]> keys, String activeKey, Clock clock) {
+        return new TokenService(true, keys, activeKey, Duration.ofHours(1), "AUTH_TOKEN", false, clock, objectMapper);
+    }
+}
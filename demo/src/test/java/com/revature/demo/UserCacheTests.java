@@ -0,0 +1,89 @@
+package com.revature.demo;
+
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.LoginDTO;
+import com.revature.models.DTOs.OutgoingUserDTO;
+import com.revature.models.User;
+import com.revature.services.AuthService;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Repeat logins and /users/self lookups should hit the cache, and mutations must never leave a stale entry behind
+@SpringBootTest
+class UserCacheTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String username = "cached-" + UUID.randomUUID();
+        user = userService.insertUser(new IncomingUserDTO(0, "Cache", "User", username, "password", "employee"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SearchIndexing.awaitIdle(searchIndex);
+        statistics.clear();
+    }
+
+    @Test
+    void repeatLookupsAreServedFromCache() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(user.getUsername(), userService.getUserById(user.getUserId()).getUsername());
+            assertNotNull(authService.login(new LoginDTO(user.getUsername(), "password")));
+        }
+
+        //one query per cache, on the first miss only
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(userService.getCacheStats().stream().allMatch(s -> s.getHitCount() >= 9));
+    }
+
+    @Test
+    void roleChangeIsVisibleAsSoonAsUpdateReturns() {
+        authService.login(new LoginDTO(user.getUsername(), "password"));
+        userService.getUserById(user.getUserId());
+
+        userService.updateUserRole(user.getUserId(), "manager");
+
+        assertEquals("manager", userService.getUserById(user.getUserId()).getRole());
+        OutgoingUserDTO loggedIn = authService.login(new LoginDTO(user.getUsername(), "password"));
+        assertEquals("manager", loggedIn.getRole());
+    }
+
+    @Test
+    void deletedUserIsGoneAsSoonAsDeleteReturns() {
+        authService.login(new LoginDTO(user.getUsername(), "password"));
+        userService.getUserById(user.getUserId());
+
+        userService.deleteUser(user.getUserId());
+
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserById(user.getUserId()));
+        assertNull(authService.login(new LoginDTO(user.getUsername(), "password")));
+        assertTrue(userDAO.findActiveById(user.getUserId()).isEmpty());
+    }
+}
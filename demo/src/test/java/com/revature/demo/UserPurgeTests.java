@@ -0,0 +1,77 @@
+package com.revature.demo;
+
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.models.DTOs.IncomingUserDTO;
+import com.revature.models.DTOs.PurgeProgressDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementService;
+import com.revature.services.UserPurger;
+import com.revature.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Deleting a user tombstones them at once; UserPurger removes their reimbursements in chunks, then the user row
+@SpringBootTest(properties = "users.purge.chunk-size=10")
+class UserPurgeTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserPurger userPurger;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Test
+    void deleteTombstonesAndPurgerRemovesEverythingInChunks() {
+        String username = "purge-" + UUID.randomUUID();
+        User user = userService.insertUser(new IncomingUserDTO(0, "Purge", "Me", username, "password", "employee"));
+        List<Reimbursement> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new Reimbursement(0, 5 + i, "claim " + i, "PENDING", user));
+        }
+        reimbursementDAO.saveAll(rows);
+
+        userService.deleteUser(user.getUserId());
+
+        //gone from the API straight away, but nothing has been deleted yet
+        assertTrue(userDAO.findActiveById(user.getUserId()).isEmpty());
+        assertTrue(reimbursementService.getReimbursementsByUserID(user.getUserId()).isEmpty());
+        assertEquals(25, reimbursementDAO.countByUser_UserId(user.getUserId()));
+        assertTrue(userService.getPurgeProgress().stream()
+                .anyMatch(p -> p.getUserId() == user.getUserId() && PurgeProgressDTO.QUEUED.equals(p.getState())));
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteUser(user.getUserId()));
+
+        userPurger.purgeTombstonedUsers();
+
+        assertEquals(0, reimbursementDAO.countByUser_UserId(user.getUserId()));
+        assertTrue(userDAO.findById(user.getUserId()).isEmpty());
+
+        PurgeProgressDTO progress = userService.getPurgeProgress().stream()
+                .filter(p -> p.getUserId() == user.getUserId())
+                .findFirst().orElseThrow();
+        assertEquals(PurgeProgressDTO.DONE, progress.getState());
+        assertEquals(25, progress.getTotalReimbursements());
+        assertEquals(25, progress.getDeletedReimbursements());
+        assertNotNull(progress.getFinishedAt());
+
+        //the username is free again once the row is gone
+        assertNotNull(userService.insertUser(new IncomingUserDTO(0, "Purge", "Again", username, "password", "employee")));
+    }
+}
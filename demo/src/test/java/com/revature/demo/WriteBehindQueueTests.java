@@ -0,0 +1,251 @@
+package com.revature.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.DAOs.ReimbursementDAO;
+import com.revature.DAOs.UserDAO;
+import com.revature.exceptions.ServiceUnavailableException;
+import com.revature.models.DTOs.ClaimTicketDTO;
+import com.revature.models.DTOs.OutgoingReimbursementDTO;
+import com.revature.models.DTOs.ReimbursementEventDTO;
+import com.revature.models.DTOs.ReimbursementsChangedDTO;
+import com.revature.models.Reimbursement;
+import com.revature.models.User;
+import com.revature.services.ReimbursementSearchIndex;
+import com.revature.services.ReimbursementService;
+import com.revature.services.ReimbursementWriteBehindQueue;
+import com.revature.services.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Accept-then-persist: claims are answered with a ticket, written in batches by one thread, refused when the queue is
+//full, and everything queued is saved on shutdown
+//The endpoint tests use the app's queue; the rest build their own, so they decide when its writer runs
+@SpringBootTest(properties = {
+        "reimbursements.write-behind.enabled=true",
+        "reimbursements.write-behind.flush-interval=20ms"
+})
+@AutoConfigureMockMvc
+class WriteBehindQueueTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReimbursementWriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ReimbursementDAO reimbursementDAO;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReimbursementSearchIndex searchIndex;
+
+    @Test
+    void submittedClaimIsAcceptedThenSaved() throws Exception {
+        User employee = TestAccounts.newUser(userService, "employee");
+        MockHttpSession session = TestAccounts.login(mockMvc, employee);
+
+        String body = mockMvc.perform(post("/reimbursements/user/self").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":42.5,\"description\":\"Month-end taxi\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.ticketId").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        ClaimTicketDTO ticket = objectMapper.readValue(body, ClaimTicketDTO.class);
+
+        ClaimTicketDTO saved = awaitSettled(ticket.getTicketId());
+        assertEquals(ClaimTicketDTO.SAVED, saved.getStatus());
+        Reimbursement row = reimbursementDAO.findById(saved.getReimbid()).orElseThrow();
+        assertEquals("Month-end taxi", row.getDescription());
+        assertEquals("PENDING", row.getStatus());
+
+        mockMvc.perform(get("/reimbursements/tickets/" + ticket.getTicketId()).session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(ClaimTicketDTO.SAVED))
+                .andExpect(jsonPath("$.reimbid").value(saved.getReimbid()));
+        mockMvc.perform(get("/reimbursements/tickets/" + ticket.getTicketId())
+                        .session(TestAccounts.login(mockMvc, userService, "manager")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/reimbursements/tickets/" + ticket.getTicketId())
+                        .session(TestAccounts.login(mockMvc, userService, "employee")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/reimbursements/tickets/" + UUID.randomUUID()).session(session))
+                .andExpect(status().isNotFound());
+
+        //validation still happens in the request
+        mockMvc.perform(post("/reimbursements/user/self").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":0,\"description\":\"Nothing\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void fullQueueIsRefusedAndBacklogIsWrittenInBatches() {
+        User employee = TestAccounts.newUser(userService, "employee");
+        List<Object> published = new ArrayList<>();
+        ReimbursementWriteBehindQueue queue = newQueue(10, 4, event -> {
+            published.add(event);
+            events.publishEvent(event);
+        });
+
+        //the writer isn't running yet, so the queue fills up
+        List<ClaimTicketDTO> tickets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tickets.add(queue.submit(claim("Burst " + i), employee.getUserId(), employee.getUsername()));
+        }
+        assertThrows(ServiceUnavailableException.class,
+                () -> queue.submit(claim("One too many"), employee.getUserId(), employee.getUsername()));
+        assertEquals(10, queue.getQueued());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        SearchIndexing.awaitIdle(searchIndex);
+        statistics.clear();
+        queue.start();
+        queue.stop(); //returns once everything queued is written
+        SearchIndexing.awaitIdle(searchIndex);
+
+        //10 claims, 4 per batch: 3 transactions
+        assertEquals(3, statistics.getTransactionCount());
+        assertEquals(0, queue.getQueued());
+        for (ClaimTicketDTO ticket : tickets) {
+            ClaimTicketDTO settled = queue.getTicket(ticket.getTicketId()).orElseThrow();
+            assertEquals(ClaimTicketDTO.SAVED, settled.getStatus());
+            assertTrue(reimbursementDAO.existsById(settled.getReimbid()));
+        }
+        assertEquals(10, reimbursementService.getReimbursementsByUserID(employee.getUserId()).size());
+
+        //dashboards get an event per claim, the search index one change per batch
+        assertEquals(10, published.stream().filter(ReimbursementEventDTO.class::isInstance).count());
+        List<ReimbursementsChangedDTO> changes = published.stream().filter(ReimbursementsChangedDTO.class::isInstance)
+                .map(ReimbursementsChangedDTO.class::cast).toList();
+        assertEquals(List.of(4, 4, 2), changes.stream().map(change -> change.getReimbids().size()).toList());
+
+        //and nothing is taken once it has stopped
+        assertThrows(ServiceUnavailableException.class,
+                () -> queue.submit(claim("Too late"), employee.getUserId(), employee.getUsername()));
+    }
+
+    //As under an Idempotency-Key: the claim goes to the writer only if the key's transaction commits
+    @Test
+    void claimsSubmittedInATransactionWaitForItsCommit() {
+        User employee = TestAccounts.newUser(userService, "employee");
+        ReimbursementWriteBehindQueue queue = newQueue(1, 10);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ClaimTicketDTO rolledBack = transaction.execute(status -> {
+            ClaimTicketDTO ticket = queue.submit(claim("Rolled back"), employee.getUserId(), employee.getUsername());
+            status.setRollbackOnly();
+            return ticket;
+        });
+        assertTrue(queue.getTicket(rolledBack.getTicketId()).isEmpty());
+        assertEquals(0, queue.getQueued());
+
+        ClaimTicketDTO committed = transaction.execute(status -> {
+            ClaimTicketDTO ticket = queue.submit(claim("Committed"), employee.getUserId(), employee.getUsername());
+            assertEquals(0, queue.getQueued());
+            //but its place is taken
+            assertThrows(ServiceUnavailableException.class,
+                    () -> queue.submit(claim("No room"), employee.getUserId(), employee.getUsername()));
+            return ticket;
+        });
+        assertEquals(1, queue.getQueued());
+        queue.start();
+        queue.stop();
+
+        assertEquals(ClaimTicketDTO.SAVED, queue.getTicket(committed.getTicketId()).orElseThrow().getStatus());
+        assertEquals(List.of("Committed"), reimbursementService.getReimbursementsByUserID(employee.getUserId()).stream()
+                .map(OutgoingReimbursementDTO::getDescription).toList());
+    }
+
+    @Test
+    void claimsOfUsersDeletedWhileQueuedFail() {
+        User stays = TestAccounts.newUser(userService, "employee");
+        User leaves = TestAccounts.newUser(userService, "employee");
+        ReimbursementWriteBehindQueue queue = newQueue(10, 10);
+
+        ClaimTicketDTO kept = queue.submit(claim("Kept"), stays.getUserId(), stays.getUsername());
+        ClaimTicketDTO dropped = queue.submit(claim("Dropped"), leaves.getUserId(), leaves.getUsername());
+        userService.deleteUser(leaves.getUserId());
+        queue.start();
+        queue.stop();
+
+        assertEquals(ClaimTicketDTO.SAVED, queue.getTicket(kept.getTicketId()).orElseThrow().getStatus());
+        ClaimTicketDTO failed = queue.getTicket(dropped.getTicketId()).orElseThrow();
+        assertEquals(ClaimTicketDTO.FAILED, failed.getStatus());
+        assertNull(failed.getReimbid());
+        assertTrue(failed.getError().contains("not found"), failed.getError());
+    }
+
+    private ReimbursementWriteBehindQueue newQueue(int capacity, int batchSize) {
+        return newQueue(capacity, batchSize, events);
+    }
+
+    private ReimbursementWriteBehindQueue newQueue(int capacity, int batchSize, ApplicationEventPublisher events) {
+        return new ReimbursementWriteBehindQueue(reimbursementService, userDAO, entityManager, transactionManager,
+                events, true, capacity, batchSize, Duration.ofMillis(20), Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    private ClaimTicketDTO awaitSettled(String ticketId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ClaimTicketDTO ticket = writeBehindQueue.getTicket(ticketId).orElseThrow();
+            if (!ClaimTicketDTO.QUEUED.equals(ticket.getStatus())) {
+                return ticket;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("ticket " + ticketId + " still queued");
+    }
+
+    private static Reimbursement claim(String description) {
+        return new Reimbursement(0, 25, description, null, null);
+    }
+}